@@ -3,6 +3,7 @@ package com.tecnocampus.LS2.protube_back;
 import com.tecnocampus.LS2.protube_back.services.VideoService;
 import com.tecnocampus.LS2.protube_back.services.UserService;
 import com.tecnocampus.LS2.protube_back.services.ComentariService;
+import com.tecnocampus.LS2.protube_back.services.VideoMetadataReader;
 import com.tecnocampus.LS2.protube_back.domain.Video;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +16,14 @@ import org.springframework.stereotype.Component;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class AppStartupRunner implements ApplicationRunner {
@@ -33,6 +39,12 @@ public class AppStartupRunner implements ApplicationRunner {
     @Autowired
     ComentariService comentariService;
 
+    @Autowired
+    VideoMetadataReader metadataReader;
+
+    // store/0.mp4 .. store/80.mp4 with their yt-dlp <n>.json next to them
+    private static final int SEED_VIDEOS = 81;
+
     // Example variables from our implementation.
     private final Path rootPath;
     private final Boolean loadInitialData;
@@ -67,59 +79,66 @@ public class AppStartupRunner implements ApplicationRunner {
                 }
             }
 
-            // Create 9 videos distributed among users
-            java.util.List<Video> createdVideos = new java.util.ArrayList<>();
-            int userIndex = 0;
-            for (int i = 0; i <= 80; i++) {
-                // find user id from repository via listAllUsers()
-                var users = userService.listAllUsers();
-                String ownerId = users.get(userIndex).id();
-                // Default values in case metadata is missing
-                String baseName = String.valueOf(i);
-                String fileName = baseName + ".mp4";
-                String title = baseName; // will be replaced by metadata title if available
-                String description = "Description for video " + baseName;
-
-                try {
-                    if (rootPath != null) {
-                        Path jsonPath = rootPath.resolve(baseName + ".json");
-                        if (Files.exists(jsonPath)) {
-                            ObjectMapper mapper = new ObjectMapper();
-                            var map = mapper.readValue(jsonPath.toFile(), new TypeReference<java.util.Map<String, Object>>(){});
-                            Object t = map.get("title");
-                            if (t instanceof String s && !s.isBlank()) {
-                                title = s;
-                            }
-                            Object metaObj = map.get("meta");
-                            if (metaObj instanceof java.util.Map<?,?> mm) {
-                                Object desc = mm.get("description");
-                                if (desc instanceof String ds && !ds.isBlank()) {
-                                    description = ds;
-                                }
-                            } else {
-                                Object desc = map.get("description");
-                                if (desc instanceof String ds && !ds.isBlank()) {
-                                    description = ds;
-                                }
-                            }
-                        } else {
-                            LOG.warn("Metadata JSON not found for video {} at {}", baseName, jsonPath);
-                        }
-                    }
-                } catch (Exception metaEx) {
-                    LOG.warn("Failed to read metadata for video {}: {}", baseName, metaEx.getMessage());
+            // Create the seed videos distributed among users: metadata is parsed in parallel, rows are inserted in one batch
+            var users = userService.listAllUsers();
+            if (users.isEmpty()) {
+                LOG.warn("No users available, skipping seed videos");
+                return;
+            }
+            long started = System.nanoTime();
+            int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), SEED_VIDEOS));
+            List<Video> createdVideos = new ArrayList<>(SEED_VIDEOS);
+            Map<String, VideoMetadataReader.VideoMetadata> metadata = new ConcurrentHashMap<>();
+            try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+                List<Future<Video>> parsed = new ArrayList<>(SEED_VIDEOS);
+                for (int i = 0; i < SEED_VIDEOS; i++) {
+                    String ownerId = users.get(i % users.size()).id();
+                    String baseName = String.valueOf(i);
+                    parsed.add(pool.submit(() -> seedVideo(baseName, ownerId, metadata)));
+                }
+                for (Future<Video> video : parsed) {
+                    createdVideos.add(video.get());
                 }
-
-                Video v = new Video(ownerId, title, description, fileName);
-                Video saved = videoService.saveVideo(v);
-                createdVideos.add(saved);
-                LOG.info("Created video {} (id={}) by user {}", saved.getTitle(), saved.getVideoId(), ownerId);
-                userIndex = (userIndex + 1) % users.size();
             }
+            // the metadata parsed here also feeds the in-memory catalog, so no file is read twice
+            videoService.saveAll(createdVideos, metadata);
+            LOG.info("Created {} videos in {} ms ({} parser threads)", createdVideos.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), workers);
         }
         catch (Exception e) {
             LOG.error("Error during initial data load: {}", e.getMessage());
         }
     }
+
+    private Video seedVideo(String baseName, String ownerId, Map<String, VideoMetadataReader.VideoMetadata> metadata) {
+        // Default values in case metadata is missing
+        String fileName = baseName + ".mp4";
+        String title = baseName; // will be replaced by metadata title if available
+        String description = "Description for video " + baseName;
+        VideoMetadataReader.VideoMetadata meta = null;
+
+        try {
+            if (rootPath != null) {
+                Path jsonPath = rootPath.resolve(baseName + ".json");
+                if (Files.exists(jsonPath)) {
+                    meta = metadataReader.read(jsonPath);
+                    if (meta.title() != null && !meta.title().isBlank()) {
+                        title = meta.title();
+                    }
+                    if (meta.description() != null && !meta.description().isBlank()) {
+                        description = meta.description();
+                    }
+                } else {
+                    LOG.warn("Metadata JSON not found for video {} at {}", baseName, jsonPath);
+                }
+            }
+        } catch (Exception metaEx) {
+            LOG.warn("Failed to read metadata for video {}: {}", baseName, metaEx.getMessage());
+        }
+        LOG.debug("Prepared video {} ({}) for user {}", baseName, title, ownerId);
+        Video video = new Video(ownerId, title, description, fileName);
+        if (meta != null) metadata.put(video.getVideoId(), meta);
+        return video;
+    }
 }
 
@@ -0,0 +1,52 @@
+package com.tecnocampus.LS2.protube_back.configuration;
+
+import com.tecnocampus.LS2.protube_back.services.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Checks the {@code Authorization: Bearer <token>} header of /api requests and exposes the signed user id as the
+ * {@link #USER_ID_ATTRIBUTE} request attribute. Requests without the header pass through unchanged; a token that
+ * does not verify (bad signature, expired) is rejected with 401 before reaching a controller.
+ */
+@Component
+public class AuthTokenFilter extends OncePerRequestFilter {
+    public static final String USER_ID_ATTRIBUTE = "pro_tube.auth.userId";
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public AuthTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String userId = tokenService.verify(header.substring(BEARER.length()).trim());
+        if (userId == null) {
+            response.setHeader("X-Error", "invalid or expired token");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        request.setAttribute(USER_ID_ATTRIBUTE, userId);
+        chain.doFilter(request, response);
+    }
+}
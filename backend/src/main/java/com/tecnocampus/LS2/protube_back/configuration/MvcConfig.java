@@ -1,8 +1,6 @@
 package com.tecnocampus.LS2.protube_back.configuration;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.*;
 import org.springframework.lang.NonNull;
 
@@ -10,16 +8,9 @@ import org.springframework.lang.NonNull;
 @EnableWebMvc
 public class MvcConfig implements WebMvcConfigurer {
 
-    @Autowired
-    private Environment env;
-
     @Override
         public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        registry
-           .addResourceHandler("/media/**")
-           .addResourceLocations(
-                   String.format("file:%s", env.getProperty("pro_tube.store.dir")));
-
+        // /media/** is served by MediaController (range requests + zero-copy transfer)
         registry.addResourceHandler("/**")
            .addResourceLocations("classpath:/static/", "classpath:/public/",
                         "classpath:/resources/",
@@ -33,6 +24,7 @@ public class MvcConfig implements WebMvcConfigurer {
             .allowedOriginPatterns("*")
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH")
             .allowedHeaders("*")
+            .exposedHeaders("X-Auth-Token", "X-User-Id", "X-Error", "X-Duplicate-Of", "X-Media-Job-Id")
             .allowCredentials(false);
 
         registry.addMapping("/auth/**")
@@ -44,7 +36,7 @@ public class MvcConfig implements WebMvcConfigurer {
         // Allow the frontend to fetch metadata JSON and other media resources
         registry.addMapping("/media/**")
             .allowedOriginPatterns("*")
-            .allowedMethods("GET", "OPTIONS")
+            .allowedMethods("GET", "HEAD", "OPTIONS")
             .allowedHeaders("*")
             .allowCredentials(false);
         }
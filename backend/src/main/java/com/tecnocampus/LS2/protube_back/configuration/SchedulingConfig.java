@@ -0,0 +1,11 @@
+package com.tecnocampus.LS2.protube_back.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// background maintenance (log compaction and the like) runs on @Scheduled methods, on the scheduler pool sized
+// by spring.task.scheduling.pool.size so a slow task does not stall the frequent ones
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,8 +1,11 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
+import com.tecnocampus.LS2.protube_back.configuration.AuthTokenFilter;
 import com.tecnocampus.LS2.protube_back.controller.dto.ComentariDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.CommentPageDTO;
 import com.tecnocampus.LS2.protube_back.services.ComentariService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,9 +24,14 @@ public class ComentariController {
 	}
 
 	@PostMapping("/save")
-	public ResponseEntity<String> saveComentario(@RequestBody ComentariDTO comentarioDto) {
+	public ResponseEntity<String> saveComentario(@RequestBody ComentariDTO comentarioDto,
+			@RequestAttribute(name = AuthTokenFilter.USER_ID_ATTRIBUTE, required = false) String authenticatedUserId) {
+		// only the signed token identifies the author; a userId in the body is never trusted on its own
+		if (authenticatedUserId == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).header("X-Error", "authentication required").build();
+		}
 		try {
-			ComentariDTO created = comentariService.create(comentarioDto, comentarioDto != null ? comentarioDto.userId() : null);
+			ComentariDTO created = comentariService.create(comentarioDto, authenticatedUserId);
 			return ResponseEntity.ok(created.toString());
 		} catch (IllegalArgumentException ex) {
 			return ResponseEntity.badRequest().header("X-Error", ex.getMessage()).build();
@@ -35,6 +43,21 @@ public class ComentariController {
 		return ResponseEntity.ok().body(comentariService.findByVideoId(videoId));
 	}
 
+	@GetMapping("/video/{videoId}/page")
+	public ResponseEntity<CommentPageDTO> getCommentPageByVideo(@PathVariable String videoId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestParam(value = "order", required = false, defaultValue = "newest") String order) {
+		if (!"newest".equals(order) && !"oldest".equals(order)) {
+			return ResponseEntity.badRequest().header("X-Error", "order must be newest or oldest").build();
+		}
+		try {
+			return ResponseEntity.ok(comentariService.findPageByVideoId(videoId, cursor, limit, "oldest".equals(order)));
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().header("X-Error", ex.getMessage()).build();
+		}
+	}
+
 	@GetMapping("/map")
 	public ResponseEntity<java.util.Map<String, java.util.List<ComentariDTO>>> getCommentsMap() {
 		return ResponseEntity.ok().body(comentariService.getCommentsGroupedByVideo());
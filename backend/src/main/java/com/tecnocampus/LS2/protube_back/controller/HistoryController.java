@@ -1,7 +1,9 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.HistoryPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewDTO;
 import com.tecnocampus.LS2.protube_back.services.VideoViewService;
+import com.tecnocampus.LS2.protube_back.services.ViewCounter;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,15 +14,18 @@ import java.util.List;
 public class HistoryController {
 
     private final VideoViewService videoViewService;
+    private final ViewCounter viewCounter;
 
-    public HistoryController(VideoViewService videoViewService) {
+    public HistoryController(VideoViewService videoViewService, ViewCounter viewCounter) {
         this.videoViewService = videoViewService;
+        this.viewCounter = viewCounter;
     }
 
     @PostMapping("/view")
     public ResponseEntity<VideoViewDTO> registerView(@RequestBody ViewRequest request) {
         try {
             var dto = videoViewService.addOrUpdateView(request.userId(), request.videoFileName());
+            viewCounter.record(request.userId(), request.videoFileName());
             return ResponseEntity.ok(dto);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -32,5 +37,16 @@ public class HistoryController {
         return ResponseEntity.ok(videoViewService.listViews(userId));
     }
 
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<HistoryPageDTO> getHistoryPage(@PathVariable String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(videoViewService.findPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        }
+    }
+
     public record ViewRequest(String userId, String videoFileName) {}
 }
\ No newline at end of file
@@ -7,6 +7,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.tecnocampus.LS2.protube_back.services.LikeService;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/likes")
@@ -27,11 +31,30 @@ public class LikeController {
         likeService.likeVideo(userId, videoId);
     }
 
+    @PostMapping("/{userId}/batch")
+    public ResponseEntity<boolean[]> areVideosLikedByUser(@PathVariable String userId, @RequestBody List<String> videoIds) {
+        try {
+            return ResponseEntity.ok(likeService.areVideosLikedByUser(userId, videoIds));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().header("X-Error", ex.getMessage()).build();
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public java.util.List<String> getLikesByUser(@PathVariable String userId) {
         return likeService.getLikedVideoIdsByUser(userId);
     }
 
+    @GetMapping("/user/{userId}/watched")
+    public List<String> getLikedAndWatchedByUser(@PathVariable String userId) {
+        return likeService.getLikedAndWatchedVideoIds(userId);
+    }
+
+    @GetMapping("/video/{videoId}/count")
+    public long countLikes(@PathVariable String videoId) {
+        return likeService.countLikes(videoId);
+    }
+
     @DeleteMapping("/{userId}/{videoId}")
     public void unlikeVideo(@PathVariable String userId, @PathVariable String videoId) {
         likeService.unlikeVideo(userId, videoId);
@@ -0,0 +1,45 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.services.MediaStreamService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+@RestController
+public class MediaController {
+
+    private static final String PREFIX = "/media/";
+
+    private final MediaStreamService mediaStreamService;
+
+    public MediaController(MediaStreamService mediaStreamService) {
+        this.mediaStreamService = mediaStreamService;
+    }
+
+    @RequestMapping(value = "/media/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getMedia(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = mediaStreamService.resolve(relativePath(request));
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        mediaStreamService.serve(file, request, response);
+    }
+
+    private static String relativePath(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String context = request.getContextPath();
+        if (context != null && !context.isEmpty() && uri.startsWith(context)) {
+            uri = uri.substring(context.length());
+        }
+        if (!uri.startsWith(PREFIX)) return null;
+        return UriUtils.decode(uri.substring(PREFIX.length()), StandardCharsets.UTF_8);
+    }
+}
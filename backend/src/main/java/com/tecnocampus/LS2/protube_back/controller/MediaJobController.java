@@ -0,0 +1,37 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.MediaJobDTO;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.services.MediaJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/media-jobs")
+public class MediaJobController {
+
+    private final MediaJobService mediaJobService;
+
+    public MediaJobController(MediaJobService mediaJobService) {
+        this.mediaJobService = mediaJobService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MediaJobDTO> getJob(@PathVariable String id) {
+        return mediaJobService.findById(id)
+                .map(job -> ResponseEntity.ok(toDTO(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/video/{videoFileName:.+}")
+    public ResponseEntity<MediaJobDTO> getLatestJobForVideo(@PathVariable String videoFileName) {
+        return mediaJobService.findLatestByVideoFileName(videoFileName)
+                .map(job -> ResponseEntity.ok(toDTO(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private MediaJobDTO toDTO(MediaJob job) {
+        return new MediaJobDTO(job.getId(), String.valueOf(job.getType()), String.valueOf(job.getPriority()),
+                String.valueOf(job.getStatus()), job.getVideoFileName(), job.getAttempts(), job.getError());
+    }
+}
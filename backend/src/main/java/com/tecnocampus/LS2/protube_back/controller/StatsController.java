@@ -0,0 +1,39 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UniqueViewersDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewStatsDTO;
+import com.tecnocampus.LS2.protube_back.services.ViewCounter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final ViewCounter viewCounter;
+
+    public StatsController(ViewCounter viewCounter) {
+        this.viewCounter = viewCounter;
+    }
+
+    @GetMapping("/videos/{videoId}/views")
+    public ResponseEntity<VideoViewStatsDTO> getVideoViews(@PathVariable String videoId,
+            @RequestParam(value = "granularity", required = false) String granularity,
+            @RequestParam(value = "points", required = false) Integer points) {
+        try {
+            return ResponseEntity.ok(viewCounter.stats(videoId, granularity, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        }
+    }
+
+    @GetMapping("/videos/{videoId}/viewers")
+    public ResponseEntity<UniqueViewersDTO> getUniqueViewers(@PathVariable String videoId,
+            @RequestParam(value = "days", required = false) Integer days) {
+        try {
+            return ResponseEntity.ok(viewCounter.uniqueViewers(videoId, days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        }
+    }
+}
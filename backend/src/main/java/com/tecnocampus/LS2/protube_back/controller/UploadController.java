@@ -0,0 +1,92 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadCreateDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadSessionDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.UploadSession;
+import com.tecnocampus.LS2.protube_back.services.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Resumable uploads: create a session, PUT chunks (any order, in parallel, optionally with an
+ * X-Chunk-SHA256 header), check which chunks arrived with GET and finish with POST .../complete.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private final ChunkedUploadService uploadService;
+    public UploadController(ChunkedUploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    @PostMapping("")
+    public ResponseEntity<UploadSessionDTO> createUpload(@RequestBody UploadCreateDTO request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(toDTO(uploadService.create(request)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDTO> getUpload(@PathVariable String id) {
+        return uploadService.findById(id)
+                .map(s -> ResponseEntity.ok(toDTO(s)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/chunks/{index}")
+    public ResponseEntity<UploadSessionDTO> putChunk(@PathVariable String id, @PathVariable int index,
+                                                     @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum,
+                                                     HttpServletRequest request) {
+        try {
+            return uploadService.writeChunk(id, index, request.getInputStream(), checksum)
+                    .map(s -> ResponseEntity.ok(toDTO(s)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header("X-Error", e.getMessage()).build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<videoSaveDTO> completeUpload(@PathVariable String id) {
+        try {
+            var saved = uploadService.complete(id);
+            if (saved.isEmpty()) return ResponseEntity.notFound().build();
+            var response = ResponseEntity.ok();
+            if (saved.get().thumbnailJob() != null) response.header("X-Media-Job-Id", saved.get().thumbnailJob().getId());
+            // the same content was uploaded before: the body is that video, see VideosController#uploadVideo
+            if (saved.get().duplicateOf() != null) response.header("X-Duplicate-Of", saved.get().duplicateOf());
+            return response.body(saved.get().video());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header("X-Error", e.getMessage()).build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String id) {
+        if (!uploadService.abort(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.noContent().build();
+    }
+
+    private UploadSessionDTO toDTO(UploadSession s) {
+        synchronized (s) {
+            return new UploadSessionDTO(s.getId(), s.getSize(), s.getChunkSize(), s.totalChunks(), new ArrayList<>(s.getReceived()));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.tecnocampus.LS2.protube_back.controller;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.tecnocampus.LS2.protube_back.services.TokenService;
 import com.tecnocampus.LS2.protube_back.services.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;   
@@ -18,10 +19,15 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
+    static final String TOKEN_HEADER = "X-Auth-Token";
+    static final String USER_ID_HEADER = "X-User-Id";
+
     private UserService userService;
+    private TokenService tokenService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, TokenService tokenService) {
         this.userService = userService;
+        this.tokenService = tokenService;
     }
 
     // Endpoint to list all users 
@@ -31,12 +37,15 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
-    // Endpoint to register a new user
+    // Endpoint to register a new user; the new user is logged in at once, with the same headers as /login
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestParam String username, @RequestParam String email, @RequestParam String password) {
         try {
             userService.register(username, email, password);
-            return ResponseEntity.ok("User registered successfully.");
+            return ResponseEntity.ok()
+                    .header(TOKEN_HEADER, tokenService.issue(username))
+                    .header(USER_ID_HEADER, username)
+                    .body("User registered successfully.");
         } catch (RuntimeException e) {
             String msg = e.getMessage();
             if (msg != null && (msg.contains("ya existe") || msg.toLowerCase().contains("exists") || msg.toLowerCase().contains("already"))) {
@@ -46,12 +55,18 @@ public class UserController {
         }
     }
 
-    // Enpoint to login a user
+    // Enpoint to login a user; the session token (send it back as "Authorization: Bearer ...") and the
+    // user id it carries come in the X-Auth-Token and X-User-Id headers
     @PostMapping("/login")
     public ResponseEntity<String> loginUser(@RequestParam String email, @RequestParam String password) {
         try {
             userService.login(email, password);
-            return ResponseEntity.ok("User logged in successfully.");
+            // clients key likes, history and comments by username, so that is the id the token carries
+            String userId = userService.getUsernameByEmail(email);
+            return ResponseEntity.ok()
+                    .header(TOKEN_HEADER, tokenService.issue(userId))
+                    .header(USER_ID_HEADER, userId)
+                    .body("User logged in successfully.");
         } catch (RuntimeException e) {
             String msg = e.getMessage();
             if (msg != null && (msg.toLowerCase().contains("email") && msg.toLowerCase().contains("register"))
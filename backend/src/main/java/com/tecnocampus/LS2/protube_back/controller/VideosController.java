@@ -1,10 +1,16 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
+import com.tecnocampus.LS2.protube_back.configuration.AuthTokenFilter;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoPageDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoSummaryDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
 import com.tecnocampus.LS2.protube_back.controller.mapper.VideoMapper;
 import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.services.VideoCatalog;
 import com.tecnocampus.LS2.protube_back.services.VideoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +26,9 @@ public class VideosController {
     @Autowired
     VideoService videoService;
 
+    @Autowired
+    VideoCatalog videoCatalog;
+
     @GetMapping("")
     public ResponseEntity<List<String>> getVideos() {
         return ResponseEntity.ok().body(videoService.getVideos());
@@ -40,6 +49,19 @@ public class VideosController {
         return ResponseEntity.ok(video.getTitle());
     }
 
+    // the catalog only carries a preview; the watch page asks for the full text of the one video it shows
+    @GetMapping("/{id}/description")
+    public ResponseEntity<String> getVideoDescription(@PathVariable String id) {
+        var video = videoService.getVideoById(id);
+        if (video == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(video.getDescription() != null ? video.getDescription() : "");
+    }
+
+    // content already on ProTube is not stored twice: the response is the existing video (its title and
+    // description, not the ones sent) with X-Duplicate-Of naming it, and a thumbnail sent for it is refused with
+    // 409 when the video already has one
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<videoSaveDTO> uploadVideo(
             @RequestPart("file") MultipartFile file,
@@ -49,27 +71,64 @@ public class VideosController {
     ) {
         try {
             // Use DTO-based method with optional thumbnail
-            videoSaveDTO savedDto = videoService.uploadAndSave(file, thumbnail, meta, published);
-            Video saved = VideoMapper.toVideo(savedDto);
-            return ResponseEntity.ok(VideoMapper.toVideoSaveDTO(saved));
+            VideoService.StoredVideo stored = videoService.uploadAndSave(file, thumbnail, meta, published);
+            Video saved = VideoMapper.toVideo(stored.video());
+            // the thumbnail is built in the background; clients can poll /api/media-jobs/{id}
+            var response = ResponseEntity.ok();
+            if (stored.thumbnailJob() != null) response.header("X-Media-Job-Id", stored.thumbnailJob().getId());
+            if (stored.duplicateOf() != null) response.header("X-Duplicate-Of", stored.duplicateOf());
+            return response.body(VideoMapper.toVideoSaveDTO(saved));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header("X-Error", e.getMessage()).build();
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    // one request for the whole home page: summaries are held in memory, clients revalidate with If-None-Match
+    @GetMapping("/catalog")
+    public ResponseEntity<List<VideoSummaryDTO>> getCatalog(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        VideoCatalog.Snapshot snapshot = videoCatalog.snapshot();
+        String etag = "\"catalog-" + snapshot.version() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(snapshot.videos());
+    }
+
+    // keyset-paginated listing without the description LOB unless includeDescription=true
+    @GetMapping("/page")
+    public ResponseEntity<VideoPageDTO> getVideoPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "includeDescription", required = false, defaultValue = "false") boolean includeDescription) {
+        try {
+            return ResponseEntity.ok(videoService.listPage(cursor, limit, includeDescription));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().header("X-Error", e.getMessage()).build();
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<Video>> getAllVideos() {
         return ResponseEntity.ok(videoService.getAll());
     }
 
+    // with a token only that user's ownership is dropped; the video stays while other uploaders own it
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteVideo(@PathVariable String id) {
-        boolean deleted = videoService.deleteVideo(id);
-        if (!deleted) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Void> deleteVideo(@PathVariable String id,
+            @RequestAttribute(name = AuthTokenFilter.USER_ID_ATTRIBUTE, required = false) String authenticatedUserId) {
+        try {
+            boolean deleted = videoService.deleteVideo(id, authenticatedUserId);
+            if (!deleted) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).header("X-Error", e.getMessage()).build();
         }
-        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,4 +1,9 @@
 package com.tecnocampus.LS2.protube_back.controller.dto;
 
-public record ComentariDTO(String id, String userId, String videoId, String titulo, String descripcion) {
+public record ComentariDTO(String id, String userId, String videoId, String titulo, String descripcion, Long createdAt) {
+
+    // clients creating a comment do not send a timestamp; the repository assigns it
+    public ComentariDTO(String id, String userId, String videoId, String titulo, String descripcion) {
+        this(id, userId, videoId, titulo, descripcion, null);
+    }
 }
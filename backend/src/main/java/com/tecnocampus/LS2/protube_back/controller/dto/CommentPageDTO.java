@@ -0,0 +1,6 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+import java.util.List;
+
+public record CommentPageDTO(List<ComentariDTO> items, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+public record MediaJobDTO(String id, String type, String priority, String status, String videoFileName, int attempts, String error) {
+}
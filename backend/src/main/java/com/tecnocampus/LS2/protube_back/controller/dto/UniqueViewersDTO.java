@@ -0,0 +1,6 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+import java.util.List;
+
+public record UniqueViewersDTO(String videoId, int days, long uniqueViewers, List<ViewBucketDTO> daily) {
+}
@@ -0,0 +1,4 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+public record UploadCreateDTO(String fileName, long size, Integer chunkSize, String userId, String title, String description) {
+}
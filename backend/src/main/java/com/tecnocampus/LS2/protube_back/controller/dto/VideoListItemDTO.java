@@ -0,0 +1,5 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+public record VideoListItemDTO(String videoId, String title, String fileName, String userId, String posterUrl,
+                               String description) {
+}
@@ -0,0 +1,8 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+import java.util.List;
+
+public record VideoSummaryDTO(String videoId, String userId, String title, String description, String fileName,
+                              String posterUrl, String channel, Long viewCount, Long likeCount, Double durationSeconds,
+                              List<String> tags, List<String> categories) {
+}
@@ -0,0 +1,6 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+import java.util.List;
+
+public record VideoViewStatsDTO(String videoId, long total, String granularity, List<ViewBucketDTO> series) {
+}
@@ -0,0 +1,4 @@
+package com.tecnocampus.LS2.protube_back.controller.dto;
+
+public record ViewBucketDTO(long start, long views) {
+}
@@ -7,7 +7,7 @@ public class ComentariMapper {
 
 	public static ComentariDTO toDto(Comentari c) {
 		if (c == null) return null;
-		return new ComentariDTO(c.getId(), c.getUserId(), c.getVideoId(), c.getTitulo(), c.getDescripcion());
+		return new ComentariDTO(c.getId(), c.getUserId(), c.getVideoId(), c.getTitulo(), c.getDescripcion(), c.getCreatedAt());
 	}
 
 	public static Comentari toEntity(ComentariDTO dto) {
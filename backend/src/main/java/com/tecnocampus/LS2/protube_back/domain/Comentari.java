@@ -2,7 +2,7 @@ package com.tecnocampus.LS2.protube_back.domain;
 
 /**
  * Domain model for a comment (Comentari).
- * Fields: id, userId, videoId, titulo, descripcion
+ * Fields: id, userId, videoId, titulo, descripcion, createdAt (epoch millis, set by the repository on first save)
  */
 public class Comentari {
 	private String id;
@@ -10,6 +10,7 @@ public class Comentari {
 	private String videoId;
 	private String titulo;
 	private String descripcion;
+	private long createdAt;
 
 	public Comentari() {
 	}
@@ -62,6 +63,14 @@ public class Comentari {
 		this.descripcion = descripcion;
 	}
 
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(long createdAt) {
+		this.createdAt = createdAt;
+	}
+
 	@Override
 	public String toString() {
 		return "Comentari{" +
@@ -70,6 +79,7 @@ public class Comentari {
 				", videoId='" + videoId + '\'' +
 				", titulo='" + titulo + '\'' +
 				", descripcion='" + descripcion + '\'' +
+				", createdAt=" + createdAt +
 				'}';
 	}
 }
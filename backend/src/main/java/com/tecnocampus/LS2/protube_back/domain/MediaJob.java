@@ -0,0 +1,153 @@
+package com.tecnocampus.LS2.protube_back.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A unit of ffmpeg work (thumbnail generation) queued by the media job scheduler.
+ * Jobs are persisted so that pending work survives a restart.
+ */
+public class MediaJob {
+
+	public enum Type {
+		// grab a frame from the video in input
+		VIDEO_THUMBNAIL,
+		// convert the uploaded image in input, falling back to a frame of fallbackInput
+		IMAGE_THUMBNAIL
+	}
+
+	// declaration order is scheduling order: interactive uploads always run before backfill
+	public enum Priority {
+		INTERACTIVE,
+		BACKFILL
+	}
+
+	public enum Status {
+		PENDING,
+		RUNNING,
+		DONE,
+		FAILED
+	}
+
+	private String id = String.valueOf(UUID.randomUUID());
+	private Type type;
+	private Priority priority;
+	private Status status = Status.PENDING;
+	private String videoFileName;
+	private String input;
+	private String fallbackInput;
+	private String output;
+	private int attempts;
+	private String error;
+	private long createdAt = Instant.now().toEpochMilli();
+	private long updatedAt = createdAt;
+
+	public MediaJob() {
+	}
+
+	public MediaJob(Type type, Priority priority, String videoFileName, String input, String fallbackInput, String output) {
+		this.type = type;
+		this.priority = priority;
+		this.videoFileName = videoFileName;
+		this.input = input;
+		this.fallbackInput = fallbackInput;
+		this.output = output;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Priority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(Priority priority) {
+		this.priority = priority;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+		this.updatedAt = Instant.now().toEpochMilli();
+	}
+
+	public String getVideoFileName() {
+		return videoFileName;
+	}
+
+	public void setVideoFileName(String videoFileName) {
+		this.videoFileName = videoFileName;
+	}
+
+	public String getInput() {
+		return input;
+	}
+
+	public void setInput(String input) {
+		this.input = input;
+	}
+
+	public String getFallbackInput() {
+		return fallbackInput;
+	}
+
+	public void setFallbackInput(String fallbackInput) {
+		this.fallbackInput = fallbackInput;
+	}
+
+	public String getOutput() {
+		return output;
+	}
+
+	public void setOutput(String output) {
+		this.output = output;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(long createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public long getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(long updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
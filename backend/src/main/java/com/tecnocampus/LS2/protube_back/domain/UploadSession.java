@@ -0,0 +1,132 @@
+package com.tecnocampus.LS2.protube_back.domain;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * State of a resumable upload: the target size, how it is split into chunks and which chunks have arrived.
+ * The bytes themselves live in a single pre-sized part file written at each chunk's offset.
+ */
+public class UploadSession {
+    private String id = String.valueOf(UUID.randomUUID());
+    private String userId;
+    private String title;
+    private String description;
+    private String originalName;
+    private long size;
+    private int chunkSize;
+    private Set<Integer> received = new TreeSet<>();
+    private long createdAt = Instant.now().toEpochMilli();
+    private long updatedAt = createdAt;
+
+    public UploadSession() {
+    }
+
+    public UploadSession(String userId, String title, String description, String originalName, long size, int chunkSize) {
+        this.userId = userId;
+        this.title = title;
+        this.description = description;
+        this.originalName = originalName;
+        this.size = size;
+        this.chunkSize = chunkSize;
+    }
+
+    public int totalChunks() {
+        if (size == 0) return 0;
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    public long chunkOffset(int index) {
+        return (long) index * chunkSize;
+    }
+
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, size - chunkOffset(index));
+    }
+
+    public boolean allChunksReceived() {
+        return received.size() == totalChunks();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Set<Integer> getReceived() {
+        return received;
+    }
+
+    public void setReceived(Set<Integer> received) {
+        this.received = new TreeSet<>(received);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -74,4 +74,4 @@ public class Video {
     public void setFileName(String fileName) {
         this.fileName = fileName;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.tecnocampus.LS2.protube_back.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A user who uploaded content that was already registered as another user's video. Identical content is one
+ * {@link Video} row; its other uploaders are kept here, only read on upload and delete, so loading videos never
+ * pulls them in.
+ */
+@Entity
+@Table(name = "video_owner", indexes = {
+        @Index(name = "idx_vowner_video", columnList = "videoId,userId")
+})
+public class VideoOwner {
+    @Id
+    private String id = UUID.randomUUID().toString();
+    private String videoId;
+    private String userId;
+    private long addedAt; // epoch millis
+
+    public VideoOwner() {}
+
+    public VideoOwner(String videoId, String userId) {
+        this.videoId = videoId;
+        this.userId = userId;
+        this.addedAt = Instant.now().toEpochMilli();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getVideoId() { return videoId; }
+    public void setVideoId(String videoId) { this.videoId = videoId; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public long getAddedAt() { return addedAt; }
+    public void setAddedAt(long addedAt) { this.addedAt = addedAt; }
+}
@@ -9,8 +9,11 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "video_view", indexes = {
-        @Index(name = "idx_vview_user", columnList = "userId"),
-        @Index(name = "idx_vview_user_file", columnList = "userId,videoFileName")
+        // also serves the (viewedAt, id) keyset pages of one user's history, newest first
+        @Index(name = "idx_vview_user", columnList = "userId,viewedAt,id"),
+        @Index(name = "idx_vview_user_file", columnList = "userId,videoFileName"),
+        // age-based retention scans every user's oldest views
+        @Index(name = "idx_vview_viewed_at", columnList = "viewedAt")
 })
 public class VideoView {
     @Id
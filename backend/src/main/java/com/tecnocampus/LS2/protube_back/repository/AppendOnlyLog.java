@@ -0,0 +1,385 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Log-structured persistence for the file-backed in-memory repositories: every mutation is appended as one JSON
+ * line to the current write-ahead segment ({@code <name>-<generation>.wal}), so a write costs the size of the
+ * record rather than the size of the whole store. {@link #compact} seals the current segment, writes the state
+ * to {@code <name>.snapshot.json} and drops the sealed segments; {@link #open} replays snapshot plus segments.
+ * <p>
+ * Records are keyed PUT/DELETE/CLEAR operations, which are idempotent per key. That is what lets compaction copy
+ * the state without blocking writers: a write that lands in both the snapshot and the new segment is simply
+ * applied twice. A torn last line (crash in the middle of an append) is skipped on replay.
+ * <p>
+ * Callers must apply a mutation to their in-memory state and append it while holding this log's monitor,
+ * so the order in the log is the order in memory.
+ * <p>
+ * With {@link Durability#STRICT} an append returns once its record is written and forced to disk. With
+ * {@link Durability#ASYNC} it returns as soon as the record is queued; a single writer thread group-commits the
+ * queue (one write and one fsync per batch) every {@code flushIntervalMs} or as soon as {@code flushRecords}
+ * are waiting, so a crash can lose at most the last interval of acknowledged writes.
+ */
+public class AppendOnlyLog<T> implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(AppendOnlyLog.class);
+    private static final long MAX_FLUSH_BACKOFF_MS = 5_000;
+
+    public enum Op { PUT, DELETE, CLEAR }
+
+    public record Record<T>(Op op, String key, T value) {}
+
+    public record Snapshot<T>(long generation, Map<String, T> entries) {}
+
+    public enum Durability {
+        STRICT, ASYNC;
+
+        /**
+         * Parse a {@code *.durability} property value; blank means ASYNC. property only names it in the error.
+         */
+        public static Durability parse(String value, String property) {
+            if (value == null || value.isBlank() || "async".equalsIgnoreCase(value.trim())) return ASYNC;
+            if ("strict".equalsIgnoreCase(value.trim())) return STRICT;
+            throw new IllegalArgumentException(property + " must be async or strict, was " + value);
+        }
+    }
+
+    /**
+     * Receives the recovered state: the snapshot entries as puts, followed by every logged operation in order.
+     */
+    public interface Replay<T> {
+        void put(String key, T value);
+
+        void delete(String key);
+
+        void clear();
+    }
+
+    private final Path dir;
+    private final String name;
+    private final ObjectMapper mapper;
+    private final JavaType recordType;
+    private final JavaType snapshotType;
+    private final Pattern segmentPattern;
+    private final Durability durability;
+    private final long flushIntervalMs;
+    private final int flushRecords;
+    private final Object compactLock = new Object();
+    // held while queued records are written, so the segment cannot be rotated or closed underneath a batch;
+    // taken before this log's monitor, never after it
+    private final Object ioLock = new Object();
+
+    // guarded by this
+    private FileChannel segment;
+    private long generation;
+    private long bytesSinceCompaction;
+    private boolean closed;
+    private List<byte[]> pending = new ArrayList<>();
+    private Thread writer;
+
+    public AppendOnlyLog(Path dir, String name, Class<T> type, ObjectMapper mapper) {
+        this(dir, name, type, mapper, Durability.STRICT, 0, 0);
+    }
+
+    public AppendOnlyLog(Path dir, String name, Class<T> type, ObjectMapper mapper,
+                         Durability durability, long flushIntervalMs, int flushRecords) {
+        this.durability = durability;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.flushRecords = Math.max(1, flushRecords);
+        this.dir = dir;
+        this.name = name;
+        this.mapper = mapper;
+        this.recordType = mapper.getTypeFactory().constructParametricType(Record.class, type);
+        this.snapshotType = mapper.getTypeFactory().constructParametricType(Snapshot.class, type);
+        this.segmentPattern = Pattern.compile("^" + Pattern.quote(name) + "-(\\d+)\\.wal$");
+    }
+
+    /**
+     * Recover the state into target and start a fresh segment for new appends.
+     * Returns false when there was nothing on disk (no snapshot and no segments).
+     */
+    public synchronized boolean open(Replay<T> target) throws IOException {
+        Files.createDirectories(dir);
+        long first = 0;
+        boolean found = false;
+        Path snapshotFile = snapshotPath();
+        if (Files.exists(snapshotFile)) {
+            Snapshot<T> snapshot = mapper.readValue(snapshotFile.toFile(), snapshotType);
+            first = snapshot.generation();
+            if (snapshot.entries() != null) snapshot.entries().forEach(target::put);
+            found = true;
+        }
+        long next = first;
+        for (long gen : segmentGenerations()) {
+            Path file = segmentPath(gen);
+            if (gen < first) {
+                // sealed by a compaction that finished writing its snapshot but not deleting its inputs
+                Files.deleteIfExists(file);
+                continue;
+            }
+            replaySegment(file, target);
+            found = true;
+            next = gen + 1;
+        }
+        // never append after a possibly torn line: always start a new segment
+        generation = next;
+        segment = openSegment(generation);
+        bytesSinceCompaction = 0;
+        closed = false;
+        if (durability == Durability.ASYNC && writer == null) {
+            writer = new Thread(this::runWriter, name + "-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        return found;
+    }
+
+    public synchronized void appendPut(String key, T value) throws IOException {
+        append(new Record<>(Op.PUT, key, value));
+    }
+
+    public synchronized void appendDelete(String key) throws IOException {
+        append(new Record<>(Op.DELETE, key, null));
+    }
+
+    public synchronized void appendClear() throws IOException {
+        append(new Record<>(Op.CLEAR, null, null));
+    }
+
+    public synchronized long bytesSinceCompaction() {
+        return bytesSinceCompaction;
+    }
+
+    /**
+     * Write and force every queued record. A no-op in STRICT mode, where nothing is ever queued.
+     */
+    public void flush() throws IOException {
+        synchronized (ioLock) {
+            List<byte[]> batch;
+            FileChannel target;
+            synchronized (this) {
+                if (pending.isEmpty() || segment == null) return;
+                batch = pending;
+                pending = new ArrayList<>();
+                target = segment;
+            }
+            // appenders keep queueing while the batch is written and synced
+            try {
+                writeBatch(target, batch);
+            } catch (IOException e) {
+                synchronized (this) {
+                    // requeue in front of newer records; rewriting a partly written batch is harmless (idempotent)
+                    batch.addAll(pending);
+                    pending = batch;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Seal the current segment, write state as the new snapshot and delete the sealed segments.
+     * state is read after the rotation and without holding the log, so writers are only blocked for the rotation.
+     */
+    public void compact(Supplier<? extends Map<String, T>> state) throws IOException {
+        synchronized (compactLock) {
+            long firstUncovered;
+            synchronized (ioLock) {
+                synchronized (this) {
+                    if (closed || segment == null) return;
+                    // queued records belong to the sealed segment
+                    writePendingLocked();
+                    segment.close();
+                    generation++;
+                    segment = openSegment(generation);
+                    bytesSinceCompaction = 0;
+                    firstUncovered = generation;
+                }
+            }
+            Snapshot<T> snapshot = new Snapshot<>(firstUncovered, state.get());
+            Path tmp = dir.resolve(name + ".snapshot.json.tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(out, mapper.writeValueAsBytes(snapshot));
+                out.force(true);
+            }
+            Files.move(tmp, snapshotPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (long gen : segmentGenerations()) {
+                if (gen < firstUncovered) Files.deleteIfExists(segmentPath(gen));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread stopping;
+        synchronized (this) {
+            closed = true;
+            stopping = writer;
+            writer = null;
+            notifyAll();
+        }
+        if (stopping != null) {
+            // not interrupted: an interrupt in the middle of a write would close the channel
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (ioLock) {
+            synchronized (this) {
+                if (segment == null) return;
+                try {
+                    writePendingLocked();
+                } finally {
+                    segment.close();
+                    segment = null;
+                }
+            }
+        }
+    }
+
+    private void append(Record<T> record) throws IOException {
+        if (closed || segment == null) throw new IOException("Log " + name + " is not open");
+        byte[] json = mapper.writeValueAsBytes(record);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        bytesSinceCompaction += line.length;
+        if (durability == Durability.STRICT) {
+            writeFully(segment, line);
+            segment.force(false);
+            return;
+        }
+        pending.add(line);
+        if (pending.size() >= flushRecords) notifyAll();
+    }
+
+    // writer thread: sleep until the interval elapses or enough records are queued, then group-commit them.
+    // After a failed flush it sits out a backoff (doubling up to MAX_FLUSH_BACKOFF_MS) however many records
+    // queue up meanwhile, so a full or failing disk is not retried in a tight loop.
+    private void runWriter() {
+        long backoffMs = 0;
+        while (true) {
+            synchronized (this) {
+                if (closed) return;
+                try {
+                    if (backoffMs > 0) {
+                        long deadline = System.currentTimeMillis() + backoffMs;
+                        for (long left = backoffMs; left > 0 && !closed; left = deadline - System.currentTimeMillis()) {
+                            wait(left);
+                        }
+                    } else if (pending.size() < flushRecords) {
+                        wait(flushIntervalMs);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) return;
+            }
+            try {
+                flush();
+                backoffMs = 0;
+            } catch (IOException e) {
+                backoffMs = Math.min(MAX_FLUSH_BACKOFF_MS, backoffMs > 0 ? backoffMs * 2 : flushIntervalMs);
+                LOG.error("Could not flush log {}, retrying in {} ms: {}", name, backoffMs, e.getMessage());
+            }
+        }
+    }
+
+    // caller holds ioLock and this
+    private void writePendingLocked() throws IOException {
+        if (pending.isEmpty() || segment == null) return;
+        writeBatch(segment, pending);
+        pending = new ArrayList<>();
+    }
+
+    private void replaySegment(Path file, Replay<T> target) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                Record<T> record;
+                try {
+                    record = mapper.readValue(line, recordType);
+                } catch (JsonProcessingException e) {
+                    LOG.warn("Skipping unreadable record {}:{} ({})", file.getFileName(), lineNumber, e.getOriginalMessage());
+                    continue;
+                }
+                switch (record.op()) {
+                    case PUT -> target.put(record.key(), record.value());
+                    case DELETE -> target.delete(record.key());
+                    case CLEAR -> target.clear();
+                }
+            }
+        }
+    }
+
+    private List<Long> segmentGenerations() throws IOException {
+        List<Long> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                Matcher m = segmentPattern.matcher(p.getFileName().toString());
+                if (m.matches()) out.add(Long.parseLong(m.group(1)));
+            });
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private FileChannel openSegment(long gen) throws IOException {
+        return FileChannel.open(segmentPath(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long gen) {
+        return dir.resolve(String.format("%s-%010d.wal", name, gen));
+    }
+
+    private Path snapshotPath() {
+        return dir.resolve(name + ".snapshot.json");
+    }
+
+    private static void writeBatch(FileChannel channel, List<byte[]> lines) throws IOException {
+        int total = 0;
+        for (byte[] line : lines) total += line.length;
+        ByteBuffer buf = ByteBuffer.allocate(total);
+        for (byte[] line : lines) buf.put(line);
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
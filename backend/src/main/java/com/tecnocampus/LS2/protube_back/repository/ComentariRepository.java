@@ -1,8 +1,12 @@
 package com.tecnocampus.LS2.protube_back.repository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 import org.springframework.beans.factory.annotation.Value;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import java.io.File;
@@ -11,59 +15,196 @@ import java.io.IOException;
 import com.tecnocampus.LS2.protube_back.domain.Comentari;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Simple in-memory repository for Comentari. Thread-safe.
+ * In-memory repository for Comentari. Thread-safe.
+ * Besides the primary map, comments are indexed by video (ordered by creation time) and by user; the indexes are
+ * updated under the same write lock as the map, so lookups only touch the comments they return.
+ * Writes are persisted to an append-only log in the store directory and compacted into a snapshot in the
+ * background (see {@link AppendOnlyLog}); the legacy comments.json is imported once if no log exists yet.
+ * {@code pro_tube.comments.durability} picks when a write is acknowledged: {@code async} (default) once it is queued
+ * for the group-commit writer, {@code strict} once it has been forced to disk.
  */
 @Repository
 public class ComentariRepository {
+	private static final Logger LOG = LoggerFactory.getLogger(ComentariRepository.class);
+	private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+	private static final long DEFAULT_FLUSH_INTERVAL_MS = 20;
+	private static final int DEFAULT_FLUSH_RECORDS = 512;
 
 	private final Map<String, Comentari> store = new ConcurrentHashMap<>();
+	// secondary indexes; entries are removed again when their last comment goes away
+	private final Map<String, ConcurrentSkipListSet<IndexKey>> byVideo = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> byUser = new ConcurrentHashMap<>();
+	private final Map<String, IndexKey> indexed = new ConcurrentHashMap<>();
 	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final LogBackedState<Comentari> log =
+			new LogBackedState<>("comments", "comment", Comentari.class, () -> new HashMap<>(store));
+	// mutations are applied and logged under this monitor so replay order matches memory order
+	private final Object writeLock = new Object();
+
+	private final AtomicLong lastCreatedAt = new AtomicLong();
+
+	// position of a comment in the indexes, (createdAt, id) so the order is total and stable for cursors;
+	// remembers the ids it was indexed under so a re-save can move it
+	private record IndexKey(long createdAt, String id, String videoId, String userId) implements Comparable<IndexKey> {
+		@Override
+		public int compareTo(IndexKey o) {
+			int byTime = Long.compare(createdAt, o.createdAt);
+			return byTime != 0 ? byTime : id.compareTo(o.id);
+		}
+	}
 
 	@Value("${pro_tube.store.dir}")
 	private String storeDir;
 
+	@Value("${pro_tube.comments.wal.compact_bytes:" + DEFAULT_COMPACT_BYTES + "}")
+	private long compactBytes = DEFAULT_COMPACT_BYTES;
+
+	@Value("${pro_tube.comments.durability:async}")
+	private String durability = "async";
+
+	@Value("${pro_tube.comments.wal.flush_interval_ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}")
+	private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+	@Value("${pro_tube.comments.wal.flush_records:" + DEFAULT_FLUSH_RECORDS + "}")
+	private int flushRecords = DEFAULT_FLUSH_RECORDS;
+
 	private File getFile() {
 		return new File(storeDir, "comments.json");
 	}
 
 	@PostConstruct
 	public void load() {
-		if (storeDir == null || storeDir.isBlank()) {
-			// no store directory configured (likely in unit tests); skip loading from disk
+		// without a store directory (likely in unit tests) comments stay in memory
+		if (!log.open(storeDir, AppendOnlyLog.Durability.parse(durability, "pro_tube.comments.durability"),
+				flushIntervalMs, flushRecords, this::restore, this::clearInternal)) {
 			return;
 		}
-		File f = getFile();
-
-		if (f.exists()) {
+		if (!log.recovered()) {
 			try {
-				List<Comentari> list = objectMapper.readValue(f, new TypeReference<List<Comentari>>() {});
-				store.clear();
-				for (Comentari c : list) {
-					store.put(c.getId(), c);
-				}
-				System.out.println("Loaded " + store.size() + " comments from " + f.getAbsolutePath());
+				importLegacyFile();
 			} catch (IOException e) {
-				e.printStackTrace();
+				LOG.error("Could not import {}: {}", getFile(), e.getMessage());
 			}
 		}
+		LOG.info("Loaded {} comments from {}", store.size(), storeDir);
 	}
 
-	private void saveToFile() {
-			// if storeDir not configured, skip persisting to disk (use in-memory only)
-			if (storeDir == null || storeDir.isBlank()) return;
-			try {
-				File f = getFile();
-				if (f.getParentFile() != null && !f.getParentFile().exists()) f.getParentFile().mkdirs();
-				objectMapper.writeValue(f, new ArrayList<>(store.values()));
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+	// comments.json written by the old full-rewrite persistence becomes the first snapshot
+	private void importLegacyFile() throws IOException {
+		File f = getFile();
+		if (!f.exists()) return;
+		List<Comentari> list = objectMapper.readValue(f, new TypeReference<List<Comentari>>() {});
+		for (Comentari c : list) {
+			putInternal(c.getId(), c);
+		}
+		compact();
+	}
+
+	/**
+	 * Fold the log into a fresh snapshot once enough has been appended since the last one.
+	 */
+	@Scheduled(fixedDelayString = "${pro_tube.comments.wal.compact_interval_ms:30000}")
+	public void compactIfNeeded() {
+		log.compactIfNeeded(compactBytes);
+	}
+
+	public void compact() {
+		log.compact();
+	}
+
+	@PreDestroy
+	public void close() {
+		log.close();
+	}
+
+	// replays one log record; a null comment is a delete
+	private void restore(String id, Comentari c) {
+		if (c != null) {
+			putInternal(id, c);
+		} else {
+			removeInternal(id);
+		}
+	}
+
+	// the *Internal methods keep map and indexes in step; callers hold writeLock (or are replaying on load)
+	private void putInternal(String id, Comentari c) {
+		IndexKey previous = indexed.get(id);
+		// the creation time is assigned once and survives later edits
+		if (previous != null) {
+			c.setCreatedAt(previous.createdAt());
+		} else if (c.getCreatedAt() <= 0) {
+			// strictly increasing, so comments saved within the same millisecond keep their save order
+			long now = System.currentTimeMillis();
+			c.setCreatedAt(lastCreatedAt.updateAndGet(prev -> Math.max(prev + 1, now)));
+		} else {
+			lastCreatedAt.accumulateAndGet(c.getCreatedAt(), Math::max);
+		}
+		store.put(id, c);
+		if (previous != null && Objects.equals(previous.videoId(), c.getVideoId())
+				&& Objects.equals(previous.userId(), c.getUserId())) {
+			return;
+		}
+		if (previous != null) unindex(previous);
+		IndexKey key = new IndexKey(c.getCreatedAt(), id, c.getVideoId(), c.getUserId());
+		indexed.put(id, key);
+		if (key.videoId() != null) {
+			byVideo.computeIfAbsent(key.videoId(), k -> new ConcurrentSkipListSet<>()).add(key);
+		}
+		if (key.userId() != null) {
+			byUser.computeIfAbsent(key.userId(), k -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+	}
+
+	private boolean removeInternal(String id) {
+		boolean removed = store.remove(id) != null;
+		IndexKey key = indexed.remove(id);
+		if (key != null) unindex(key);
+		return removed;
+	}
+
+	private void clearInternal() {
+		store.clear();
+		indexed.clear();
+		byVideo.clear();
+		byUser.clear();
+	}
+
+	private void unindex(IndexKey key) {
+		if (key.videoId() != null) {
+			byVideo.computeIfPresent(key.videoId(), (k, ids) -> {
+				ids.remove(key);
+				return ids.isEmpty() ? null : ids;
+			});
+		}
+		if (key.userId() != null) {
+			byUser.computeIfPresent(key.userId(), (k, ids) -> {
+				ids.remove(key.id());
+				return ids.isEmpty() ? null : ids;
+			});
+		}
+	}
+
+	private List<Comentari> resolve(Collection<String> ids) {
+		List<Comentari> out = new ArrayList<>(ids.size());
+		for (String id : ids) {
+			// an id can briefly outlive its comment while a delete is in flight
+			Comentari c = store.get(id);
+			if (c != null) out.add(c);
+		}
+		return out;
 	}
 
 	public Comentari save(Comentari c) {
@@ -73,37 +214,90 @@ public class ComentariRepository {
 			id = String.valueOf(java.util.UUID.randomUUID());
 			c.setId(id);
 		}
-		store.put(id, c);
-		saveToFile();
+		String key = id;
+		log.update(() -> {
+			synchronized (writeLock) {
+				putInternal(key, c);
+				log.put(key, c);
+			}
+		});
 		return c;
 	}
 
+	/**
+	 * Save a batch under one hold of the write lock. Comments without an id get a generated one.
+	 */
+	public List<Comentari> saveAll(Collection<Comentari> comments) {
+		if (comments == null) throw new IllegalArgumentException("comentaris is null");
+		List<Comentari> saved = new ArrayList<>(comments.size());
+		log.update(() -> {
+			synchronized (writeLock) {
+				for (Comentari c : comments) {
+					if (c == null) continue;
+					if (c.getId() == null || c.getId().isBlank()) {
+						c.setId(String.valueOf(java.util.UUID.randomUUID()));
+					}
+					putInternal(c.getId(), c);
+					log.put(c.getId(), c);
+					saved.add(c);
+				}
+			}
+		});
+		return saved;
+	}
+
+	public boolean existsById(String id) {
+		return id != null && store.containsKey(id);
+	}
+
 	public List<Comentari> findAll() {
 		return new ArrayList<>(store.values());
 	}
 
+	/**
+	 * Comments on a video, oldest first.
+	 */
 	public List<Comentari> findByVideoId(String videoId) {
 		if (videoId == null) return List.of();
-		List<Comentari> out = new ArrayList<>();
-		for (Comentari c : store.values()) {
-			if (videoId.equals(c.getVideoId())) out.add(c);
+		Set<IndexKey> keys = byVideo.get(videoId);
+		if (keys == null) return new ArrayList<>();
+		return resolve(keys.stream().map(IndexKey::id).toList());
+	}
+
+	/**
+	 * Up to limit comments on a video strictly after the cursor (afterCreatedAt, afterId) in the requested order;
+	 * a null afterId starts at the newest (or oldest) comment. Cost is O(log n + limit) however long the thread is.
+	 */
+	public List<Comentari> findPageByVideoId(String videoId, long afterCreatedAt, String afterId, int limit, boolean newestFirst) {
+		if (videoId == null || limit <= 0) return List.of();
+		ConcurrentSkipListSet<IndexKey> keys = byVideo.get(videoId);
+		if (keys == null) return new ArrayList<>();
+		NavigableSet<IndexKey> ordered = newestFirst ? keys.descendingSet() : keys;
+		if (afterId != null) {
+			ordered = ordered.tailSet(new IndexKey(afterCreatedAt, afterId, null, null), false);
+		}
+		List<Comentari> out = new ArrayList<>(limit);
+		for (IndexKey key : ordered) {
+			Comentari c = store.get(key.id());
+			if (c == null) continue;
+			out.add(c);
+			if (out.size() == limit) break;
 		}
 		return out;
 	}
 
 	public List<Comentari> findByUserId(String userId) {
 		if (userId == null) return List.of();
-		List<Comentari> out = new ArrayList<>();
-		for (Comentari c : store.values()) {
-			if (userId.equals(c.getUserId())) out.add(c);
-		}
-		return out;
+		Set<String> ids = byUser.get(userId);
+		if (ids == null) return new ArrayList<>();
+		return resolve(ids);
 	}
 
 	public Map<String, List<Comentari>> findAllGroupedByVideo() {
 		Map<String, List<Comentari>> map = new java.util.HashMap<>();
-		for (Comentari c : store.values()) {
-			map.computeIfAbsent(c.getVideoId(), k -> new ArrayList<>()).add(c);
+		for (Map.Entry<String, ConcurrentSkipListSet<IndexKey>> e : byVideo.entrySet()) {
+			List<Comentari> comments = resolve(e.getValue().stream().map(IndexKey::id).toList());
+			if (!comments.isEmpty()) map.put(e.getKey(), comments);
 		}
 		return map;
 	}
@@ -115,13 +309,21 @@ public class ComentariRepository {
 
 	public boolean deleteById(String id) {
 		if (id == null) return false;
-		boolean removed = store.remove(id) != null;
-		if (removed) saveToFile();
-		return removed;
+		return log.updateAndGet(() -> {
+			synchronized (writeLock) {
+				boolean removed = removeInternal(id);
+				if (removed) log.delete(id);
+				return removed;
+			}
+		});
 	}
 
 	public void clear() {
-		store.clear();
-		saveToFile();
+		log.update(() -> {
+			synchronized (writeLock) {
+				clearInternal();
+				log.clear();
+			}
+		});
 	}
 }
@@ -0,0 +1,91 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The videos whose yt-dlp comments have been imported into the comment store, with the time of the import.
+ * Imported comments are ordinary comments once stored, so a user may delete them; remembering the import itself
+ * (rather than which comments exist) keeps a later run from bringing deleted ones back.
+ * <p>
+ * Persisted through a {@link LogBackedState} ({@code comment-imports-<n>.wal} plus
+ * {@code comment-imports.snapshot.json}) with the durability and log settings of the comment log.
+ */
+@Repository
+public class CommentImportRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CommentImportRepository.class);
+    private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 20;
+    private static final int DEFAULT_FLUSH_RECORDS = 512;
+
+    private final Map<String, Long> imported = new ConcurrentHashMap<>();
+    private final LogBackedState<Long> log =
+            new LogBackedState<>("comment-imports", "comment import", Long.class, () -> new HashMap<>(imported));
+
+    @Value("${pro_tube.store.dir}")
+    private String storeDir;
+
+    @Value("${pro_tube.comments.durability:async}")
+    private String durability = "async";
+
+    @Value("${pro_tube.comments.wal.compact_bytes:" + DEFAULT_COMPACT_BYTES + "}")
+    private long compactBytes = DEFAULT_COMPACT_BYTES;
+
+    @Value("${pro_tube.comments.wal.flush_interval_ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}")
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    @Value("${pro_tube.comments.wal.flush_records:" + DEFAULT_FLUSH_RECORDS + "}")
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
+
+    @PostConstruct
+    public void load() {
+        // without a store directory (likely in unit tests) imports are remembered in memory only
+        if (log.open(storeDir, AppendOnlyLog.Durability.parse(durability, "pro_tube.comments.durability"),
+                flushIntervalMs, flushRecords, this::restore, imported::clear)) {
+            LOG.info("Loaded comment imports of {} videos from {}", imported.size(), storeDir);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pro_tube.comments.wal.compact_interval_ms:30000}")
+    public void compactIfNeeded() {
+        log.compactIfNeeded(compactBytes);
+    }
+
+    public void compact() {
+        log.compact();
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    public boolean isImported(String videoId) {
+        return videoId != null && imported.containsKey(videoId);
+    }
+
+    public void markImported(String videoId, long epochMillis) {
+        if (videoId == null || videoId.isBlank()) throw new IllegalArgumentException("videoId is required");
+        log.update(() -> {
+            imported.put(videoId, epochMillis);
+            log.put(videoId, epochMillis);
+        });
+    }
+
+    private void restore(String videoId, Long epochMillis) {
+        if (epochMillis != null) {
+            imported.put(videoId, epochMillis);
+        } else {
+            imported.remove(videoId);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^{@value #PRECISION} registers (about 1.6% standard error). The first
+ * {@value #PRECISION} bits of a 64-bit hash pick a register, which keeps the highest rank (position of the first
+ * 1 bit in the rest) seen. While at most {@value #SPARSE_MAX} registers are set they are kept as a sorted int array
+ * of {@code register << 6 | rank}; past that as one byte per register, so a sketch stays around 4 KiB however many
+ * values it saw. Merging takes the register-wise maximum and is idempotent, which makes a sketch of changed
+ * registers a valid log record. Not thread-safe: owners guard each instance with their own monitor.
+ */
+public final class HyperLogLog {
+    static final int PRECISION = 12;
+    static final int REGISTERS = 1 << PRECISION;
+    static final int SPARSE_MAX = 512;
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    // sparse form while dense == null; entries[0..size) sorted by register
+    private int[] entries = new int[4];
+    private int size;
+    private byte[] dense;
+
+    /**
+     * A 64-bit hash of value suitable for {@link #offer} (FNV-1a over the chars, then a MurmurHash3 finalizer).
+     */
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Count a hashed value. Returns whether a register changed, i.e. whether the estimate may have moved.
+     */
+    public boolean offer(long hash) {
+        int register = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        return raise(register, rank);
+    }
+
+    /**
+     * Fold other into this sketch. Returns whether any register changed.
+     */
+    public boolean merge(HyperLogLog other) {
+        boolean changed = false;
+        if (other.dense != null) {
+            for (int r = 0; r < REGISTERS; r++) {
+                if (other.dense[r] != 0) changed |= raise(r, other.dense[r]);
+            }
+        } else {
+            for (int i = 0; i < other.size; i++) {
+                changed |= raise(other.entries[i] >>> 6, other.entries[i] & 0x3f);
+            }
+        }
+        return changed;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (dense != null) {
+            for (byte rank : dense) {
+                if (rank == 0) zeros++;
+                sum += 1.0 / (1L << rank);
+            }
+        } else {
+            zeros = REGISTERS - size;
+            sum = zeros;
+            for (int i = 0; i < size; i++) sum += 1.0 / (1L << (entries[i] & 0x3f));
+        }
+        double raw = ALPHA * REGISTERS * REGISTERS / sum;
+        if (raw <= 2.5 * REGISTERS && zeros > 0) {
+            // small range: linear counting over the empty registers is far more accurate
+            return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public boolean isEmpty() {
+        if (dense == null) return size == 0;
+        for (byte rank : dense) {
+            if (rank != 0) return false;
+        }
+        return true;
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog();
+        copy.entries = Arrays.copyOf(entries, Math.max(4, size));
+        copy.size = size;
+        copy.dense = dense != null ? dense.clone() : null;
+        return copy;
+    }
+
+    /**
+     * Serialized form: a format byte, then either the sparse entries as big-endian ints or the dense registers.
+     */
+    public byte[] toBytes() {
+        if (dense != null) {
+            ByteBuffer out = ByteBuffer.allocate(1 + REGISTERS);
+            return out.put(DENSE).put(dense).array();
+        }
+        ByteBuffer out = ByteBuffer.allocate(1 + 4 * size);
+        out.put(SPARSE);
+        for (int i = 0; i < size; i++) out.putInt(entries[i]);
+        return out.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) throw new IllegalArgumentException("empty sketch");
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes[0] == DENSE && bytes.length == 1 + REGISTERS) {
+            sketch.dense = Arrays.copyOfRange(bytes, 1, bytes.length);
+            return sketch;
+        }
+        if (bytes[0] == SPARSE && (bytes.length - 1) % 4 == 0) {
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            while (in.hasRemaining()) {
+                int entry = in.getInt();
+                sketch.raise(entry >>> 6, entry & 0x3f);
+            }
+            return sketch;
+        }
+        throw new IllegalArgumentException("not a sketch");
+    }
+
+    private boolean raise(int register, int rank) {
+        if (register < 0 || register >= REGISTERS) throw new IllegalArgumentException("register out of range");
+        if (rank <= 0) return false;
+        if (dense != null) {
+            if (dense[register] >= rank) return false;
+            dense[register] = (byte) rank;
+            return true;
+        }
+        int i = indexOf(register);
+        if (i >= 0) {
+            if ((entries[i] & 0x3f) >= rank) return false;
+            entries[i] = register << 6 | rank;
+            return true;
+        }
+        if (size == SPARSE_MAX) {
+            toDense();
+            return raise(register, rank);
+        }
+        i = -i - 1;
+        if (size == entries.length) entries = Arrays.copyOf(entries, Math.min(SPARSE_MAX, size * 2));
+        System.arraycopy(entries, i, entries, i + 1, size - i);
+        entries[i] = register << 6 | rank;
+        size++;
+        return true;
+    }
+
+    private int indexOf(int register) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int r = entries[mid] >>> 6;
+            if (r < register) {
+                lo = mid + 1;
+            } else if (r > register) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    private void toDense() {
+        dense = new byte[REGISTERS];
+        for (int i = 0; i < size; i++) dense[entries[i] >>> 6] = (byte) (entries[i] & 0x3f);
+        entries = new int[0];
+        size = 0;
+    }
+}
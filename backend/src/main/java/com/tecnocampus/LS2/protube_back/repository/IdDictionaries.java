@@ -0,0 +1,21 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * The user and video {@link IdDictionary} shared by the in-memory relationship indexes (likes, views), so their
+ * bitmaps live in the same int space and can be intersected directly.
+ */
+@Component
+public class IdDictionaries {
+    private final IdDictionary users = new IdDictionary();
+    private final IdDictionary videos = new IdDictionary();
+
+    public IdDictionary users() {
+        return users;
+    }
+
+    public IdDictionary videos() {
+        return videos;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps string ids (user and video UUIDs) to dense ints 0, 1, 2... in first-seen order, so relationship indexes
+ * can hold ints in an {@link IntBitmap} instead of strings. Thread-safe; lookups are lock-free and only the
+ * first sighting of an id takes the lock. Ids are never reassigned or dropped for the life of the process.
+ */
+public final class IdDictionary {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // written under this before the id is published through ids
+    private volatile String[] names = new String[256];
+    private int next;
+
+    /**
+     * The int for name, assigning the next one if it has none yet.
+     */
+    public int intern(String name) {
+        if (name == null) throw new IllegalArgumentException("name is null");
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) return id;
+            int assigned = next++;
+            String[] current = names;
+            if (assigned == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[assigned] = name;
+            names = current;
+            ids.put(name, assigned);
+            return assigned;
+        }
+    }
+
+    /**
+     * The int for name, or -1 when it has never been interned.
+     */
+    public int idOf(String name) {
+        Integer id = name != null ? ids.get(name) : null;
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * The names of every member of bitmap, in ascending id (first-seen) order.
+     */
+    public List<String> namesOf(IntBitmap bitmap) {
+        List<String> out = new ArrayList<>(bitmap.cardinality());
+        bitmap.forEach(id -> {
+            String name = nameOf(id);
+            if (name != null) out.add(name);
+        });
+        return out;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,343 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of ints in the Roaring layout. Values are grouped by their high 16 bits; each group is a
+ * container of up to 65536 low halves, kept as a sorted char array while it holds at most {@value #ARRAY_MAX}
+ * values and as a 1024-word bitmap above that. A member costs 2 bytes in a sparse container and 1 bit in a
+ * dense one, against the ~50 bytes of a boxed entry in a hash set, and intersections work container by container.
+ * <p>
+ * Iteration is in ascending unsigned order. Not thread-safe: owners guard each instance with its own monitor
+ * and hand out {@link #copy() copies}.
+ */
+public final class IntBitmap {
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys = new char[2];
+    private Container[] containers = new Container[2];
+    private int size;
+
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int i = indexOf(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        Container container = containers[i];
+        int before = container.cardinality();
+        containers[i] = container.add((char) value);
+        return containers[i].cardinality() != before;
+    }
+
+    public boolean remove(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) return false;
+        Container container = containers[i];
+        int before = container.cardinality();
+        Container after = container.remove((char) value);
+        if (after.cardinality() == before) return false;
+        if (after.cardinality() == 0) {
+            removeContainer(i);
+        } else {
+            containers[i] = after;
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality();
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A new bitmap with the values present in both this and other.
+     */
+    public IntBitmap and(IntBitmap other) {
+        IntBitmap out = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            int cmp = Character.compare(keys[i], other.keys[j]);
+            if (cmp < 0) {
+                i++;
+            } else if (cmp > 0) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality() > 0) out.insertContainer(out.size, keys[i], both);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int[] next = {0};
+        forEach(v -> out[next[0]++] = v);
+        return out;
+    }
+
+    public IntBitmap copy() {
+        IntBitmap out = new IntBitmap();
+        out.keys = Arrays.copyOf(keys, Math.max(2, size));
+        out.containers = new Container[out.keys.length];
+        for (int i = 0; i < size; i++) out.containers[i] = containers[i].copy();
+        out.size = size;
+        return out;
+    }
+
+    /**
+     * Approximate heap used by the containers' payload, for sizing and monitoring.
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) bytes += containers[i].payloadBytes();
+        return bytes;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertContainer(int at, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        keys[at] = high;
+        containers[at] = container;
+        size++;
+    }
+
+    private void removeContainer(int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    // add/remove return the container to keep, which is a different kind once a size threshold is crossed
+    private interface Container {
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        void forEach(int base, IntConsumer action);
+
+        Container copy();
+
+        long payloadBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at >= 0) return this;
+            if (cardinality == ARRAY_MAX) return toBitmap().add(value);
+            at = -at - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at < 0) return this;
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] out = new char[Math.min(cardinality, other.cardinality())];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) out[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) action.accept(base | values[i]);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+
+        @Override
+        public long payloadBytes() {
+            return 2L * values.length;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) bitmap.add(values[i]);
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & bit) == 0) {
+                words[word] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long bit = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & bit) == 0) return this;
+            words[word] &= ~bit;
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] theirs = ((BitmapContainer) other).words;
+            long[] out = new long[BITMAP_WORDS];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                out[w] = words[w] & theirs[w];
+                n += Long.bitCount(out[w]);
+            }
+            BitmapContainer both = new BitmapContainer(out, n);
+            return n <= ARRAY_MAX ? both.toArray() : both;
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer action) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public long payloadBytes() {
+            return 8L * BITMAP_WORDS;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int[] n = {0};
+            forEach(0, v -> values[n[0]++] = (char) v);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
@@ -1,41 +1,309 @@
 package com.tecnocampus.LS2.protube_back.repository;
 
 import com.tecnocampus.LS2.protube_back.domain.Like;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
+/**
+ * In-memory likes, safe for concurrent request threads. User and video ids are mapped to dense ints through the
+ * shared {@link IdDictionaries}, and the relationship is stored twice as compressed {@link IntBitmap}s: the
+ * videos each user likes and the users who like each video. That is a few bytes per like instead of an object
+ * per like, and "is it liked" is a bitmap probe. Every video also has a {@link LongAdder} counter, so reading a
+ * like count never walks the likers.
+ * <p>
+ * A like or unlike holds a lock striped by (user, video) while it updates both bitmaps, the counter and the log,
+ * so the indexes and the log order agree for each pair. Each bitmap is additionally guarded by its own monitor.
+ * Bitmaps are never removed once created; a user or video costs one (possibly empty) bitmap.
+ * <p>
+ * Likes survive restarts through an {@link AppendOnlyLog} in the store directory ({@code likes-<n>.wal} plus
+ * {@code likes.snapshot.json}): each like or unlike appends one small record and the log is folded into a
+ * snapshot in the background. Startup replays snapshot and log once, in order.
+ */
 @Repository
 public class LikeRepository {
-    private List<Like> likes = new ArrayList<>();
+    private static final Logger LOG = LoggerFactory.getLogger(LikeRepository.class);
+    private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 20;
+    private static final int DEFAULT_FLUSH_RECORDS = 512;
+    private static final int STRIPES = 64;
+    // log keys are "<userId><US><videoId>"; the ASCII unit separator does not occur in our ids
+    private static final char KEY_SEPARATOR = '\u001f';
 
+    private final IdDictionary users;
+    private final IdDictionary videos;
+    private final Map<Integer, IntBitmap> videosByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, IntBitmap> usersByVideo = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> likeCounts = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+    private final LogBackedState<Like> log = new LogBackedState<>("likes", "like", Like.class, this::snapshot);
+
+    @Value("${pro_tube.store.dir}")
+    private String storeDir;
+
+    @Value("${pro_tube.likes.durability:async}")
+    private String durability = "async";
+
+    @Value("${pro_tube.likes.wal.compact_bytes:" + DEFAULT_COMPACT_BYTES + "}")
+    private long compactBytes = DEFAULT_COMPACT_BYTES;
+
+    @Value("${pro_tube.likes.wal.flush_interval_ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}")
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    @Value("${pro_tube.likes.wal.flush_records:" + DEFAULT_FLUSH_RECORDS + "}")
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
+
+    public LikeRepository() {
+        this(new IdDictionaries());
+    }
+
+    @Autowired
+    public LikeRepository(IdDictionaries ids) {
+        this.users = ids.users();
+        this.videos = ids.videos();
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Object();
+    }
+
+    @PostConstruct
+    public void load() {
+        // without a store directory (likely in unit tests) likes stay in memory
+        if (log.open(storeDir, AppendOnlyLog.Durability.parse(durability, "pro_tube.likes.durability"),
+                flushIntervalMs, flushRecords, this::restore, this::clearInternal)) {
+            LOG.info("Loaded likes of {} users from {}", videosByUser.size(), storeDir);
+        }
+    }
+
+    /**
+     * Fold the log into a fresh snapshot once enough has been appended since the last one.
+     */
+    @Scheduled(fixedDelayString = "${pro_tube.likes.wal.compact_interval_ms:30000}")
+    public void compactIfNeeded() {
+        log.compactIfNeeded(compactBytes);
+    }
+
+    public void compact() {
+        log.compact();
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Every like, rebuilt from the indexes (so each call hands out new Like instances).
+     */
     public List<Like> getAllLikes() {
-        return likes;
+        List<Like> out = new ArrayList<>();
+        forEachLike((userId, videoId) -> out.add(new Like(userId, videoId)));
+        return out;
     }
 
     public Like findLike(String userId, String videoId) {
-        for (Like like : likes) {
-            if (like.getUserId().equals(userId) && like.getVideoId().equals(videoId)) {
-                return like;
-            }
+        return isLiked(userId, videoId) ? new Like(userId, videoId) : null;
+    }
+
+    public boolean isLiked(String userId, String videoId) {
+        IntBitmap liked = likedBitmap(userId);
+        int video = videos.idOf(videoId);
+        if (liked == null || video < 0) return false;
+        synchronized (liked) {
+            return liked.contains(video);
         }
-        return null;
     }
 
     public void addLike(Like like) {
-        if (likes.contains(like)) {
+        if (!addLikeIfAbsent(like)) {
             throw new IllegalArgumentException("Like already exists");
         }
-        likes.add(like);
+    }
+
+    /**
+     * Store the like unless the user already likes that video. Returns whether it was added.
+     */
+    public boolean addLikeIfAbsent(Like like) {
+        validate(like);
+        int user = users.intern(like.getUserId());
+        int video = videos.intern(like.getVideoId());
+        return log.updateAndGet(() -> {
+            synchronized (stripeFor(user, video)) {
+                if (!applyLike(user, video)) return false;
+                log.put(logKey(like.getUserId(), like.getVideoId()), like);
+                return true;
+            }
+        });
     }
 
     public void removeLike(String userId, String videoId) {
-        Like like = findLike(userId, videoId);
-        if (like == null) {
+        int user = users.idOf(userId);
+        int video = videos.idOf(videoId);
+        if (user < 0 || video < 0) {
             throw new IllegalArgumentException("Like not found");
-        } 
-        likes.remove(like);
+        }
+        log.update(() -> {
+            synchronized (stripeFor(user, video)) {
+                if (!applyUnlike(user, video)) {
+                    throw new IllegalArgumentException("Like not found");
+                }
+                log.delete(logKey(userId, videoId));
+            }
+        });
+    }
+
+    /**
+     * The videos a user likes, in the order the videos were first seen by the id dictionary.
+     */
+    public List<String> findVideoIdsByUser(String userId) {
+        IntBitmap liked = likedVideos(userId);
+        return videos.namesOf(liked);
+    }
+
+    /**
+     * A copy of the user's liked videos as dictionary ids, for intersecting with other indexes.
+     */
+    public IntBitmap likedVideos(String userId) {
+        IntBitmap liked = likedBitmap(userId);
+        if (liked == null) return new IntBitmap();
+        synchronized (liked) {
+            return liked.copy();
+        }
+    }
+
+    /**
+     * Whether the user likes each of videoIds, position by position; one index lookup for the whole batch.
+     */
+    public boolean[] areLiked(String userId, List<String> videoIds) {
+        boolean[] out = new boolean[videoIds.size()];
+        IntBitmap liked = likedBitmap(userId);
+        if (liked == null) return out;
+        synchronized (liked) {
+            for (int i = 0; i < out.length; i++) {
+                int video = videos.idOf(videoIds.get(i));
+                out[i] = video >= 0 && liked.contains(video);
+            }
+        }
+        return out;
+    }
+
+    public Set<String> findUserIdsByVideo(String videoId) {
+        int video = videos.idOf(videoId);
+        IntBitmap likers = video >= 0 ? usersByVideo.get(video) : null;
+        if (likers == null) return Set.of();
+        IntBitmap copy;
+        synchronized (likers) {
+            copy = likers.copy();
+        }
+        return new HashSet<>(users.namesOf(copy));
+    }
+
+    public long countByVideo(String videoId) {
+        int video = videos.idOf(videoId);
+        LongAdder count = video >= 0 ? likeCounts.get(video) : null;
+        return count != null ? count.sum() : 0;
+    }
+
+    private IntBitmap likedBitmap(String userId) {
+        int user = users.idOf(userId);
+        return user >= 0 ? videosByUser.get(user) : null;
+    }
+
+    // callers hold the pair's stripe (or are replaying on load); returns false when it was already liked
+    private boolean applyLike(int user, int video) {
+        IntBitmap liked = videosByUser.computeIfAbsent(user, u -> new IntBitmap());
+        synchronized (liked) {
+            if (!liked.add(video)) return false;
+        }
+        IntBitmap likers = usersByVideo.computeIfAbsent(video, v -> new IntBitmap());
+        synchronized (likers) {
+            likers.add(user);
+        }
+        likeCounts.computeIfAbsent(video, v -> new LongAdder()).increment();
+        return true;
+    }
+
+    private boolean applyUnlike(int user, int video) {
+        IntBitmap liked = videosByUser.get(user);
+        if (liked == null) return false;
+        synchronized (liked) {
+            if (!liked.remove(video)) return false;
+        }
+        IntBitmap likers = usersByVideo.get(video);
+        if (likers != null) {
+            synchronized (likers) {
+                likers.remove(user);
+            }
+        }
+        LongAdder count = likeCounts.get(video);
+        if (count != null) count.decrement();
+        return true;
+    }
+
+    private void forEachLike(BiConsumer<String, String> action) {
+        videosByUser.forEach((user, liked) -> {
+            IntBitmap copy;
+            synchronized (liked) {
+                copy = liked.copy();
+            }
+            String userId = users.nameOf(user);
+            copy.forEach(video -> action.accept(userId, videos.nameOf(video)));
+        });
+    }
+
+    private Object stripeFor(int user, int video) {
+        return stripes[Math.floorMod(31 * user + video, STRIPES)];
+    }
+
+    private static String logKey(String userId, String videoId) {
+        return userId + KEY_SEPARATOR + videoId;
+    }
+
+    private static void validate(Like like) {
+        if (like == null || like.getUserId() == null || like.getVideoId() == null) {
+            throw new IllegalArgumentException("userId and videoId are required");
+        }
+        if (like.getUserId().indexOf(KEY_SEPARATOR) >= 0 || like.getVideoId().indexOf(KEY_SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("userId and videoId must not contain control characters");
+        }
+    }
+
+    // replays one log record; a null like is an unlike
+    private void restore(String key, Like like) {
+        int sep = key != null ? key.indexOf(KEY_SEPARATOR) : -1;
+        if (sep < 0) return;
+        if (like != null) {
+            applyLike(users.intern(key.substring(0, sep)), videos.intern(key.substring(sep + 1)));
+            return;
+        }
+        int user = users.idOf(key.substring(0, sep));
+        int video = videos.idOf(key.substring(sep + 1));
+        if (user >= 0 && video >= 0) applyUnlike(user, video);
+    }
+
+    private Map<String, Like> snapshot() {
+        Map<String, Like> state = new HashMap<>();
+        forEachLike((userId, videoId) -> state.put(logKey(userId, videoId), new Like(userId, videoId)));
+        return state;
+    }
+
+    private void clearInternal() {
+        videosByUser.clear();
+        usersByVideo.clear();
+        likeCounts.clear();
     }
 }
@@ -0,0 +1,178 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The {@link AppendOnlyLog} wiring of an in-memory repository: opening and replaying the log, appends that log
+ * their failures instead of throwing, size-triggered compaction and closing. The repository keeps its own state
+ * and supplies only how a record is applied to it and how the state is copied into a snapshot.
+ * <p>
+ * Writers make their change and its appends inside {@link #update}, which holds the compaction gate shared;
+ * compaction takes the gate exclusively while copying the state, so every record that reached the sealed segment
+ * is also in the copy. Until {@link #open} succeeds (e.g. no store directory in unit tests) appends are no-ops
+ * and the state lives in memory only.
+ */
+final class LogBackedState<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(LogBackedState.class);
+
+    private final String name;
+    private final String description;
+    private final Class<T> type;
+    private final Supplier<Map<String, T>> snapshot;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReadWriteLock compactionGate = new ReentrantReadWriteLock();
+    private volatile AppendOnlyLog<T> log;
+    private volatile boolean recovered;
+
+    /**
+     * name is the file prefix ({@code <name>-<n>.wal}, {@code <name>.snapshot.json}), description names the
+     * state in log messages and snapshot copies the current state keyed as in the log.
+     */
+    LogBackedState(String name, String description, Class<T> type, Supplier<Map<String, T>> snapshot) {
+        this.name = name;
+        this.description = description;
+        this.type = type;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Open the log in storeDir and replay it: clear, then restore for every snapshot entry and logged record in
+     * order, with a null value for a delete. Returns whether the log is open; false leaves the state in memory.
+     * {@link #recovered} then tells whether there was anything to replay.
+     */
+    boolean open(String storeDir, AppendOnlyLog.Durability durability, long flushIntervalMs, int flushRecords,
+                 BiConsumer<String, T> restore, Runnable clear) {
+        if (storeDir == null || storeDir.isBlank()) return false;
+        clear.run();
+        AppendOnlyLog<T> opened = new AppendOnlyLog<>(Path.of(storeDir), name, type, objectMapper, durability,
+                flushIntervalMs, flushRecords);
+        try {
+            boolean found = opened.open(new AppendOnlyLog.Replay<>() {
+                @Override
+                public void put(String key, T value) {
+                    restore.accept(key, value);
+                }
+
+                @Override
+                public void delete(String key) {
+                    restore.accept(key, null);
+                }
+
+                @Override
+                public void clear() {
+                    clear.run();
+                }
+            });
+            recovered = found;
+            log = opened;
+            return true;
+        } catch (IOException e) {
+            LOG.error("Could not open {} log in {}: {}", description, storeDir, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether the last successful {@link #open} found a snapshot or log to replay, as opposed to starting empty.
+     */
+    boolean recovered() {
+        return recovered;
+    }
+
+    /**
+     * Run a change of the state together with its appends, so no compaction copies the state in between.
+     */
+    void update(Runnable change) {
+        updateAndGet(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * {@link #update} for a change that returns a result.
+     */
+    <R> R updateAndGet(Supplier<R> change) {
+        compactionGate.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            compactionGate.readLock().unlock();
+        }
+    }
+
+    void put(String key, T value) {
+        persist(l -> l.appendPut(key, value));
+    }
+
+    void delete(String key) {
+        persist(l -> l.appendDelete(key));
+    }
+
+    void clear() {
+        persist(AppendOnlyLog::appendClear);
+    }
+
+    void compactIfNeeded(long compactBytes) {
+        AppendOnlyLog<T> current = log;
+        if (current != null && current.bytesSinceCompaction() >= compactBytes) {
+            compact();
+        }
+    }
+
+    void compact() {
+        AppendOnlyLog<T> current = log;
+        if (current == null) return;
+        try {
+            current.compact(() -> {
+                compactionGate.writeLock().lock();
+                try {
+                    return snapshot.get();
+                } finally {
+                    compactionGate.writeLock().unlock();
+                }
+            });
+        } catch (IOException e) {
+            LOG.warn("{} log compaction failed: {}", description, e.getMessage());
+        }
+    }
+
+    /**
+     * Compact and close the log; later appends are no-ops until it is opened again.
+     */
+    void close() {
+        AppendOnlyLog<T> current = log;
+        if (current == null) return;
+        compact();
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close {} log: {}", description, e.getMessage());
+        }
+        log = null;
+    }
+
+    private void persist(LogWrite<T> write) {
+        AppendOnlyLog<T> current = log;
+        if (current == null) return;
+        try {
+            write.append(current);
+        } catch (IOException e) {
+            LOG.error("Could not append to {} log: {}", description, e.getMessage());
+        }
+    }
+
+    private interface LogWrite<T> {
+        void append(AppendOnlyLog<T> log) throws IOException;
+    }
+}
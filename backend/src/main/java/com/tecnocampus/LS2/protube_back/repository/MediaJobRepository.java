@@ -0,0 +1,150 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent queue of media jobs, kept in memory and mirrored one small JSON file per job under
+ * {@code <store>/.media-jobs}, so a status change rewrites only that job. Finished jobs are kept for a day so
+ * clients can still poll their status, then dropped on the next load.
+ */
+@Repository
+public class MediaJobRepository {
+	private static final Logger LOG = LoggerFactory.getLogger(MediaJobRepository.class);
+
+	public static final String JOBS_DIR = ".media-jobs";
+	// single-file queue written by earlier versions; split into per-job files on load
+	private static final String LEGACY_FILE = "media-jobs.json";
+	private static final Duration FINISHED_RETENTION = Duration.ofDays(1);
+
+	private final Map<String, MediaJob> store = new ConcurrentHashMap<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Value("${pro_tube.store.dir}")
+	private String storeDir;
+
+	private File getDir() {
+		return new File(storeDir, JOBS_DIR);
+	}
+
+	private File getFile(String id) {
+		return new File(getDir(), id + ".json");
+	}
+
+	@PostConstruct
+	public void load() {
+		if (storeDir == null || storeDir.isBlank()) return;
+		store.clear();
+		long cutoff = Instant.now().minus(FINISHED_RETENTION).toEpochMilli();
+		File[] files = getDir().listFiles((d, name) -> name.endsWith(".json"));
+		if (files != null) {
+			for (File f : files) {
+				try {
+					MediaJob job = objectMapper.readValue(f, MediaJob.class);
+					if (expired(job, cutoff)) {
+						f.delete();
+						continue;
+					}
+					store.put(job.getId(), job);
+				} catch (IOException e) {
+					LOG.warn("Skipping unreadable media job {}: {}", f.getName(), e.getMessage());
+				}
+			}
+		}
+		migrateLegacyFile(cutoff);
+	}
+
+	private void migrateLegacyFile(long cutoff) {
+		File legacy = new File(storeDir, LEGACY_FILE);
+		if (!legacy.exists()) return;
+		try {
+			List<MediaJob> list = objectMapper.readValue(legacy, new TypeReference<List<MediaJob>>() {});
+			for (MediaJob job : list) {
+				if (expired(job, cutoff) || store.containsKey(job.getId())) continue;
+				store.put(job.getId(), job);
+				saveToFile(job);
+			}
+			Files.delete(legacy.toPath());
+		} catch (IOException e) {
+			LOG.error("Could not migrate {}: {}", legacy, e.getMessage());
+		}
+	}
+
+	private static boolean expired(MediaJob job, long cutoff) {
+		boolean finished = job.getStatus() == MediaJob.Status.DONE || job.getStatus() == MediaJob.Status.FAILED;
+		return finished && job.getUpdatedAt() < cutoff;
+	}
+
+	private void saveToFile(MediaJob job) {
+		if (storeDir == null || storeDir.isBlank()) return;
+		try {
+			File dir = getDir();
+			if (!dir.exists()) dir.mkdirs();
+			// write-then-rename so a crash mid-write never leaves a truncated job behind
+			File tmp = new File(dir, job.getId() + ".json.tmp");
+			objectMapper.writeValue(tmp, job);
+			Files.move(tmp.toPath(), getFile(job.getId()).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOG.error("Could not save media job {}: {}", job.getId(), e.getMessage());
+		}
+	}
+
+	public MediaJob save(MediaJob job) {
+		if (job == null) throw new IllegalArgumentException("job is null");
+		// a job is saved by its worker and by retries; serialize the snapshot under the job's lock
+		synchronized (job) {
+			store.put(job.getId(), job);
+			saveToFile(job);
+		}
+		return job;
+	}
+
+	public Optional<MediaJob> findById(String id) {
+		if (id == null) return Optional.empty();
+		return Optional.ofNullable(store.get(id));
+	}
+
+	/**
+	 * Most recently created job for the given stored video file.
+	 */
+	public Optional<MediaJob> findLatestByVideoFileName(String videoFileName) {
+		if (videoFileName == null) return Optional.empty();
+		return store.values().stream()
+				.filter(j -> videoFileName.equals(j.getVideoFileName()))
+				.max(Comparator.comparingLong(MediaJob::getCreatedAt));
+	}
+
+	/**
+	 * Jobs that were queued or running when the process stopped, oldest first.
+	 */
+	public List<MediaJob> findUnfinished() {
+		return store.values().stream()
+				.filter(j -> j.getStatus() == MediaJob.Status.PENDING || j.getStatus() == MediaJob.Status.RUNNING)
+				.sorted(Comparator.comparingLong(MediaJob::getCreatedAt))
+				.toList();
+	}
+
+	public List<MediaJob> findAll() {
+		return new ArrayList<>(store.values());
+	}
+}
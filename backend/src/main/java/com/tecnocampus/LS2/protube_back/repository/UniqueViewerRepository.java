@@ -0,0 +1,182 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct viewers per video and UTC day as {@link HyperLogLog} sketches, so "how many users watched X this week"
+ * is a merge of seven sketches of at most 4 KiB instead of a GROUP BY over the history. Days older than
+ * {@code pro_tube.views.unique.retention_days} are dropped.
+ * <p>
+ * Persisted through a {@link LogBackedState} ({@code unique-viewers-<n>.wal} plus
+ * {@code unique-viewers.snapshot.json}) keyed {@code <videoId><US><day start millis>}. A record holds only the
+ * registers an {@link #offer} raised, and replay merges records into the day's sketch instead of replacing it;
+ * merging is idempotent, so a record that also made it into a snapshot is harmless.
+ */
+@Repository
+public class UniqueViewerRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueViewerRepository.class);
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int DEFAULT_RETENTION_DAYS = 90;
+    private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 20;
+    private static final int DEFAULT_FLUSH_RECORDS = 512;
+    private static final char KEY_SEPARATOR = '\u001f';
+
+    // videoId -> day start -> sketch; each inner map is guarded by its own monitor
+    private final Map<String, TreeMap<Long, HyperLogLog>> sketches = new ConcurrentHashMap<>();
+    private final LogBackedState<byte[]> log =
+            new LogBackedState<>("unique-viewers", "unique viewer", byte[].class, this::snapshot);
+
+    @Value("${pro_tube.store.dir}")
+    private String storeDir;
+
+    @Value("${pro_tube.views.unique.retention_days:" + DEFAULT_RETENTION_DAYS + "}")
+    private int retentionDays = DEFAULT_RETENTION_DAYS;
+
+    @Value("${pro_tube.views.durability:async}")
+    private String durability = "async";
+
+    @Value("${pro_tube.views.wal.compact_bytes:" + DEFAULT_COMPACT_BYTES + "}")
+    private long compactBytes = DEFAULT_COMPACT_BYTES;
+
+    @Value("${pro_tube.views.wal.flush_interval_ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}")
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    @Value("${pro_tube.views.wal.flush_records:" + DEFAULT_FLUSH_RECORDS + "}")
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
+
+    @PostConstruct
+    public void load() {
+        // without a store directory (likely in unit tests) sketches stay in memory
+        if (log.open(storeDir, AppendOnlyLog.Durability.parse(durability, "pro_tube.views.durability"),
+                flushIntervalMs, flushRecords, this::restore, sketches::clear)) {
+            LOG.info("Loaded unique viewer sketches of {} videos from {}", sketches.size(), storeDir);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pro_tube.views.wal.compact_interval_ms:30000}")
+    public void compactIfNeeded() {
+        log.compactIfNeeded(compactBytes);
+    }
+
+    public void compact() {
+        log.compact();
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Add viewers, given as {@link HyperLogLog#hash} values, to the sketch of videoId for the day containing
+     * epochMillis.
+     */
+    public void offer(String videoId, long epochMillis, Collection<Long> viewerHashes) {
+        if (videoId == null || videoId.isBlank()) throw new IllegalArgumentException("videoId is required");
+        if (viewerHashes.isEmpty()) return;
+        long day = dayStart(epochMillis);
+        TreeMap<Long, HyperLogLog> days = sketches.computeIfAbsent(videoId, id -> new TreeMap<>());
+        log.update(() -> {
+            synchronized (days) {
+                HyperLogLog sketch = days.computeIfAbsent(day, d -> new HyperLogLog());
+                HyperLogLog changed = new HyperLogLog();
+                for (long hash : viewerHashes) {
+                    if (sketch.offer(hash)) changed.offer(hash);
+                }
+                if (!changed.isEmpty()) log.put(logKey(videoId, day), changed.toBytes());
+                long oldestKept = day - (long) (retentionDays - 1) * DAY_MILLIS;
+                while (retentionDays > 0 && days.firstKey() < oldestKept) {
+                    log.delete(logKey(videoId, days.pollFirstEntry().getKey()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Estimated distinct viewers of videoId over the days consecutive days ending with the one containing endMillis.
+     */
+    public long estimate(String videoId, long endMillis, int days) {
+        HyperLogLog merged = new HyperLogLog();
+        TreeMap<Long, HyperLogLog> byDay = videoId != null ? sketches.get(videoId) : null;
+        if (byDay == null || days <= 0) return 0;
+        long last = dayStart(endMillis);
+        synchronized (byDay) {
+            byDay.subMap(last - (long) (days - 1) * DAY_MILLIS, true, last, true).values().forEach(merged::merge);
+        }
+        return merged.estimate();
+    }
+
+    /**
+     * Estimated distinct viewers of videoId on each of the days consecutive days ending with the one containing
+     * endMillis, oldest first.
+     */
+    public long[] daily(String videoId, long endMillis, int days) {
+        long[] out = new long[Math.max(0, days)];
+        TreeMap<Long, HyperLogLog> byDay = videoId != null ? sketches.get(videoId) : null;
+        if (byDay == null || days <= 0) return out;
+        long first = dayStart(endMillis) - (long) (days - 1) * DAY_MILLIS;
+        synchronized (byDay) {
+            byDay.subMap(first, true, dayStart(endMillis), true)
+                    .forEach((day, sketch) -> out[(int) ((day - first) / DAY_MILLIS)] = sketch.estimate());
+        }
+        return out;
+    }
+
+    public int retentionDays() {
+        return retentionDays;
+    }
+
+    public static long dayStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, DAY_MILLIS);
+    }
+
+    private Map<String, byte[]> snapshot() {
+        Map<String, byte[]> state = new HashMap<>();
+        sketches.forEach((videoId, days) -> {
+            synchronized (days) {
+                days.forEach((day, sketch) -> state.put(logKey(videoId, day), sketch.toBytes()));
+            }
+        });
+        return state;
+    }
+
+    // replay: a record's registers merge into the day's sketch, null drops the day
+    private void restore(String key, byte[] value) {
+        int sep = key != null ? key.indexOf(KEY_SEPARATOR) : -1;
+        if (sep <= 0 || sep == key.length() - 1) return;
+        String videoId = key.substring(0, sep);
+        long day;
+        try {
+            day = Long.parseLong(key.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        TreeMap<Long, HyperLogLog> days = sketches.computeIfAbsent(videoId, id -> new TreeMap<>());
+        if (value == null) {
+            days.remove(day);
+            return;
+        }
+        try {
+            days.computeIfAbsent(day, d -> new HyperLogLog()).merge(HyperLogLog.fromBytes(value));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Skipping unreadable unique viewer sketch {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static String logKey(String videoId, long day) {
+        return videoId + KEY_SEPARATOR + day;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.tecnocampus.LS2.protube_back.domain.UploadSession;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable upload sessions. Each session is mirrored to its own small JSON file under
+ * {@code <store>/.uploads} so that recording one chunk never rewrites the state of other uploads.
+ */
+@Repository
+public class UploadSessionRepository {
+	private static final Logger LOG = LoggerFactory.getLogger(UploadSessionRepository.class);
+
+	public static final String UPLOADS_DIR = ".uploads";
+
+	private final Map<String, UploadSession> store = new ConcurrentHashMap<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Value("${pro_tube.store.dir}")
+	private String storeDir;
+
+	private File getDir() {
+		return new File(storeDir, UPLOADS_DIR);
+	}
+
+	private File getFile(String id) {
+		return new File(getDir(), id + ".json");
+	}
+
+	@PostConstruct
+	public void load() {
+		if (storeDir == null || storeDir.isBlank()) return;
+		File[] files = getDir().listFiles((d, name) -> name.endsWith(".json"));
+		if (files == null) return;
+		store.clear();
+		for (File f : files) {
+			try {
+				UploadSession s = objectMapper.readValue(f, UploadSession.class);
+				store.put(s.getId(), s);
+			} catch (IOException e) {
+				LOG.warn("Skipping unreadable upload session {}: {}", f.getName(), e.getMessage());
+			}
+		}
+	}
+
+	private void saveToFile(UploadSession session) {
+		if (storeDir == null || storeDir.isBlank()) return;
+		try {
+			File dir = getDir();
+			if (!dir.exists()) dir.mkdirs();
+			File f = getFile(session.getId());
+			File tmp = new File(dir, session.getId() + ".json.tmp");
+			objectMapper.writeValue(tmp, session);
+			Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOG.error("Could not save upload session {}: {}", session.getId(), e.getMessage());
+		}
+	}
+
+	public UploadSession save(UploadSession session) {
+		if (session == null) throw new IllegalArgumentException("session is null");
+		// sessions are mutated by parallel chunk requests; serialize the snapshot under the session's lock
+		synchronized (session) {
+			store.put(session.getId(), session);
+			saveToFile(session);
+		}
+		return session;
+	}
+
+	public Optional<UploadSession> findById(String id) {
+		if (id == null) return Optional.empty();
+		return Optional.ofNullable(store.get(id));
+	}
+
+	public java.util.List<UploadSession> findAll() {
+		return new java.util.ArrayList<>(store.values());
+	}
+
+	public boolean deleteById(String id) {
+		if (id == null) return false;
+		boolean removed = store.remove(id) != null;
+		if (storeDir != null && !storeDir.isBlank()) {
+			getFile(id).delete();
+		}
+		return removed;
+	}
+}
@@ -3,37 +3,78 @@ package com.tecnocampus.LS2.protube_back.repository;
 import com.tecnocampus.LS2.protube_back.domain.User;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Repository;
 
+/**
+ * Users with unique hash indexes on id, email and username. Lookups read the concurrent maps without locking;
+ * writes take the repository monitor so the three indexes change together and the uniqueness checks of
+ * {@link #insert} cannot race with another registration.
+ */
 @Repository
 public class UserRepository {
-    private List<User> users = new ArrayList<>();
-
-    public void save(User user) {
-        Optional<User> existing = users.stream().filter(u -> u.getId().equals(user.getId())).findFirst();
-        if (existing.isPresent()) {
-            int idx = users.indexOf(existing.get());
-            users.set(idx, user);
-        } else {
-            users.add(user);
+    public enum InsertResult {
+        INSERTED,
+        EMAIL_TAKEN,
+        USERNAME_TAKEN
+    }
+
+    private final Map<String, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, User> byEmail = new ConcurrentHashMap<>();
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+
+    /**
+     * Add a new user unless its email or username already belongs to someone; check and insert are one step.
+     */
+    public synchronized InsertResult insert(User user) {
+        if (user.getEmail() != null && byEmail.containsKey(user.getEmail())) return InsertResult.EMAIL_TAKEN;
+        if (user.getUsername() != null && byUsername.containsKey(user.getUsername())) return InsertResult.USERNAME_TAKEN;
+        save(user);
+        return InsertResult.INSERTED;
+    }
+
+    /**
+     * Insert or replace the user with the same id, moving its email and username keys if they changed.
+     * Taking over another user's email or username is an IllegalArgumentException.
+     */
+    public synchronized void save(User user) {
+        User previous = byId.get(user.getId());
+        checkFree(byEmail, user.getEmail(), user, "email");
+        checkFree(byUsername, user.getUsername(), user, "username");
+        if (previous != null) {
+            if (previous.getEmail() != null) byEmail.remove(previous.getEmail(), previous);
+            if (previous.getUsername() != null) byUsername.remove(previous.getUsername(), previous);
         }
+        if (user.getEmail() != null) byEmail.put(user.getEmail(), user);
+        if (user.getUsername() != null) byUsername.put(user.getUsername(), user);
+        byId.put(user.getId(), user);
+    }
+
+    public Optional<User> findById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
     }
 
     public Optional<User> findByEmail(String email) {
-        return users.stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst();
+        return email == null ? Optional.empty() : Optional.ofNullable(byEmail.get(email));
     }
 
     public Optional<User> findByUsername(String username) {
-        return users.stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst();
+        return username == null ? Optional.empty() : Optional.ofNullable(byUsername.get(username));
     }
 
     public List<User> findAll() {
-        return new ArrayList<>(users);
+        return new ArrayList<>(byId.values());
+    }
+
+    private static void checkFree(Map<String, User> index, String key, User user, String what) {
+        if (key == null) return;
+        User owner = index.get(key);
+        if (owner != null && !Objects.equals(owner.getId(), user.getId())) {
+            throw new IllegalArgumentException("The " + what + " " + key + " belongs to another user");
+        }
     }
 }
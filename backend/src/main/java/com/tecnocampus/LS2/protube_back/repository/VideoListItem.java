@@ -0,0 +1,11 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+/**
+ * Closed projection for listings: only these columns are selected, never the description LOB.
+ */
+public interface VideoListItem {
+    String getVideoId();
+    String getTitle();
+    String getFileName();
+    String getUserId();
+}
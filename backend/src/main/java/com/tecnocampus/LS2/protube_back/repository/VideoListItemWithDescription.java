@@ -0,0 +1,5 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+public interface VideoListItemWithDescription extends VideoListItem {
+    String getDescription();
+}
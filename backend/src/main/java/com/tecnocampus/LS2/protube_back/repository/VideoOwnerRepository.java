@@ -0,0 +1,14 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.domain.VideoOwner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VideoOwnerRepository extends JpaRepository<VideoOwner, String> {
+    // oldest first: the first co-owner takes over the video when its uploader deletes it
+    List<VideoOwner> findByVideoIdOrderByAddedAtAsc(String videoId);
+    boolean existsByVideoIdAndUserId(String videoId, String userId);
+}
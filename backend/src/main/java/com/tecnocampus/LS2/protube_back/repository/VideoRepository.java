@@ -2,14 +2,23 @@ package com.tecnocampus.LS2.protube_back.repository;
 
 import com.tecnocampus.LS2.protube_back.domain.Video;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 
 @Repository
-public interface VideoRepository extends JpaRepository<Video, String> {   
+public interface VideoRepository extends JpaRepository<Video, String>, VideoRepositoryCustom {
     Optional<Video> findByFileName(String fileName);
-    java.util.List<Video> findByFileNameStartingWith(String prefix);
+    List<Video> findByFileNameStartingWith(String prefix);
+    List<Video> findByFileNameIn(Collection<String> fileNames);
+    long countByFileName(String fileName);
+
+    // keyset pagination over the primary key: each page is an index range scan, however deep the cursor is
+    <T> List<T> findAllByOrderByVideoIdAsc(Limit limit, Class<T> type);
+    <T> List<T> findByVideoIdGreaterThanOrderByVideoIdAsc(String videoId, Limit limit, Class<T> type);
 }
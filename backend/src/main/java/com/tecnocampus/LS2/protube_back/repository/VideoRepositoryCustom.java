@@ -0,0 +1,20 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.domain.Video;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface VideoRepositoryCustom {
+    /**
+     * Persist new videos in one transaction with JDBC batching. Unlike saveAll this never issues the
+     * per-row SELECT that merge needs for entities with assigned ids, so callers must only pass new rows.
+     */
+    void insertAll(Collection<Video> videos);
+
+    /**
+     * Videos whose file name is one of baseNames followed by an extension ({@code fileName LIKE 'base.%'}), in
+     * one query of OR-ed LIKE predicates, ordered by file name. The batched form of findByFileNameStartingWith.
+     */
+    List<Video> findByFileNamePrefixes(Collection<String> baseNames);
+}
@@ -0,0 +1,57 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public class VideoRepositoryImpl implements VideoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // flush in the same groups Hibernate batches the INSERTs in, so the persistence context stays small
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public void insertAll(Collection<Video> videos) {
+        int pending = 0;
+        for (Video video : videos) {
+            entityManager.persist(video);
+            if (++pending % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<Video> findByFileNamePrefixes(Collection<String> baseNames) {
+        if (baseNames.isEmpty()) return List.of();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Video> query = cb.createQuery(Video.class);
+        Root<Video> video = query.from(Video.class);
+        Predicate[] prefixes = baseNames.stream()
+                .map(base -> cb.like(video.get("fileName"), escapeLike(base) + ".%", '\\'))
+                .toArray(Predicate[]::new);
+        query.select(video).where(cb.or(prefixes)).orderBy(cb.asc(video.get("fileName")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // file names are literal text; a "_" or "%" in one must not act as a wildcard
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
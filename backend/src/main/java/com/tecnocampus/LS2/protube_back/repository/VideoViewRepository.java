@@ -1,14 +1,42 @@
 package com.tecnocampus.LS2.protube_back.repository;
 
 import com.tecnocampus.LS2.protube_back.domain.VideoView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VideoViewRepository extends JpaRepository<VideoView, String> {
+public interface VideoViewRepository extends JpaRepository<VideoView, String>, VideoViewRepositoryCustom {
     List<VideoView> findByUserIdOrderByViewedAtDesc(String userId);
     Optional<VideoView> findByUserIdAndVideoFileName(String userId, String videoFileName);
+
+    // keyset pages of one user's history, newest first; (viewedAt, id) is unique so pages never overlap
+    List<VideoView> findByUserIdOrderByViewedAtDescIdDesc(String userId, Limit limit);
+
+    @Query("SELECT v FROM VideoView v WHERE v.userId = :userId"
+            + " AND (v.viewedAt < :viewedAt OR (v.viewedAt = :viewedAt AND v.id < :id))"
+            + " ORDER BY v.viewedAt DESC, v.id DESC")
+    List<VideoView> findPageAfter(@Param("userId") String userId, @Param("viewedAt") long viewedAt,
+                                  @Param("id") String id, Limit limit);
+
+    // retention: users above the cap, the newest row past the cap, and the rows from there back
+    @Query("SELECT v.userId FROM VideoView v GROUP BY v.userId HAVING COUNT(v) > :cap")
+    List<String> findUserIdsWithMoreViewsThan(@Param("cap") long cap);
+
+    @Query("SELECT v FROM VideoView v WHERE v.userId = :userId ORDER BY v.viewedAt DESC, v.id DESC")
+    List<VideoView> findByUserIdNewestFirst(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT v FROM VideoView v WHERE v.userId = :userId"
+            + " AND (v.viewedAt < :viewedAt OR (v.viewedAt = :viewedAt AND v.id <= :id))")
+    List<VideoView> findAtOrBefore(@Param("userId") String userId, @Param("viewedAt") long viewedAt,
+                                   @Param("id") String id, Limit limit);
+
+    @Query("SELECT v FROM VideoView v WHERE v.viewedAt < :cutoff")
+    List<VideoView> findViewedBefore(@Param("cutoff") long cutoff, Limit limit);
 }
\ No newline at end of file
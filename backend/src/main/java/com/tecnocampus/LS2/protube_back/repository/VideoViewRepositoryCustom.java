@@ -0,0 +1,14 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import java.util.Map;
+
+public interface VideoViewRepositoryCustom {
+    /**
+     * Record the latest view time of each (userId, videoFileName) of views (userId -> file name -> viewedAt) in
+     * one transaction: one SELECT per chunk of users for the rows that exist, which stay managed so a newer
+     * viewedAt is written back by dirty checking, and a plain persist for the others (no per-row SELECT as merge
+     * would issue for their assigned ids). Inserts and updates go out in JDBC batches. Returns the number of rows
+     * inserted or updated.
+     */
+    int upsertLatestViews(Map<String, Map<String, Long>> views);
+}
@@ -0,0 +1,61 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.domain.VideoView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class VideoViewRepositoryImpl implements VideoViewRepositoryCustom {
+    private static final int USER_CHUNK = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int upsertLatestViews(Map<String, Map<String, Long>> views) {
+        int written = 0;
+        List<String> userIds = new ArrayList<>(views.keySet());
+        for (int from = 0; from < userIds.size(); from += USER_CHUNK) {
+            List<String> chunk = userIds.subList(from, Math.min(userIds.size(), from + USER_CHUNK));
+            Set<String> fileNames = new HashSet<>();
+            for (String userId : chunk) fileNames.addAll(views.get(userId).keySet());
+            Map<String, VideoView> existing = new HashMap<>();
+            List<VideoView> rows = entityManager.createQuery(
+                            "SELECT v FROM VideoView v WHERE v.userId IN :userIds AND v.videoFileName IN :fileNames",
+                            VideoView.class)
+                    .setParameter("userIds", chunk)
+                    .setParameter("fileNames", fileNames)
+                    .getResultList();
+            for (VideoView row : rows) {
+                existing.putIfAbsent(row.getUserId() + '\u001f' + row.getVideoFileName(), row);
+            }
+            for (String userId : chunk) {
+                for (Map.Entry<String, Long> view : views.get(userId).entrySet()) {
+                    VideoView row = existing.get(userId + '\u001f' + view.getKey());
+                    if (row == null) {
+                        row = new VideoView(userId, view.getKey());
+                        row.setViewedAt(view.getValue());
+                        entityManager.persist(row);
+                    } else if (row.getViewedAt() < view.getValue()) {
+                        row.setViewedAt(view.getValue());
+                    } else {
+                        continue;
+                    }
+                    written++;
+                }
+            }
+            // write this chunk and keep the persistence context from growing with the batch
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,223 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * View counts per video: a running total plus per-minute, per-hour and per-day buckets, each granularity keeping
+ * a bounded number of recent buckets ({@link Granularity#retained}). Counts arrive already aggregated (see
+ * {@code ViewCounter}), so one {@link #add} covers many views and writes a handful of log records.
+ * <p>
+ * Persisted through a {@link LogBackedState} over an {@link AppendOnlyLog} ({@code view-counts-<n>.wal} plus
+ * {@code view-counts.snapshot.json}) whose records hold the absolute value of one total or bucket, keyed
+ * {@code <videoId><US>T} or {@code <videoId><US><m|h|d><bucket start millis>}.
+ */
+@Repository
+public class ViewCountRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(ViewCountRepository.class);
+    private static final long DEFAULT_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 20;
+    private static final int DEFAULT_FLUSH_RECORDS = 512;
+    private static final char KEY_SEPARATOR = '\u001f';
+    private static final String TOTAL = "T";
+
+    public enum Granularity {
+        MINUTE('m', 60_000L, 24 * 60),
+        HOUR('h', 3_600_000L, 30 * 24),
+        DAY('d', 86_400_000L, 400);
+
+        private final char code;
+        private final long millis;
+        private final int retained;
+
+        Granularity(char code, long millis, int retained) {
+            this.code = code;
+            this.millis = millis;
+            this.retained = retained;
+        }
+
+        public long millis() {
+            return millis;
+        }
+
+        /**
+         * How many of the most recent buckets are kept; older ones are dropped as new ones fill.
+         */
+        public int retained() {
+            return retained;
+        }
+
+        /**
+         * Start of the bucket containing epochMillis (UTC boundaries).
+         */
+        public long bucketStart(long epochMillis) {
+            return epochMillis - Math.floorMod(epochMillis, millis);
+        }
+
+        static Granularity of(char code) {
+            for (Granularity g : values()) {
+                if (g.code == code) return g;
+            }
+            return null;
+        }
+    }
+
+    private final Map<String, Counts> counts = new ConcurrentHashMap<>();
+    private final LogBackedState<Long> log = new LogBackedState<>("view-counts", "view count", Long.class, this::snapshot);
+
+    @Value("${pro_tube.store.dir}")
+    private String storeDir;
+
+    @Value("${pro_tube.views.durability:async}")
+    private String durability = "async";
+
+    @Value("${pro_tube.views.wal.compact_bytes:" + DEFAULT_COMPACT_BYTES + "}")
+    private long compactBytes = DEFAULT_COMPACT_BYTES;
+
+    @Value("${pro_tube.views.wal.flush_interval_ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}")
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    @Value("${pro_tube.views.wal.flush_records:" + DEFAULT_FLUSH_RECORDS + "}")
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
+
+    @PostConstruct
+    public void load() {
+        // without a store directory (likely in unit tests) counts stay in memory
+        if (log.open(storeDir, AppendOnlyLog.Durability.parse(durability, "pro_tube.views.durability"),
+                flushIntervalMs, flushRecords, this::restore, counts::clear)) {
+            LOG.info("Loaded view counts of {} videos from {}", counts.size(), storeDir);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pro_tube.views.wal.compact_interval_ms:30000}")
+    public void compactIfNeeded() {
+        log.compactIfNeeded(compactBytes);
+    }
+
+    public void compact() {
+        log.compact();
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Count views of videoId that happened at epochMillis into the total and the bucket of every granularity,
+     * dropping buckets that fell out of retention.
+     */
+    public void add(String videoId, long epochMillis, long views) {
+        if (videoId == null || videoId.isBlank()) throw new IllegalArgumentException("videoId is required");
+        if (views <= 0) return;
+        Counts c = counts.computeIfAbsent(videoId, id -> new Counts());
+        log.update(() -> {
+            synchronized (c) {
+                c.total += views;
+                log.put(logKey(videoId, TOTAL), c.total);
+                for (Granularity g : Granularity.values()) {
+                    long start = g.bucketStart(epochMillis);
+                    long n = c.buckets.get(g).merge(start, views, Long::sum);
+                    log.put(logKey(videoId, bucketKey(g, start)), n);
+                    long oldestKept = start - (long) (g.retained - 1) * g.millis;
+                    TreeMap<Long, Long> buckets = c.buckets.get(g);
+                    while (!buckets.isEmpty() && buckets.firstKey() < oldestKept) {
+                        log.delete(logKey(videoId, bucketKey(g, buckets.pollFirstEntry().getKey())));
+                    }
+                }
+            }
+        });
+    }
+
+    public long total(String videoId) {
+        Counts c = videoId != null ? counts.get(videoId) : null;
+        if (c == null) return 0;
+        synchronized (c) {
+            return c.total;
+        }
+    }
+
+    /**
+     * Counts of the points consecutive buckets of granularity g ending with the one that contains endMillis,
+     * oldest first; buckets without views (or no longer retained) are 0.
+     */
+    public long[] series(String videoId, Granularity g, long endMillis, int points) {
+        long[] out = new long[Math.max(0, points)];
+        Counts c = videoId != null ? counts.get(videoId) : null;
+        if (c == null || points <= 0) return out;
+        long first = g.bucketStart(endMillis) - (long) (points - 1) * g.millis;
+        synchronized (c) {
+            c.buckets.get(g).subMap(first, true, g.bucketStart(endMillis), true)
+                    .forEach((start, n) -> out[(int) ((start - first) / g.millis)] = n);
+        }
+        return out;
+    }
+
+    private Map<String, Long> snapshot() {
+        Map<String, Long> state = new HashMap<>();
+        counts.forEach((videoId, c) -> {
+            synchronized (c) {
+                state.put(logKey(videoId, TOTAL), c.total);
+                c.buckets.forEach((g, buckets) ->
+                        buckets.forEach((start, n) -> state.put(logKey(videoId, bucketKey(g, start)), n)));
+            }
+        });
+        return state;
+    }
+
+    // replay: value is the absolute count of the total or bucket, null once the bucket expired
+    private void restore(String key, Long value) {
+        int sep = key != null ? key.indexOf(KEY_SEPARATOR) : -1;
+        if (sep <= 0 || sep == key.length() - 1) return;
+        String videoId = key.substring(0, sep);
+        String field = key.substring(sep + 1);
+        Counts c = counts.computeIfAbsent(videoId, id -> new Counts());
+        if (TOTAL.equals(field)) {
+            c.total = value != null ? value : 0;
+            return;
+        }
+        Granularity g = Granularity.of(field.charAt(0));
+        if (g == null) return;
+        long start;
+        try {
+            start = Long.parseLong(field.substring(1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (value != null) {
+            c.buckets.get(g).put(start, value);
+        } else {
+            c.buckets.get(g).remove(start);
+        }
+    }
+
+    private static String logKey(String videoId, String field) {
+        return videoId + KEY_SEPARATOR + field;
+    }
+
+    private static String bucketKey(Granularity g, long start) {
+        return g.code + Long.toString(start);
+    }
+
+    // guarded by its own monitor
+    private static final class Counts {
+        long total;
+        final Map<Granularity, TreeMap<Long, Long>> buckets = new EnumMap<>(Granularity.class);
+
+        Counts() {
+            for (Granularity g : Granularity.values()) buckets.put(g, new TreeMap<>());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadCreateDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.UploadSession;
+import com.tecnocampus.LS2.protube_back.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resumable (tus-style) uploads. A session pre-sizes one part file next to the store; chunks may arrive in
+ * any order and in parallel and are written straight to their offset with positional writes. Completing the
+ * session hashes the part file and renames it into the content-addressed store (or drops it when the same
+ * content is already stored), so the video bytes hit the disk exactly once.
+ * <p>
+ * A chunk only counts as received once its length and checksum have been checked; re-sending a chunk un-marks it
+ * first, so a bad retry never leaves the index marked over overwritten bytes. Completing or aborting waits for
+ * chunk writes in flight and no write starts while the part file is being moved or deleted.
+ */
+@Service
+public class ChunkedUploadService {
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_CHUNKS = 100_000;
+    private static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024 * 1024;
+    private static final long DEFAULT_TTL_HOURS = 24;
+    private static final int IO_BUFFER = 64 * 1024;
+
+    private final UploadSessionRepository repository;
+    private final VideoService videoService;
+    private final long maxBytes;
+    private final Duration sessionTtl;
+    // sessions currently being finalized; a second complete/abort must not race the rename
+    private final Set<String> finalizing = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Gate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * Chunk writes share the lock, complete and abort hold it exclusively.
+     */
+    private static final class Gate {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // chunk indexes being written right now: two writers of one index would interleave their bytes
+        final Set<Integer> writing = ConcurrentHashMap.newKeySet();
+    }
+
+    public ChunkedUploadService(UploadSessionRepository repository, VideoService videoService, Environment env) {
+        this.repository = repository;
+        this.videoService = videoService;
+        Long max = env != null ? env.getProperty("pro_tube.upload.max_bytes", Long.class) : null;
+        Long ttl = env != null ? env.getProperty("pro_tube.upload.session_ttl_hours", Long.class) : null;
+        this.maxBytes = max != null ? max : DEFAULT_MAX_BYTES;
+        this.sessionTtl = Duration.ofHours(ttl != null ? ttl : DEFAULT_TTL_HOURS);
+    }
+
+    /**
+     * Drop sessions nobody touched within the TTL, together with their part files. Runs at startup and then
+     * every {@code pro_tube.upload.purge_interval_ms}.
+     */
+    @Scheduled(fixedDelayString = "${pro_tube.upload.purge_interval_ms:3600000}")
+    public void purgeExpired() {
+        long cutoff = Instant.now().minus(sessionTtl).toEpochMilli();
+        for (UploadSession s : repository.findAll()) {
+            if (s.getUpdatedAt() < cutoff) {
+                LOG.info("Discarding abandoned upload session {}", s.getId());
+                abort(s.getId());
+            }
+        }
+    }
+
+    public UploadSession create(UploadCreateDTO request) throws IOException {
+        if (request == null || request.size() <= 0) {
+            throw new IllegalArgumentException("No file provided");
+        }
+        if (request.size() > maxBytes) {
+            throw new IllegalArgumentException("File too large");
+        }
+        int chunkSize = request.chunkSize() != null ? request.chunkSize() : DEFAULT_CHUNK_SIZE;
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid chunk size");
+        }
+        String original = VideoService.sanitizeOriginalName(request.fileName());
+        UploadSession session = new UploadSession(request.userId(), request.title(), request.description(),
+                original, request.size(), chunkSize);
+        if (session.totalChunks() > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Chunk size too small for this file");
+        }
+
+        Path part = partPath(session.getId());
+        Files.createDirectories(part.getParent());
+        // sized up front (sparse on most filesystems) so any chunk can be written at its offset
+        try (RandomAccessFile raf = new RandomAccessFile(part.toFile(), "rw")) {
+            raf.setLength(session.getSize());
+        }
+        return repository.save(session);
+    }
+
+    public Optional<UploadSession> findById(String id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * Write one chunk at its offset while hashing it. When expectedSha256 is given the chunk is only
+     * recorded as received if the digest matches, so a corrupted chunk is simply re-sent.
+     * Throws IllegalStateException while another request is writing the same chunk.
+     */
+    public Optional<UploadSession> writeChunk(String id, int index, InputStream body, String expectedSha256) throws IOException {
+        if (repository.findById(id).isEmpty()) return Optional.empty();
+        Gate gate = gates.computeIfAbsent(id, k -> new Gate());
+        // held exclusively while the session is completed or aborted
+        if (!gate.lock.readLock().tryLock()) return Optional.empty();
+        try {
+            UploadSession session = repository.findById(id).orElse(null);
+            if (session == null || finalizing.contains(id)) return Optional.empty();
+            if (index < 0 || index >= session.totalChunks()) {
+                throw new IllegalArgumentException("Invalid chunk index " + index);
+            }
+            if (!gate.writing.add(index)) {
+                throw new IllegalStateException("Chunk " + index + " is already being written");
+            }
+            try {
+                return Optional.of(write(session, index, body, expectedSha256));
+            } finally {
+                gate.writing.remove(index);
+            }
+        } finally {
+            gate.lock.readLock().unlock();
+        }
+    }
+
+    private UploadSession write(UploadSession session, int index, InputStream body, String expectedSha256) throws IOException {
+        String id = session.getId();
+        boolean rewrite;
+        synchronized (session) {
+            rewrite = session.getReceived().remove(index);
+        }
+        // the bytes on disk are about to change: only a write that passes the checks below marks the chunk again
+        if (rewrite) repository.save(session);
+
+        long offset = session.chunkOffset(index);
+        long expected = session.chunkLength(index);
+        MessageDigest digest = sha256();
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partPath(id), StandardOpenOption.WRITE)) {
+            byte[] buf = new byte[IO_BUFFER];
+            ByteBuffer wrapped = ByteBuffer.wrap(buf);
+            while (true) {
+                // ask for one byte more than we still need, so an oversized body is detected
+                int n = body.read(buf, 0, (int) Math.min(buf.length, expected - written + 1));
+                if (n == -1) break;
+                if (written + n > expected) {
+                    throw new IllegalArgumentException("Chunk " + index + " is larger than " + expected + " bytes");
+                }
+                digest.update(buf, 0, n);
+                wrapped.clear().limit(n);
+                while (wrapped.hasRemaining()) {
+                    written += channel.write(wrapped, offset + written);
+                }
+            }
+        }
+        if (written != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " has " + written + " bytes, expected " + expected);
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.isBlank() && !actual.equalsIgnoreCase(expectedSha256.trim())) {
+            throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+        }
+
+        synchronized (session) {
+            session.getReceived().add(index);
+            session.setUpdatedAt(Instant.now().toEpochMilli());
+        }
+        repository.save(session);
+        return session;
+    }
+
+    /**
+     * Move the assembled file into the store and register the video. Throws IllegalStateException if chunks are missing.
+     */
+    public Optional<VideoService.StoredVideo> complete(String id) throws IOException {
+        if (repository.findById(id).isEmpty() || !finalizing.add(id)) return Optional.empty();
+        Gate gate = gates.computeIfAbsent(id, k -> new Gate());
+        gate.lock.writeLock().lock();
+        try {
+            UploadSession session = repository.findById(id).orElse(null);
+            if (session == null) return Optional.empty();
+            if (!session.allChunksReceived()) {
+                throw new IllegalStateException("Upload " + id + " is missing "
+                        + (session.totalChunks() - session.getReceived().size()) + " chunks");
+            }
+            Path part = partPath(id);
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            videoSaveDTO meta = new videoSaveDTO(session.getUserId(), session.getTitle(), session.getDescription(), null);
+            // same filesystem as the store: a rename, not a second copy of the bytes
+            VideoService.StoredVideo saved = videoService.registerFile(part, session.getOriginalName(), meta);
+            repository.deleteById(id);
+            gates.remove(id);
+            return Optional.of(saved);
+        } finally {
+            gate.lock.writeLock().unlock();
+            finalizing.remove(id);
+        }
+    }
+
+    public boolean abort(String id) {
+        if (!finalizing.add(id)) return false;
+        Gate gate = gates.computeIfAbsent(id, k -> new Gate());
+        gate.lock.writeLock().lock();
+        try {
+            boolean removed = repository.deleteById(id);
+            gates.remove(id);
+            if (!removed) return false;
+            try {
+                Files.deleteIfExists(partPath(id));
+            } catch (IOException e) {
+                LOG.warn("Could not delete part file for upload {}: {}", id, e.getMessage());
+            }
+            return true;
+        } finally {
+            gate.lock.writeLock().unlock();
+            finalizing.remove(id);
+        }
+    }
+
+    private Path partPath(String id) {
+        return videoService.getStoreBase().resolve(UploadSessionRepository.UPLOADS_DIR).resolve(id + ".part");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
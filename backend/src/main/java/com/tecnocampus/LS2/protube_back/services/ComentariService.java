@@ -1,6 +1,7 @@
 package com.tecnocampus.LS2.protube_back.services;
 
 import com.tecnocampus.LS2.protube_back.controller.dto.ComentariDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.CommentPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.mapper.ComentariMapper;
 import com.tecnocampus.LS2.protube_back.domain.Comentari;
 import com.tecnocampus.LS2.protube_back.repository.ComentariRepository;
@@ -13,12 +14,17 @@ import java.util.stream.Collectors;
 @Service
 public class ComentariService {
 
+	static final int DEFAULT_PAGE_SIZE = 20;
+	static final int MAX_PAGE_SIZE = 100;
+
 	private final ComentariRepository repo;
 	private final VideoService videoService;
+	private final YtCommentImporter ytCommentImporter;
 
-	public ComentariService(ComentariRepository repo, VideoService videoService) {
+	public ComentariService(ComentariRepository repo, VideoService videoService, YtCommentImporter ytCommentImporter) {
 		this.repo = repo;
 		this.videoService = videoService;
+		this.ytCommentImporter = ytCommentImporter;
 	}
 
 	/**
@@ -62,9 +68,35 @@ public class ComentariService {
 	}
 
 	public List<ComentariDTO> findByVideoId(String videoId) {
+		ytCommentImporter.ensureImported(videoId);
 		return repo.findByVideoId(videoId).stream().map(ComentariMapper::toDto).collect(Collectors.toList());
 	}
 
+	/**
+	 * One page of a video's comments, newest first unless oldestFirst. cursor is the nextCursor of the previous
+	 * page (null for the first); nextCursor is null on the last page.
+	 */
+	public CommentPageDTO findPageByVideoId(String videoId, String cursor, Integer limit, boolean oldestFirst) {
+		int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+		if (size <= 0 || size > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		Cursor after = Cursor.decode(cursor);
+		long afterCreatedAt = after != null ? after.position() : 0;
+		String afterId = after != null ? after.id() : null;
+		ytCommentImporter.ensureImported(videoId);
+		// one extra row tells whether there is another page
+		List<Comentari> rows = repo.findPageByVideoId(videoId, afterCreatedAt, afterId, size + 1, !oldestFirst);
+		boolean hasMore = rows.size() > size;
+		List<Comentari> page = hasMore ? rows.subList(0, size) : rows;
+		String next = null;
+		if (hasMore) {
+			Comentari last = page.get(page.size() - 1);
+			next = new Cursor(last.getCreatedAt(), last.getId()).encode();
+		}
+		return new CommentPageDTO(page.stream().map(ComentariMapper::toDto).collect(Collectors.toList()), next);
+	}
+
 	public List<ComentariDTO> findByUserId(String userId) {
 		return repo.findByUserId(userId).stream().map(ComentariMapper::toDto).collect(Collectors.toList());
 	}
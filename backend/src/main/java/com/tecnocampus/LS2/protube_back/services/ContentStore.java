@@ -0,0 +1,140 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed layout for uploaded videos: each blob is stored once as {@code <sha256>.<ext>} in the
+ * store directory (its thumbnail is {@code <sha256>.webp}). Uploads are streamed to a scratch file while
+ * being hashed, then renamed into place or discarded if the same content is already stored.
+ * <p>
+ * A blob's reference count is the number of videos whose fileName points at it. Placing a blob and
+ * registering its video, or deleting a video and dropping an unreferenced blob, must happen while holding
+ * {@link #lockFor(String)} so the two can never interleave.
+ */
+@Service
+public class ContentStore {
+
+    public static final String INCOMING_DIR = ".incoming";
+    private static final Pattern BLOB_NAME = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]{1,10})?$");
+    private static final Pattern EXTENSION = Pattern.compile("^[a-z0-9]{1,10}$");
+    private static final int IO_BUFFER = 64 * 1024;
+
+    public record Blob(String fileName, boolean deduplicated) {}
+
+    private final Path storeBase;
+    private final Object[] locks = new Object[64];
+
+    public ContentStore(Environment env) {
+        String configured = env != null ? env.getProperty("pro_tube.store.dir") : null;
+        Path base = (configured != null && !configured.isBlank())
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.dir"), "..", "store");
+        this.storeBase = base.toAbsolutePath().normalize();
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    /**
+     * Stream {@code in} into the store while computing its SHA-256, then run {@code register} under the blob's lock.
+     */
+    public <T> T store(InputStream in, String originalName, Function<Blob, T> register) throws IOException {
+        Path incoming = storeBase.resolve(INCOMING_DIR);
+        Files.createDirectories(incoming);
+        Path temp = incoming.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digest = sha256();
+        try (InputStream hashing = new DigestInputStream(in, digest)) {
+            Files.copy(hashing, temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return place(temp, HexFormat.of().formatHex(digest.digest()), originalName, register);
+    }
+
+    /**
+     * Take ownership of a file already written next to the store (e.g. an assembled chunked upload).
+     * The file is read once to hash it and then renamed, never copied.
+     */
+    public <T> T adopt(Path file, String originalName, Function<Blob, T> register) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[IO_BUFFER];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                digest.update(buf, 0, n);
+            }
+        }
+        return place(file, HexFormat.of().formatHex(digest.digest()), originalName, register);
+    }
+
+    private <T> T place(Path source, String hash, String originalName, Function<Blob, T> register) throws IOException {
+        String fileName = hash + extensionOf(originalName);
+        Path target = storeBase.resolve(fileName);
+        synchronized (lockFor(fileName)) {
+            boolean duplicate = Files.exists(target);
+            if (duplicate) {
+                Files.deleteIfExists(source);
+            } else {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            try {
+                return register.apply(new Blob(fileName, duplicate));
+            } catch (RuntimeException e) {
+                // nothing references a blob we just placed if its registration failed
+                if (!duplicate) Files.deleteIfExists(target);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Remove a blob and its thumbnail. Callers hold {@link #lockFor(String)} and have checked nothing references it.
+     */
+    public void delete(String fileName) throws IOException {
+        if (!isContentAddressed(fileName)) return;
+        Files.deleteIfExists(storeBase.resolve(fileName));
+        Files.deleteIfExists(storeBase.resolve(fileName.replaceFirst("\\.[^.]+$", "") + ".webp"));
+    }
+
+    public Object lockFor(String fileName) {
+        return locks[Math.floorMod(fileName.hashCode(), locks.length)];
+    }
+
+    /**
+     * Whether a stored file name belongs to this layout (as opposed to seed videos like 12.mp4).
+     */
+    public static boolean isContentAddressed(String fileName) {
+        return fileName != null && BLOB_NAME.matcher(fileName).matches();
+    }
+
+    static String extensionOf(String originalName) {
+        if (originalName == null) return ".mp4";
+        int dot = originalName.lastIndexOf('.');
+        if (dot < 0 || dot == originalName.length() - 1) return ".mp4";
+        String ext = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(ext).matches() ? "." + ext : ".mp4";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset cursor handed to clients as nextCursor: the sort position (a timestamp) and id of the last row of a page,
+ * sent as URL-safe base64 of {@code <position>:<id>} so the keyset can change without breaking clients. Listings
+ * keyed by id alone use {@link #encodeId}/{@link #decodeId}. Anything that does not decode to the expected shape
+ * is rejected with IllegalArgumentException("Invalid cursor"), which the controllers answer with 400.
+ */
+record Cursor(long position, String id) {
+    private static final String INVALID = "Invalid cursor";
+
+    String encode() {
+        return encodeText(position + ":" + id);
+    }
+
+    /**
+     * The cursor, or null for a missing or blank one (the first page).
+     */
+    static Cursor decode(String cursor) {
+        String text = decodeText(cursor);
+        if (text == null) return null;
+        int sep = text.indexOf(':');
+        if (sep <= 0) throw new IllegalArgumentException(INVALID);
+        try {
+            return new Cursor(Long.parseLong(text.substring(0, sep)), text.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    static String encodeId(String id) {
+        return encodeText(id);
+    }
+
+    /**
+     * The id of an id-only cursor, or null for a missing or blank one (the first page).
+     */
+    static String decodeId(String cursor) {
+        String id = decodeText(cursor);
+        if (id != null && id.isEmpty()) throw new IllegalArgumentException(INVALID);
+        return id;
+    }
+
+    private static String encodeText(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeText(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            // a new decoder reports malformed UTF-8 instead of replacing it
+            return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Thin wrapper over the ffmpeg command lines used to build .webp thumbnails.
+ * Only the media job workers call this, so the number of concurrent ffmpeg processes is bounded by the pool size.
+ */
+@Component
+public class FfmpegThumbnailer {
+
+    public void fromVideo(Path inputVideo, Path outputWebp) throws IOException, InterruptedException {
+        // Command: ffmpeg -y -ss 00:00:01 -i input -vframes 1 -vf scale=320:-1 output.webp
+        run(new ProcessBuilder(
+                "ffmpeg", "-y", "-ss", "00:00:01", "-i", inputVideo.toString(),
+                "-vframes", "1", "-vf", "scale=320:-1", outputWebp.toString()
+        ), "ffmpeg");
+    }
+
+    public void fromImage(Path inputImage, Path outputWebp) throws IOException, InterruptedException {
+        run(new ProcessBuilder(
+                "ffmpeg", "-y", "-i", inputImage.toString(), "-vf", "scale=320:-1", outputWebp.toString()
+        ), "ffmpeg (image->webp)");
+    }
+
+    public void createEmptyPlaceholder(Path thumbPath) {
+        try { if (!Files.exists(thumbPath)) Files.createFile(thumbPath); } catch (Exception ignored) {}
+    }
+
+    private void run(ProcessBuilder pb, String label) throws IOException, InterruptedException {
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        try {
+            p.getInputStream().transferTo(OutputStream.nullOutputStream());
+            int code = p.waitFor();
+            if (code != 0) throw new IOException(label + " exited with code " + code);
+        } finally {
+            // never leave an orphaned ffmpeg behind when the worker is interrupted
+            if (p.isAlive()) p.destroyForcibly();
+        }
+    }
+}
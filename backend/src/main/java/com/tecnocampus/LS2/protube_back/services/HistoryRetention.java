@@ -0,0 +1,99 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.VideoView;
+import com.tecnocampus.LS2.protube_back.repository.VideoViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps video_view bounded: every {@code pro_tube.history.retention.interval_ms} it deletes views older than
+ * {@code max_age_days} and, for each user with more than {@code max_per_user} views, the oldest ones past that cap.
+ * Rows go in batches of {@code batch_size} ids, one short transaction each, so the job never holds a long lock
+ * on the table, and the deleted views are dropped from {@link ViewIndex} as they go. A limit of 0 turns that rule
+ * off.
+ */
+@Component
+public class HistoryRetention {
+    private static final Logger LOG = LoggerFactory.getLogger(HistoryRetention.class);
+
+    private static final int DEFAULT_MAX_PER_USER = 1000;
+    private static final int DEFAULT_MAX_AGE_DAYS = 365;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final VideoViewRepository videoViewRepository;
+    private final VideoViewService videoViewService;
+    private final int maxPerUser;
+    private final int maxAgeDays;
+    private final int batchSize;
+
+    public HistoryRetention(VideoViewRepository videoViewRepository, VideoViewService videoViewService, Environment env) {
+        this.videoViewRepository = videoViewRepository;
+        this.videoViewService = videoViewService;
+        this.maxPerUser = property(env, "pro_tube.history.retention.max_per_user", DEFAULT_MAX_PER_USER);
+        this.maxAgeDays = property(env, "pro_tube.history.retention.max_age_days", DEFAULT_MAX_AGE_DAYS);
+        int batch = property(env, "pro_tube.history.retention.batch_size", DEFAULT_BATCH_SIZE);
+        this.batchSize = batch > 0 ? batch : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Apply both rules once. Returns the number of views deleted.
+     */
+    @Scheduled(fixedDelayString = "${pro_tube.history.retention.interval_ms:3600000}",
+            initialDelayString = "${pro_tube.history.retention.interval_ms:3600000}")
+    public long trim() {
+        long deleted = 0;
+        try {
+            if (maxAgeDays > 0) {
+                long cutoff = Instant.now().minus(Duration.ofDays(maxAgeDays)).toEpochMilli();
+                deleted += deleteInBatches(() -> videoViewRepository.findViewedBefore(cutoff, Limit.of(batchSize)));
+            }
+            if (maxPerUser > 0) {
+                for (String userId : videoViewRepository.findUserIdsWithMoreViewsThan(maxPerUser)) {
+                    deleted += trimUser(userId);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("History retention stopped after deleting {} views: {}", deleted, e.getMessage());
+            return deleted;
+        }
+        if (deleted > 0) LOG.info("History retention deleted {} views", deleted);
+        return deleted;
+    }
+
+    // everything from the newest view past the cap backwards, located with a single-row offset query
+    private long trimUser(String userId) {
+        List<VideoView> boundary = videoViewRepository.findByUserIdNewestFirst(userId, PageRequest.of(maxPerUser, 1));
+        if (boundary.isEmpty()) return 0;
+        VideoView first = boundary.get(0);
+        return deleteInBatches(() -> videoViewRepository.findAtOrBefore(
+                userId, first.getViewedAt(), first.getId(), Limit.of(batchSize)));
+    }
+
+    private long deleteInBatches(Supplier<List<VideoView>> nextBatch) {
+        long deleted = 0;
+        List<VideoView> views = nextBatch.get();
+        while (!views.isEmpty()) {
+            videoViewRepository.deleteAllByIdInBatch(views.stream().map(VideoView::getId).toList());
+            videoViewService.unindexViews(views);
+            deleted += views.size();
+            if (views.size() < batchSize) break;
+            views = nextBatch.get();
+        }
+        return deleted;
+    }
+
+    private static int property(Environment env, String name, int defaultValue) {
+        Integer value = env != null ? env.getProperty(name, Integer.class) : null;
+        return value != null ? value : defaultValue;
+    }
+}
@@ -1,26 +1,31 @@
 package com.tecnocampus.LS2.protube_back.services;
 
 import org.springframework.stereotype.Service;
+import com.tecnocampus.LS2.protube_back.repository.IdDictionaries;
 import com.tecnocampus.LS2.protube_back.repository.LikeRepository;
 import com.tecnocampus.LS2.protube_back.domain.Like;
 
 @Service
 public class LikeService {
+    static final int MAX_BATCH = 500;
+
     private final LikeRepository likeRepository;
+    private final ViewIndex viewIndex;
+    private final IdDictionaries ids;
 
-    public LikeService(LikeRepository likeRepository) {
+    public LikeService(LikeRepository likeRepository, ViewIndex viewIndex, IdDictionaries ids) {
         this.likeRepository = likeRepository;
+        this.viewIndex = viewIndex;
+        this.ids = ids;
     }
 
     public boolean isVideoLikedByUser(String userId, String videoId) {
-        return likeRepository.getAllLikes().stream()
-            .anyMatch(like -> like.getUserId().equals(userId) && like.getVideoId().equals(videoId));
+        return likeRepository.isLiked(userId, videoId);
     }
 
     public void likeVideo(String userId, String videoId) {
-        if (!isVideoLikedByUser(userId, videoId)) {
-            likeRepository.addLike(new Like(userId, videoId));
-        }
+        // liking twice (or two racing requests) leaves a single like
+        likeRepository.addLikeIfAbsent(new Like(userId, videoId));
     }
 
     public void unlikeVideo(String userId, String videoId) {
@@ -28,12 +33,28 @@ public class LikeService {
     }
 
     public java.util.List<String> getLikedVideoIdsByUser(String userId) {
-        java.util.List<String> result = new java.util.ArrayList<>();
-        for (Like like : likeRepository.getAllLikes()) {
-            if (like.getUserId().equals(userId)) {
-                result.add(like.getVideoId());
-            }
+        return likeRepository.findVideoIdsByUser(userId);
+    }
+
+    /**
+     * Liked state of each video for the user, in request order, for rendering a whole grid with one call.
+     */
+    public boolean[] areVideosLikedByUser(String userId, java.util.List<String> videoIds) {
+        if (videoIds == null) throw new IllegalArgumentException("videoIds is required");
+        if (videoIds.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH + " videoIds per request");
         }
-        return result;
+        return likeRepository.areLiked(userId, videoIds);
+    }
+
+    /**
+     * Videos the user both liked and watched: an AND of the two bitmaps, no per-video lookups.
+     */
+    public java.util.List<String> getLikedAndWatchedVideoIds(String userId) {
+        return ids.videos().namesOf(likeRepository.likedVideos(userId).and(viewIndex.watchedBy(userId)));
+    }
+
+    public long countLikes(String videoId) {
+        return likeRepository.countByVideo(videoId);
     }
 }
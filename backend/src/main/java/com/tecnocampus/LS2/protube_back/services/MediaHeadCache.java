@@ -0,0 +1,138 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of memory-mapped head segments (moov atom + first GOPs) of the most requested videos.
+ * A file is admitted once it has been asked for {@code min_hits} times and entries are evicted in LRU order
+ * once the mapped bytes exceed the configured budget. Entries are keyed by path and validated against
+ * size and modification time, so a replaced file is remapped instead of served stale.
+ */
+@Component
+public class MediaHeadCache {
+    private static final Logger LOG = LoggerFactory.getLogger(MediaHeadCache.class);
+
+    private static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    private static final int DEFAULT_MIN_HITS = 2;
+    // how many not-yet-admitted files we remember hit counts for
+    private static final int CANDIDATE_LIMIT = 1024;
+
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final int minHits;
+
+    // access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<Path, Integer> candidates = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Integer> eldest) {
+            return size() > CANDIDATE_LIMIT;
+        }
+    };
+    private long usedBytes;
+
+    private record Entry(long size, long lastModified, MappedByteBuffer head) {}
+
+    public MediaHeadCache(Environment env) {
+        this.segmentBytes = property(env, "pro_tube.media.head_cache.segment_bytes", DEFAULT_SEGMENT_BYTES);
+        this.maxBytes = property(env, "pro_tube.media.head_cache.max_bytes", DEFAULT_MAX_BYTES);
+        this.minHits = (int) property(env, "pro_tube.media.head_cache.min_hits", DEFAULT_MIN_HITS);
+    }
+
+    private static long property(Environment env, String key, long fallback) {
+        Long value = env != null ? env.getProperty(key, Long.class) : null;
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Return a read-only view of the cached head of {@code file}, mapping it if the file has become hot.
+     * Returns null when caching is disabled, the file is not hot yet or it could not be mapped.
+     */
+    public ByteBuffer head(Path file, long size, long lastModified) {
+        if (maxBytes <= 0 || segmentBytes <= 0 || size <= 0) return null;
+        long headLength = Math.min(size, segmentBytes);
+        if (headLength > maxBytes) return null;
+
+        synchronized (this) {
+            Entry cached = entries.get(file);
+            if (cached != null) {
+                if (cached.size() == size && cached.lastModified() == lastModified) {
+                    return cached.head().asReadOnlyBuffer();
+                }
+                entries.remove(file);
+                usedBytes -= cached.head().capacity();
+            }
+            int hits = candidates.merge(file, 1, Integer::sum);
+            if (hits < minHits) return null;
+            candidates.remove(file);
+        }
+
+        // map outside the lock: loading a few MB from disk must not stall every other request
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, headLength);
+            mapped.load();
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.warn("Could not map head of {}: {}", file, e.getMessage());
+            return null;
+        }
+
+        synchronized (this) {
+            Entry raced = entries.get(file);
+            if (raced != null && raced.size() == size && raced.lastModified() == lastModified) {
+                return raced.head().asReadOnlyBuffer();
+            }
+            if (raced != null) usedBytes -= raced.head().capacity();
+            entries.put(file, new Entry(size, lastModified, mapped));
+            usedBytes += mapped.capacity();
+            evictOverBudget();
+        }
+        return mapped.asReadOnlyBuffer();
+    }
+
+    public long segmentBytes() {
+        return maxBytes > 0 ? segmentBytes : 0;
+    }
+
+    public synchronized void invalidate(Path file) {
+        Entry removed = entries.remove(file);
+        if (removed != null) usedBytes -= removed.head().capacity();
+        candidates.remove(file);
+    }
+
+    synchronized boolean contains(Path file) {
+        return entries.containsKey(file);
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Path, Entry> eldest = it.next();
+            // the mapping itself is released once the buffer becomes unreachable
+            usedBytes -= eldest.getValue().head().capacity();
+            it.remove();
+        }
+    }
+}
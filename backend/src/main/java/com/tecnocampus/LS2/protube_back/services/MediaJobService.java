@@ -0,0 +1,176 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.repository.MediaJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs ffmpeg thumbnail jobs on a fixed pool of workers (one per core by default).
+ * Jobs are persisted through {@link MediaJobRepository} before being queued, ordered by priority and then
+ * submission order, retried with a linear backoff and re-queued on startup if the process died mid-flight.
+ */
+@Service
+public class MediaJobService {
+    private static final Logger LOG = LoggerFactory.getLogger(MediaJobService.class);
+
+    private final MediaJobRepository repository;
+    private final FfmpegThumbnailer thumbnailer;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    // tie-breaker so jobs of the same priority run in submission order
+    private final AtomicLong sequence = new AtomicLong();
+
+    public MediaJobService(MediaJobRepository repository, FfmpegThumbnailer thumbnailer, Environment env) {
+        this.repository = repository;
+        this.thumbnailer = thumbnailer;
+        int workers = property(env, "pro_tube.media.jobs.workers", Runtime.getRuntime().availableProcessors());
+        this.maxAttempts = property(env, "pro_tube.media.jobs.max_attempts", 3);
+        this.retryDelayMs = property(env, "pro_tube.media.jobs.retry_delay_ms", 2000);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                Math.max(1, workers), Math.max(1, workers), 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "media-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    private static int property(Environment env, String key, int fallback) {
+        Integer value = env != null ? env.getProperty(key, Integer.class) : null;
+        return value != null ? value : fallback;
+    }
+
+    @PostConstruct
+    public void recover() {
+        for (MediaJob job : repository.findUnfinished()) {
+            LOG.info("Re-queueing media job {} ({}) left {} by the previous run", job.getId(), job.getType(), job.getStatus());
+            job.setStatus(MediaJob.Status.PENDING);
+            repository.save(job);
+            dispatch(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // queued jobs are persisted as PENDING and picked up again by recover() on the next start
+        executor.shutdownNow();
+    }
+
+    public MediaJob submit(MediaJob job) {
+        if (job == null) throw new IllegalArgumentException("job is null");
+        if (job.getPriority() == null) job.setPriority(MediaJob.Priority.BACKFILL);
+        job.setStatus(MediaJob.Status.PENDING);
+        repository.save(job);
+        dispatch(job);
+        return job;
+    }
+
+    public Optional<MediaJob> findById(String id) {
+        return repository.findById(id);
+    }
+
+    public Optional<MediaJob> findLatestByVideoFileName(String videoFileName) {
+        return repository.findLatestByVideoFileName(videoFileName);
+    }
+
+    private void dispatch(MediaJob job) {
+        if (!executor.isShutdown()) {
+            executor.execute(new Task(job, sequence.incrementAndGet()));
+        }
+    }
+
+    void run(MediaJob job) {
+        job.setAttempts(job.getAttempts() + 1);
+        job.setStatus(MediaJob.Status.RUNNING);
+        repository.save(job);
+        Path output = Paths.get(job.getOutput());
+        try {
+            execute(job, output);
+            job.setError(null);
+            job.setStatus(MediaJob.Status.DONE);
+            cleanUp(job);
+        } catch (InterruptedException e) {
+            // shutting down: leave it PENDING so the next start picks it up
+            Thread.currentThread().interrupt();
+            job.setStatus(MediaJob.Status.PENDING);
+        } catch (Exception e) {
+            job.setError(e.getMessage());
+            if (job.getAttempts() < maxAttempts) {
+                LOG.warn("Media job {} failed (attempt {}/{}): {}", job.getId(), job.getAttempts(), maxAttempts, e.getMessage());
+                job.setStatus(MediaJob.Status.PENDING);
+                CompletableFuture.delayedExecutor(retryDelayMs * job.getAttempts(), TimeUnit.MILLISECONDS)
+                        .execute(() -> dispatch(job));
+            } else {
+                LOG.error("Media job {} failed permanently: {}", job.getId(), e.getMessage());
+                job.setStatus(MediaJob.Status.FAILED);
+                thumbnailer.createEmptyPlaceholder(output);
+                cleanUp(job);
+            }
+        }
+        repository.save(job);
+    }
+
+    private void execute(MediaJob job, Path output) throws Exception {
+        if (job.getType() == MediaJob.Type.IMAGE_THUMBNAIL) {
+            try {
+                thumbnailer.fromImage(Paths.get(job.getInput()), output);
+                return;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception ex) {
+                if (job.getFallbackInput() == null) throw ex;
+                // unreadable image: use a frame of the video instead
+            }
+            thumbnailer.fromVideo(Paths.get(job.getFallbackInput()), output);
+            return;
+        }
+        thumbnailer.fromVideo(Paths.get(job.getInput()), output);
+    }
+
+    private void cleanUp(MediaJob job) {
+        if (job.getType() == MediaJob.Type.IMAGE_THUMBNAIL && job.getInput() != null) {
+            // the uploaded image was copied to a scratch file just for this job
+            try { Files.deleteIfExists(Paths.get(job.getInput())); } catch (Exception ignored) {}
+        }
+    }
+
+    private final class Task implements Runnable, Comparable<Task> {
+        private final MediaJob job;
+        private final long seq;
+
+        Task(MediaJob job, long seq) {
+            this.job = job;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            MediaJobService.this.run(job);
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
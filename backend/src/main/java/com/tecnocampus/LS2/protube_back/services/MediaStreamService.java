@@ -0,0 +1,278 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Serves files from the store directory with HTTP Range support.
+ * When the connector supports sendfile a single region is handed to it and the kernel copies the bytes, so the
+ * JVM never touches the video data. Otherwise (and for multipart/byteranges responses) bytes go through
+ * FileChannel.transferTo into the servlet output stream, which copies them through a small heap buffer.
+ * The head of a hot video is kept memory-mapped in {@link MediaHeadCache}: regions that fit entirely inside it
+ * are answered from the mapping, and on the copying paths so is the part of any read that starts inside it.
+ * <p>
+ * The store directory also holds private state (upload parts, job files, comment/like/view logs and snapshots),
+ * so only videos, images and the info JSON next to a video are served; anything under a dot-directory is not.
+ */
+@Service
+public class MediaStreamService {
+
+    // Tomcat request attributes used to delegate a single region to the connector's sendfile support
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // more ranges than this is not a player seeking, it is someone trying to make us do a lot of small writes
+    private static final int MAX_RANGES = 16;
+
+    private static final Set<String> VIDEO_EXTENSIONS = Set.of("mp4", "m4v", "webm", "mkv", "mov", "ogv");
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("webp", "jpg", "jpeg", "png");
+
+    private final Path storeBase;
+    private final MediaHeadCache headCache;
+
+    public MediaStreamService(Environment env, MediaHeadCache headCache) {
+        this.headCache = headCache;
+        String configured = env != null ? env.getProperty("pro_tube.store.dir") : null;
+        Path base = (configured != null && !configured.isBlank())
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.dir"), "..", "store");
+        this.storeBase = base.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolve a path relative to the store directory. Returns null when it escapes the store, is not a media file
+     * or a video's info JSON, or is not a readable file.
+     */
+    public Path resolve(String relativePath) {
+        if (relativePath == null || relativePath.isBlank()) return null;
+        Path candidate = storeBase.resolve(relativePath).normalize();
+        if (!candidate.startsWith(storeBase) || candidate.equals(storeBase)) return null;
+        for (Path segment : storeBase.relativize(candidate)) {
+            // .uploads, .incoming, .media-jobs and any other hidden file stay private
+            if (segment.toString().startsWith(".")) return null;
+        }
+        if (!isPublic(candidate)) return null;
+        if (!Files.isRegularFile(candidate) || !Files.isReadable(candidate)) return null;
+        return candidate;
+    }
+
+    private static boolean isPublic(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) return false;
+        String baseName = name.substring(0, dot);
+        String ext = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (VIDEO_EXTENSIONS.contains(ext) || IMAGE_EXTENSIONS.contains(ext)) return true;
+        // yt-dlp writes <base>.json next to <base>.mp4; state files (comments.json, *.snapshot.json) have no video
+        if (!"json".equals(ext) || baseName.contains(".")) return false;
+        for (String videoExt : VIDEO_EXTENSIONS) {
+            if (Files.isRegularFile(file.resolveSibling(baseName + "." + videoExt))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Write the file (or the requested ranges of it) to the response: 200 for the whole file,
+     * 206 for one or more satisfiable ranges and 416 when none of the requested ranges can be served.
+     */
+    public void serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        boolean headOnly = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        List<long[]> ranges = null;
+        if (rangeHeader != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+        }
+        if (ranges == null) {
+            // no range, a stale If-Range or a malformed header: RFC 9110 says to send the whole representation
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!headOnly) writeRegion(file, length, lastModified, 0, length, request, response);
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!headOnly) writeRegion(file, length, lastModified, start, end - start + 1, request, response);
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (long[] r : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + r[0] + "-" + r[1] + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            total += header.length + (r[1] - r[0] + 1);
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        total += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if (headOnly) return;
+
+        ByteBuffer head = head(file, length, lastModified, ranges.get(0)[0]);
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] r = ranges.get(i);
+                out.write(partHeaders.get(i));
+                copy(channel, head, r[0], r[1] - r[0] + 1, target);
+            }
+        }
+        out.write(closing);
+        out.flush();
+    }
+
+    /**
+     * Parse a Range header into inclusive [start, end] pairs clamped to the file length.
+     * Returns null when the header is malformed and an empty list when no range is satisfiable.
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        List<HttpRange> parsed;
+        try {
+            parsed = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (parsed.isEmpty() || parsed.size() > MAX_RANGES) return null;
+        List<long[]> out = new ArrayList<>(parsed.size());
+        for (HttpRange range : parsed) {
+            try {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start <= end) out.add(new long[]{start, end});
+            } catch (IllegalArgumentException unsatisfiable) {
+                // start beyond the end of the file: skip it, the rest may still be served
+            }
+        }
+        return out;
+    }
+
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null || ifRange.isBlank()) return true;
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return lastModified / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private ByteBuffer head(Path file, long length, long lastModified, long firstByte) {
+        if (headCache == null || firstByte >= headCache.segmentBytes()) return null;
+        return headCache.head(file, length, lastModified);
+    }
+
+    private void writeRegion(Path file, long length, long lastModified, long start, long count,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (count <= 0) return;
+        boolean sendfile = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR));
+        // with sendfile available the mapped head only wins for regions it covers entirely; anything longer
+        // (the whole file, an open-ended bytes=0-) goes to the connector in one piece
+        boolean headCovers = headCache != null && start + count <= headCache.segmentBytes();
+        ByteBuffer head = !sendfile || headCovers ? head(file, length, lastModified, start) : null;
+        if (sendfile && (head == null || start + count > head.capacity())) {
+            // Tomcat performs the sendfile after the servlet returns; it only needs the region and a content length
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            copy(channel, head, start, count, Channels.newChannel(out));
+        }
+        out.flush();
+    }
+
+    private static void copy(FileChannel channel, ByteBuffer head, long start, long count, WritableByteChannel target) throws IOException {
+        long position = start;
+        long remaining = count;
+        if (head != null && position < head.capacity()) {
+            int from = (int) position;
+            int to = (int) Math.min(head.capacity(), position + remaining);
+            ByteBuffer slice = head.duplicate().position(from).limit(to);
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            position = to;
+            remaining -= to - from;
+        }
+        if (remaining > 0) transfer(channel, position, remaining, target);
+    }
+
+    private static void transfer(FileChannel channel, long start, long count, WritableByteChannel target) throws IOException {
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                // the file shrank underneath us; better to cut the response than to spin
+                throw new EOFException("Unexpected end of file at offset " + position);
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Issues and checks the session tokens handed out at login. A token is
+ * {@code base64url(userId) "." expiry "." base64url(HMAC-SHA256(first two parts))}, with the expiry in epoch
+ * seconds, so checking one is a single MAC over a few dozen bytes and never touches the user store.
+ * <p>
+ * The key comes from {@code pro_tube.auth.token_secret}; without one a random key is generated at startup and
+ * tokens stop being valid when the process restarts.
+ */
+@Service
+public class TokenService {
+    private static final Logger LOG = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final long DEFAULT_TTL_HOURS = 24;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final Clock clock;
+    // Mac instances are not thread-safe; each thread keeps one initialized with the key
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(Environment env) {
+        this(secret(env), ttlHours(env) * 3600, Clock.systemUTC());
+    }
+
+    TokenService(byte[] secret, long ttlSeconds, Clock clock) {
+        if (secret == null || secret.length == 0) throw new IllegalArgumentException("token secret is empty");
+        if (ttlSeconds <= 0) throw new IllegalArgumentException("token ttl must be positive");
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * A token for userId that is valid for the configured time to live.
+     */
+    public String issue(String userId) {
+        if (userId == null || userId.isBlank()) throw new IllegalArgumentException("userId is required");
+        long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+        String payload = ENCODER.encodeToString(userId.getBytes(StandardCharsets.UTF_8)) + "." + expiresAt;
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * The user id carried by token, or null when the token is malformed, was not signed with our key or has expired.
+     */
+    public String verify(String token) {
+        if (token == null) return null;
+        int lastDot = token.lastIndexOf('.');
+        int firstDot = token.indexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot + 1 || lastDot == token.length() - 1) return null;
+        String payload = token.substring(0, lastDot);
+        try {
+            byte[] expected = sign(payload);
+            byte[] actual = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) return null;
+            long expiresAt = Long.parseLong(token.substring(firstDot + 1, lastDot));
+            if (clock.instant().getEpochSecond() >= expiresAt) return null;
+            return new String(DECODER.decode(token.substring(0, firstDot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // bad base64 or expiry
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] secret(Environment env) {
+        String configured = env != null ? env.getProperty("pro_tube.auth.token_secret") : null;
+        if (configured != null && !configured.isBlank()) return configured.getBytes(StandardCharsets.UTF_8);
+        LOG.warn("pro_tube.auth.token_secret is not set; using a random key, sessions end when the server restarts");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    private static long ttlHours(Environment env) {
+        Long hours = env != null ? env.getProperty("pro_tube.auth.token_ttl_hours", Long.class) : null;
+        return hours != null ? hours : DEFAULT_TTL_HOURS;
+    }
+}
@@ -31,17 +31,21 @@ public class UserService {
 
     public void register(String username, String email, String password) {
         try {
-            if (repository.findByEmail(email).isPresent()) {
+            if (username != null && username.startsWith(YtCommentImporter.AUTHOR_PREFIX)) {
+                // reserved for the authors of imported YouTube comments
+                throw new RuntimeException("Error: el nombre de usuario no puede empezar por '" + YtCommentImporter.AUTHOR_PREFIX + "'.");
+            }
+            User newUser = new User(username, email, password);
+            // checked and inserted in one step, so two concurrent registrations cannot both take the same email
+            UserRepository.InsertResult result = repository.insert(newUser);
+            if (result == UserRepository.InsertResult.EMAIL_TAKEN) {
                 System.out.println("Error: ya existe un usuario con ese correo.");
                 throw new RuntimeException("Error: ya existe un usuario con ese correo.");
             }
-            if (repository.findByUsername(username).isPresent()) {
+            if (result == UserRepository.InsertResult.USERNAME_TAKEN) {
                 System.out.println("Error: ya existe un usuario con ese nombre de usuario.");
                 throw new RuntimeException("Error: ya existe un usuario con ese nombre de usuario.");
             }
-
-            User newUser = new User(username, email, password);
-            repository.save(newUser);
             System.out.println("Usuario registrado con éxito. ID: " + newUser.getId());
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
@@ -0,0 +1,169 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoSummaryDTO;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory catalog of one summary per video: entity fields plus what the info JSON next to the file says
+ * (channel, counts, duration, tags), and the poster URL. Summaries are built when a video is ingested, so
+ * listing the catalog never touches the database or the disk. A summary carries at most the first
+ * {@value #DESCRIPTION_PREVIEW} characters of the description; the full text is a per-video request.
+ * <p>
+ * Reads vastly outnumber writes, so the catalog is copy-on-write: every change publishes a new immutable
+ * snapshot and readers just take the current one. Videos are listed in the order they were first added;
+ * replacing a summary keeps its place.
+ */
+@Component
+public class VideoCatalog {
+    private static final Logger LOG = LoggerFactory.getLogger(VideoCatalog.class);
+
+    static final int DESCRIPTION_PREVIEW = 200;
+
+    public record Snapshot(long version, List<VideoSummaryDTO> videos) {}
+
+    private final VideoRepository videoRepository;
+    private final VideoMetadataReader metadataReader;
+    private final Path storeBase;
+
+    // videoId -> summary in listing order; guarded by this
+    private final Map<String, VideoSummaryDTO> summaries = new LinkedHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    public VideoCatalog(VideoRepository videoRepository, VideoMetadataReader metadataReader, Environment env) {
+        this.videoRepository = videoRepository;
+        this.metadataReader = metadataReader;
+        String configured = env != null ? env.getProperty("pro_tube.store.dir") : null;
+        Path base = (configured != null && !configured.isBlank())
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.dir"), "..", "store");
+        this.storeBase = base.toAbsolutePath().normalize();
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public List<VideoSummaryDTO> list() {
+        return snapshot.videos();
+    }
+
+    /**
+     * Add or replace the summary of a video. metadata may be null, in which case the info JSON is read here.
+     */
+    public void put(Video video, VideoMetadataReader.VideoMetadata metadata) {
+        if (video == null || video.getVideoId() == null) return;
+        VideoSummaryDTO summary = summarize(video, metadata != null ? metadata : readMetadata(video.getFileName()));
+        synchronized (this) {
+            summaries.put(summary.videoId(), summary);
+            publish();
+        }
+    }
+
+    /**
+     * Add many videos with a single snapshot swap. Videos missing from metadataByVideoId have their JSON read
+     * in parallel.
+     */
+    public void putAll(Collection<Video> videos, Map<String, VideoMetadataReader.VideoMetadata> metadataByVideoId) {
+        List<VideoSummaryDTO> added = videos.parallelStream()
+                .filter(v -> v != null && v.getVideoId() != null)
+                .map(v -> {
+                    VideoMetadataReader.VideoMetadata meta = metadataByVideoId.get(v.getVideoId());
+                    return summarize(v, meta != null ? meta : readMetadata(v.getFileName()));
+                })
+                .toList();
+        synchronized (this) {
+            for (VideoSummaryDTO summary : added) summaries.put(summary.videoId(), summary);
+            publish();
+        }
+    }
+
+    public synchronized void remove(String videoId) {
+        if (videoId == null || summaries.remove(videoId) == null) return;
+        publish();
+    }
+
+    // videos persisted by an earlier run (file-backed database) were never ingested by this process
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadMissing() {
+        List<Video> missing;
+        synchronized (this) {
+            missing = videoRepository.findAll().stream()
+                    .filter(v -> !summaries.containsKey(v.getVideoId()))
+                    .toList();
+        }
+        if (missing.isEmpty()) return;
+        putAll(missing, Map.of());
+        LOG.info("Catalog loaded {} videos", missing.size());
+    }
+
+    // callers hold this
+    private void publish() {
+        snapshot = new Snapshot(snapshot.version() + 1, List.copyOf(summaries.values()));
+    }
+
+    private VideoMetadataReader.VideoMetadata readMetadata(String fileName) {
+        if (fileName == null) return null;
+        Path json = storeBase.resolve(baseName(fileName) + ".json").normalize();
+        if (!json.startsWith(storeBase) || !Files.isRegularFile(json)) return null;
+        try {
+            return metadataReader.read(json);
+        } catch (IOException e) {
+            LOG.warn("Could not read metadata {}: {}", json, e.getMessage());
+            return null;
+        }
+    }
+
+    static VideoSummaryDTO summarize(Video video, VideoMetadataReader.VideoMetadata meta) {
+        String fileName = video.getFileName();
+        String posterUrl = posterUrlFor(fileName);
+        String description = preview(video.getDescription());
+        if (meta == null) {
+            return new VideoSummaryDTO(video.getVideoId(), video.getUserId(), video.getTitle(), description,
+                    fileName, posterUrl, null, null, null, null, List.of(), List.of());
+        }
+        return new VideoSummaryDTO(video.getVideoId(), video.getUserId(), video.getTitle(), description,
+                fileName, posterUrl, meta.channel(), meta.viewCount(), meta.likeCount(), meta.duration(),
+                meta.tags(), meta.categories());
+    }
+
+    /**
+     * The description cut to {@value #DESCRIPTION_PREVIEW} characters (never inside a surrogate pair) plus an
+     * ellipsis when it is longer.
+     */
+    static String preview(String description) {
+        if (description == null || description.length() <= DESCRIPTION_PREVIEW) return description;
+        int end = DESCRIPTION_PREVIEW;
+        if (Character.isHighSurrogate(description.charAt(end - 1))) end--;
+        return description.substring(0, end) + "\u2026";
+    }
+
+    /**
+     * Server-relative URL of the poster (thumbnail) served for a stored video file.
+     */
+    public static String posterUrlFor(String fileName) {
+        if (fileName == null) return null;
+        return "/media/" + UriUtils.encodePath(baseName(fileName) + ".webp", StandardCharsets.UTF_8);
+    }
+
+    static String baseName(String fileName) {
+        return fileName.replaceFirst("\\.[^.]+$", "");
+    }
+}
@@ -0,0 +1,209 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pulls the few fields we keep out of a video's info JSON with Jackson's streaming parser.
+ * Those files are mostly formats, thumbnails and (with --write-comments) comment threads we never use here;
+ * they are skipped token by token instead of being materialized into maps. The factory is thread-safe,
+ * so one reader serves every thread.
+ * <p>
+ * Both layouts in the store are understood: the raw yt-dlp info JSON, where every field is top-level, and the
+ * videoGrabber output, where most of them sit in a "meta" object. A value found in "meta" wins.
+ * {@link #readComments} walks the comment thread itself, one comment at a time.
+ */
+@Component
+public class VideoMetadataReader {
+
+    /**
+     * Extracted metadata; any field may be null when the file does not have it. Lists are never null.
+     */
+    public record VideoMetadata(String title, String description, Double duration, Long viewCount, Long likeCount,
+                                String channel, List<String> tags, List<String> categories) {}
+
+    /**
+     * One comment of the info JSON. The videoGrabber layout keeps only text, author, timestamp and likes,
+     * so id is null there; timestamp is in epoch seconds.
+     */
+    public record InfoComment(String id, String text, String author, Long timestamp) {}
+
+    private final JsonFactory factory = new JsonFactory();
+
+    public VideoMetadata read(Path file) throws IOException {
+        Fields top = new Fields();
+        Fields meta = new Fields();
+        try (JsonParser parser = factory.createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in " + file.getFileName());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("meta".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String metaField = parser.currentName();
+                        meta.read(metaField, parser, parser.nextToken());
+                    }
+                } else {
+                    top.read(field, parser, value);
+                }
+            }
+        }
+        return new VideoMetadata(
+                first(meta.title, top.title),
+                first(meta.description, top.description),
+                first(meta.duration, top.duration),
+                first(meta.viewCount, top.viewCount),
+                first(meta.likeCount, top.likeCount),
+                first(meta.channel, top.channel),
+                first(meta.tags, top.tags, List.of()),
+                first(meta.categories, top.categories, List.of()));
+    }
+
+    /**
+     * Pass up to limit comments ("comments" at the top level or in "meta") to sink in file order and return how
+     * many were passed. Only the current comment is held in memory; reading stops as soon as limit is reached.
+     * Comments without text are skipped.
+     */
+    public int readComments(Path file, int limit, Consumer<InfoComment> sink) throws IOException {
+        int count = 0;
+        try (JsonParser parser = factory.createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in " + file.getFileName());
+            }
+            while (count < limit && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("comments".equals(field)) {
+                    count += comments(parser, value, limit - count, sink);
+                } else if ("meta".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (count < limit && parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String metaField = parser.currentName();
+                        JsonToken metaValue = parser.nextToken();
+                        if ("comments".equals(metaField)) {
+                            count += comments(parser, metaValue, limit - count, sink);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return count;
+    }
+
+    // leaves the parser inside the array when limit is reached; the caller stops reading then
+    private static int comments(JsonParser parser, JsonToken value, int limit, Consumer<InfoComment> sink) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+        int count = 0;
+        JsonToken element;
+        while (count < limit && (element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String id = null;
+            String text = null;
+            String author = null;
+            Long timestamp = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "id" -> id = text(parser, fieldValue);
+                    case "text" -> text = text(parser, fieldValue);
+                    case "author" -> author = text(parser, fieldValue);
+                    case "timestamp" -> timestamp = count(parser, fieldValue);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (text == null || text.isBlank()) continue;
+            sink.accept(new InfoComment(id, text, author, timestamp));
+            count++;
+        }
+        return count;
+    }
+
+    @SafeVarargs
+    private static <T> T first(T... values) {
+        for (T value : values) {
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // the fields of one JSON object level; anything we do not know is skipped without being parsed into objects
+    private static final class Fields {
+        String title;
+        String description;
+        Double duration;
+        Long viewCount;
+        Long likeCount;
+        String channel;
+        List<String> tags;
+        List<String> categories;
+
+        void read(String field, JsonParser parser, JsonToken value) throws IOException {
+            switch (field) {
+                case "title" -> title = text(parser, value);
+                case "description" -> description = text(parser, value);
+                case "duration" -> duration = number(parser, value);
+                case "view_count" -> viewCount = count(parser, value);
+                case "like_count" -> likeCount = count(parser, value);
+                case "channel" -> channel = text(parser, value);
+                case "tags" -> tags = strings(parser, value);
+                case "categories" -> categories = strings(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) return parser.getText();
+        return skip(parser);
+    }
+
+    private static Double number(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isNumeric()) return parser.getDoubleValue();
+        return skip(parser);
+    }
+
+    private static Long count(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) return parser.getLongValue();
+        if (value == JsonToken.VALUE_NUMBER_FLOAT) return (long) parser.getDoubleValue();
+        return skip(parser);
+    }
+
+    private static List<String> strings(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) return skip(parser);
+        List<String> out = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element == JsonToken.VALUE_STRING) {
+                out.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return List.copyOf(out);
+    }
+
+    private static <T> T skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -1,33 +1,74 @@
 package com.tecnocampus.LS2.protube_back.services;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoListItemDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
 import com.tecnocampus.LS2.protube_back.controller.mapper.VideoMapper;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.domain.VideoOwner;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItem;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItemWithDescription;
+import com.tecnocampus.LS2.protube_back.repository.VideoOwnerRepository;
 import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
 import com.tecnocampus.LS2.protube_back.domain.Video;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class VideoService {
+    private static final Logger LOG = LoggerFactory.getLogger(VideoService.class);
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * A registered video plus the job building its thumbnail: the one queued for it, or the one already
+     * pending for the same content. null when the thumbnail already exists. duplicateOf is the id of the video
+     * the content was already registered as, whose title and description video then carries, or null when the
+     * upload created a new video.
+     */
+    public record StoredVideo(videoSaveDTO video, MediaJob thumbnailJob, String duplicateOf) {
+        public StoredVideo(videoSaveDTO video, MediaJob thumbnailJob) {
+            this(video, thumbnailJob, null);
+        }
+    }
 
     private final VideoRepository videoRepository;
+    private final VideoOwnerRepository videoOwnerRepository;
+    private final MediaJobService mediaJobService;
+    private final ContentStore contentStore;
+    private final VideoCatalog videoCatalog;
+    private final ViewCounter viewCounter;
     private final Path storeBase;
 
-    public VideoService(VideoRepository videoRepository, Environment env) {
+    public VideoService(VideoRepository videoRepository, VideoOwnerRepository videoOwnerRepository,
+                        MediaJobService mediaJobService, ContentStore contentStore, VideoCatalog videoCatalog,
+                        ViewCounter viewCounter, Environment env) {
         this.videoRepository = videoRepository;
+        this.videoOwnerRepository = videoOwnerRepository;
+        this.mediaJobService = mediaJobService;
+        this.contentStore = contentStore;
+        this.videoCatalog = videoCatalog;
+        this.viewCounter = viewCounter;
         String configured = env != null ? env.getProperty("pro_tube.store.dir") : null;
         Path base = (configured != null && !configured.isBlank())
                 ? Paths.get(configured)
@@ -50,16 +91,79 @@ public class VideoService {
 
     public Video saveVideo(Video video) {
         if (video == null) throw new IllegalArgumentException("video is null");
-        return videoRepository.save(video);
+        Video saved = videoRepository.save(video);
+        videoCatalog.put(saved, null);
+        return saved;
+    }
+
+    /**
+     * Insert new videos in one batched transaction (bulk ingest). Existing rows must go through saveVideo.
+     */
+    public List<Video> saveAll(List<Video> videos) {
+        return saveAll(videos, Map.of());
+    }
+
+    /**
+     * Same as {@link #saveAll(List)}, reusing metadata the caller already parsed (keyed by video id) for the catalog.
+     */
+    public List<Video> saveAll(List<Video> videos, Map<String, VideoMetadataReader.VideoMetadata> metadataByVideoId) {
+        if (videos == null) throw new IllegalArgumentException("videos is null");
+        videoRepository.insertAll(videos);
+        videoCatalog.putAll(videos, metadataByVideoId);
+        return videos;
     }
 
     public boolean deleteVideo(String id) {
+        return deleteVideo(id, null);
+    }
+
+    /**
+     * Delete the video on behalf of userId (null: its uploader). Content uploaded by several users stays until
+     * the last of them deletes it: a co-owner is just dropped, and when the uploader deletes it the oldest
+     * co-owner takes the video over. Only then are the row and, once nothing else refers to it, the blob removed.
+     * Returns false when there is no such video; throws IllegalStateException when userId does not own it.
+     */
+    public boolean deleteVideo(String id, String userId) {
         if (id == null) return false;
-        var existing = videoRepository.findById(id);
-        if (existing.isEmpty()) {
-            return false;
+        Video video = videoRepository.findById(id).orElse(null);
+        if (video == null) return false;
+        String fileName = video.getFileName();
+        if (!ContentStore.isContentAddressed(fileName)) {
+            if (userId != null && !userId.equals(video.getUserId())) {
+                throw new IllegalStateException("Only an owner can delete this video");
+            }
+            videoCatalog.remove(id);
+            videoRepository.deleteById(id);
+            viewCounter.forget(fileName);
+            return true;
+        }
+        // same lock as uploads of this content, so a concurrent duplicate upload cannot land on a deleted blob
+        synchronized (contentStore.lockFor(fileName)) {
+            List<VideoOwner> coOwners = videoOwnerRepository.findByVideoIdOrderByAddedAtAsc(id);
+            if (userId != null && !userId.equals(video.getUserId())) {
+                VideoOwner coOwner = coOwners.stream().filter(o -> userId.equals(o.getUserId())).findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Only an owner can delete this video"));
+                videoOwnerRepository.delete(coOwner);
+                return true;
+            }
+            if (!coOwners.isEmpty()) {
+                VideoOwner next = coOwners.get(0);
+                video.setUserId(next.getUserId());
+                saveVideo(video);
+                videoOwnerRepository.delete(next);
+                return true;
+            }
+            videoCatalog.remove(id);
+            videoRepository.deleteById(id);
+            viewCounter.forget(fileName);
+            if (videoRepository.countByFileName(fileName) == 0) {
+                try {
+                    contentStore.delete(fileName);
+                } catch (IOException e) {
+                    LOG.warn("Could not delete unreferenced blob {}: {}", fileName, e.getMessage());
+                }
+            }
         }
-        videoRepository.deleteById(id);
         return true;
     }
 
@@ -67,100 +171,189 @@ public class VideoService {
         return videoRepository.findAll();
     }
 
-    // Upload + persist using DTO meta; writes thumbnail .webp (generated or from uploaded image)
-    public videoSaveDTO uploadAndSave(MultipartFile file, MultipartFile thumbnail, videoSaveDTO meta, boolean published) throws IOException {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("No file provided");
+    /**
+     * One page of the listing in id order. cursor is the nextCursor of the previous page (null for the first);
+     * the description is only loaded when asked for. nextCursor is null on the last page.
+     */
+    public VideoPageDTO listPage(String cursor, Integer limit, boolean withDescription) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
         }
+        String after = Cursor.decodeId(cursor);
+        // one extra row tells us whether there is a next page without a count query
+        Limit fetch = Limit.of(size + 1);
+        Class<? extends VideoListItem> type = withDescription ? VideoListItemWithDescription.class : VideoListItem.class;
+        List<? extends VideoListItem> rows = after == null
+                ? videoRepository.findAllByOrderByVideoIdAsc(fetch, type)
+                : videoRepository.findByVideoIdGreaterThanOrderByVideoIdAsc(after, fetch, type);
 
-        // sanitize original filename
-        String name = file.getOriginalFilename();
-        if (name == null || name.isBlank()) {
-            name = "video.mp4";
-        }
-        String original = StringUtils.cleanPath(name);
-        if (original.contains("..")) {
-            throw new IllegalArgumentException("Invalid filename");
+        boolean hasMore = rows.size() > size;
+        List<? extends VideoListItem> page = hasMore ? rows.subList(0, size) : rows;
+        List<VideoListItemDTO> items = page.stream()
+                .map(row -> new VideoListItemDTO(row.getVideoId(), row.getTitle(), row.getFileName(), row.getUserId(),
+                        VideoCatalog.posterUrlFor(row.getFileName()),
+                        row instanceof VideoListItemWithDescription d ? d.getDescription() : null))
+                .toList();
+        String next = hasMore ? Cursor.encodeId(items.get(items.size() - 1).videoId()) : null;
+        return new VideoPageDTO(items, next);
+    }
+
+    // Upload + persist using DTO meta; the file is hashed while it streams into the store and identical
+    // content is stored (and registered) once. The thumbnail .webp (generated or from uploaded image) is built by a media job
+    public StoredVideo uploadAndSave(MultipartFile file, MultipartFile thumbnail, videoSaveDTO meta, boolean published) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("No file provided");
         }
 
-        // derive metadata from DTO (with defaults)
-        String userId = meta != null && meta.userId() != null ? meta.userId() : "unknown";
-        String title = meta != null && meta.title() != null && !meta.title().isBlank() ? meta.title() : original;
-        String description = meta != null && meta.description() != null ? meta.description() : "";
+        String original = sanitizeOriginalName(file.getOriginalFilename());
 
         // ensure store base exists
         Path storeDir = this.storeBase;
         Files.createDirectories(storeDir);
 
-        // persist with unique stored filename
-        String storedFileName = UUID.randomUUID().toString() + "_" + original;
-        Path target = storeDir.resolve(storedFileName);
-
-        try (InputStream in = file.getInputStream()) {
-            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
-        }
-
-        // build and save entity (repository contains metadata; fileName points to stored video file name)
-        Video toSave = new Video(userId, title, description, storedFileName);
-        Video saved = saveVideo(toSave);
-
-        // Thumbnail logic (uploaded OR auto-generated)
-        String baseName = storedFileName.replaceFirst("\\.[^.]+$", "");
-        Path thumbPath = storeDir.resolve(baseName + ".webp");
+        Path thumbnailImage = null;
         if (thumbnail != null && !thumbnail.isEmpty()) {
             try {
-                // Attempt to convert user-supplied image to webp (scale to width 320 keeping aspect)
+                // the multipart temp file is gone once the request ends, so the job gets its own copy
                 Path tempThumb = storeDir.resolve(UUID.randomUUID() + "_tmp_thumb_upload");
                 try (InputStream tin = thumbnail.getInputStream()) {
                     Files.copy(tin, tempThumb, StandardCopyOption.REPLACE_EXISTING);
                 }
-                convertImageToWebp(tempThumb, thumbPath);
-                Files.deleteIfExists(tempThumb);
-            } catch (Exception ex) {
+                thumbnailImage = tempThumb;
+            } catch (IOException ex) {
                 // Fallback: generate from video
-                try { generateThumbnail(target, thumbPath); } catch (Exception ignore) { createEmptyPlaceholder(thumbPath); }
             }
+        }
+
+        Path image = thumbnailImage;
+        try (InputStream in = file.getInputStream()) {
+            return contentStore.store(in, original,
+                    blob -> registerStoredVideo(blob.fileName(), original, meta, image));
+        } catch (IOException | RuntimeException e) {
+            if (image != null) Files.deleteIfExists(image);
+            throw e;
+        }
+    }
+
+    /**
+     * Register a fully written file (e.g. an assembled chunked upload) under its content hash.
+     * The file is renamed into the store, or dropped if the same content is already stored.
+     */
+    public StoredVideo registerFile(Path file, String original, videoSaveDTO meta) throws IOException {
+        return contentStore.adopt(file, original,
+                blob -> registerStoredVideo(blob.fileName(), original, meta, null));
+    }
+
+    /**
+     * Persist the entity for a video file that already sits in the store and queue its thumbnail job,
+     * unless the file already has a thumbnail or one is being built.
+     * Content is registered as one video: uploading it again returns that video, with its own title and
+     * description, as {@link StoredVideo#duplicateOf}, and records another uploader as a co-owner. A thumbnail
+     * supplied for content that already has one is rejected with IllegalStateException rather than dropped.
+     * thumbnailImage is an optional scratch copy of a user-supplied image; the job deletes it once used.
+     * Callers hold {@link ContentStore#lockFor(String)} for storedFileName.
+     */
+    public StoredVideo registerStoredVideo(String storedFileName, String original, videoSaveDTO meta, Path thumbnailImage) {
+        // derive metadata from DTO (with defaults)
+        String userId = meta != null && meta.userId() != null ? meta.userId() : "unknown";
+        String title = meta != null && meta.title() != null && !meta.title().isBlank() ? meta.title() : original;
+        String description = meta != null && meta.description() != null ? meta.description() : "";
+
+        Path target = storeBase.resolve(storedFileName);
+        Path thumbPath = thumbnailPath(storedFileName);
+        boolean hasThumbnail = Files.exists(thumbPath);
+        MediaJob pending = hasThumbnail ? null : pendingThumbnailJob(storedFileName).orElse(null);
+        if (thumbnailImage != null && (hasThumbnail || pending != null)) {
+            throw new IllegalStateException("This video is already on ProTube with its own thumbnail");
+        }
+
+        Video saved = videoRepository.findByFileName(storedFileName).orElse(null);
+        String duplicateOf = null;
+        if (saved == null) {
+            // build and save entity (repository contains metadata; fileName points to stored video file name)
+            saved = saveVideo(new Video(userId, title, description, storedFileName));
+        } else {
+            duplicateOf = saved.getVideoId();
+            if (!userId.equals(saved.getUserId()) && !videoOwnerRepository.existsByVideoIdAndUserId(duplicateOf, userId)) {
+                videoOwnerRepository.save(new VideoOwner(duplicateOf, userId));
+            }
+        }
+
+        // Thumbnail logic (uploaded OR auto-generated), queued so the request does not wait on ffmpeg
+        if (hasThumbnail || pending != null) {
+            return new StoredVideo(VideoMapper.toVideoSaveDTO(saved), pending, duplicateOf);
+        }
+        MediaJob job;
+        if (thumbnailImage != null) {
+            job = new MediaJob(MediaJob.Type.IMAGE_THUMBNAIL, MediaJob.Priority.INTERACTIVE, storedFileName,
+                    thumbnailImage.toString(), target.toString(), thumbPath.toString());
         } else {
-            try { generateThumbnail(target, thumbPath); } catch (Exception e) { createEmptyPlaceholder(thumbPath); }
+            job = new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, storedFileName,
+                    target.toString(), null, thumbPath.toString());
+        }
+        return new StoredVideo(VideoMapper.toVideoSaveDTO(saved), mediaJobService.submit(job), duplicateOf);
+    }
+
+    public Path getStoreBase() {
+        return storeBase;
+    }
+
+    /**
+     * Clean a client-supplied file name, defaulting to video.mp4 and rejecting path traversal.
+     */
+    public static String sanitizeOriginalName(String name) {
+        if (name == null || name.isBlank()) {
+            name = "video.mp4";
+        }
+        String original = StringUtils.cleanPath(name);
+        if (original.contains("..")) {
+            throw new IllegalArgumentException("Invalid filename");
+        }
+        return original;
+    }
+
+    // runs after AppStartupRunner, so seeded videos are already in the repository
+    @EventListener(ApplicationReadyEvent.class)
+    public void queueMissingThumbnails() {
+        int queued = backfillThumbnails();
+        if (queued > 0) LOG.info("Queued {} backfill thumbnail jobs", queued);
+    }
+
+    /**
+     * Queue low-priority thumbnail jobs for stored videos that have no .webp yet. Returns how many were queued.
+     */
+    public int backfillThumbnails() {
+        int queued = 0;
+        for (Video video : videoRepository.findAll()) {
+            String fileName = video.getFileName();
+            if (fileName == null) continue;
+            Path videoPath = storeBase.resolve(fileName);
+            Path thumbPath = thumbnailPath(fileName);
+            if (!Files.exists(videoPath) || Files.exists(thumbPath)) continue;
+            if (pendingThumbnailJob(fileName).isPresent()) continue;
+            mediaJobService.submit(new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.BACKFILL, fileName,
+                    videoPath.toString(), null, thumbPath.toString()));
+            queued++;
         }
+        return queued;
+    }
 
-        return VideoMapper.toVideoSaveDTO(saved);
+    private Optional<MediaJob> pendingThumbnailJob(String fileName) {
+        return mediaJobService.findLatestByVideoFileName(fileName)
+                .filter(job -> job.getStatus() != MediaJob.Status.DONE && job.getStatus() != MediaJob.Status.FAILED);
+    }
+
+    private Path thumbnailPath(String storedFileName) {
+        String baseName = storedFileName.replaceFirst("\\.[^.]+$", "");
+        return storeBase.resolve(baseName + ".webp");
     }
 
     // Backwards-compatible overload (delegates to DTO-based method)
     public Video uploadAndSave(MultipartFile file, String userId, String title, String description, boolean published) throws IOException {
         videoSaveDTO meta = new videoSaveDTO(userId, title, description, null);
-        videoSaveDTO savedDto = uploadAndSave(file, null, meta, published);
+        videoSaveDTO savedDto = uploadAndSave(file, null, meta, published).video();
         // convert back to entity if required by existing callers
         return VideoMapper.toVideo(savedDto);
     }
-
-    private void generateThumbnail(Path inputVideo, Path outputWebp) throws IOException, InterruptedException {
-        // Try to use ffmpeg to grab a frame and save as webp thumbnail
-        // Command: ffmpeg -y -ss 00:00:01 -i input -vframes 1 -vf scale=320:-1 output.webp
-        ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg", "-y", "-ss", "00:00:01", "-i", inputVideo.toString(),
-                "-vframes", "1", "-vf", "scale=320:-1", outputWebp.toString()
-        );
-        pb.redirectErrorStream(true);
-        Process p = pb.start();
-        p.getInputStream().transferTo(OutputStream.nullOutputStream());
-        int code = p.waitFor();
-        if (code != 0) throw new IOException("ffmpeg exited with code " + code);
-    }
-
-    private void convertImageToWebp(Path inputImage, Path outputWebp) throws IOException, InterruptedException {
-        ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg", "-y", "-i", inputImage.toString(), "-vf", "scale=320:-1", outputWebp.toString()
-        );
-        pb.redirectErrorStream(true);
-        Process p = pb.start();
-        p.getInputStream().transferTo(OutputStream.nullOutputStream());
-        int code = p.waitFor();
-        if (code != 0) throw new IOException("ffmpeg (image->webp) exited with code " + code);
-    }
-
-    private void createEmptyPlaceholder(Path thumbPath) {
-        try { if (!Files.exists(thumbPath)) Files.createFile(thumbPath); } catch (Exception ignored) {}
-    }
 }
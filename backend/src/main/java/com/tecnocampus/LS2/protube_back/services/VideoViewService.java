@@ -1,61 +1,313 @@
 package com.tecnocampus.LS2.protube_back.services;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.HistoryPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewDTO;
 import com.tecnocampus.LS2.protube_back.controller.mapper.VideoViewMapper;
 import com.tecnocampus.LS2.protube_back.domain.VideoView;
 import com.tecnocampus.LS2.protube_back.domain.Video;
 import com.tecnocampus.LS2.protube_back.repository.VideoViewRepository;
 import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * View history. Plays are buffered in memory and written behind by {@link #flushViews()}, so registering a view
+ * is a map update and the table gets at most one write per user and video per flush interval
+ * ({@code pro_tube.history.flush_interval_ms}).
+ */
 @Service
 public class VideoViewService {
+    private static final Logger LOG = LoggerFactory.getLogger(VideoViewService.class);
+    private static final int RESOLVE_CHUNK = 500;
+    private static final int PREFIX_CHUNK = 100;
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final VideoViewRepository videoViewRepository;
     private final VideoRepository videoRepository;
+    private final ViewIndex viewIndex;
+
+    // userId -> (videoFileName -> latest viewedAt); an inner map is only touched inside compute on its entry
+    private final ConcurrentHashMap<String, Map<String, Long>> pending = new ConcurrentHashMap<>();
+    // the batch being written, still visible to listViews until it is in the table
+    private volatile Map<String, Map<String, Long>> flushing = Map.of();
 
-    public VideoViewService(VideoViewRepository videoViewRepository, VideoRepository videoRepository) {
+    public VideoViewService(VideoViewRepository videoViewRepository, VideoRepository videoRepository, ViewIndex viewIndex) {
         this.videoViewRepository = videoViewRepository;
         this.videoRepository = videoRepository;
+        this.viewIndex = viewIndex;
+    }
+
+    /**
+     * Fill the in-memory view index from the views already in the table (one pass over each table).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexExistingViews() {
+        Map<String, String> videoIdByFileName = new HashMap<>();
+        for (Video video : videoRepository.findAll()) {
+            String fileName = video.getFileName();
+            if (fileName == null) continue;
+            videoIdByFileName.put(fileName, video.getVideoId());
+            // views may name the file without its extension, as resolveVideos accepts
+            videoIdByFileName.putIfAbsent(fileName.replaceFirst("\\.[^.]+$", ""), video.getVideoId());
+        }
+        for (VideoView view : videoViewRepository.findAll()) {
+            String videoId = videoIdByFileName.get(view.getVideoFileName());
+            if (videoId != null) viewIndex.record(view.getUserId(), videoId);
+        }
     }
 
+    /**
+     * Accept a view without touching the database: it is coalesced with the user's earlier views of the same file
+     * (the latest time wins) and written by the next {@link #flushViews()}. The returned view has no id yet.
+     */
     public VideoViewDTO addOrUpdateView(String userId, String videoFileName) {
         if (userId == null || userId.isBlank() || videoFileName == null || videoFileName.isBlank()) {
             throw new IllegalArgumentException("userId and videoFileName are required");
         }
-        var existing = videoViewRepository.findByUserIdAndVideoFileName(userId, videoFileName).orElse(null);
-        if (existing == null) {
-            existing = new VideoView(userId, videoFileName);
-        } else {
-            existing.setViewedAt(Instant.now().toEpochMilli());
+        long now = Instant.now().toEpochMilli();
+        buffer(userId, videoFileName, now);
+        VideoView view = new VideoView(userId, videoFileName);
+        view.setId(null);
+        view.setViewedAt(now);
+        return VideoViewMapper.toDTO(view, null);
+    }
+
+    /**
+     * Write the buffered views as one batch through {@link VideoViewRepository#upsertLatestViews}: one transaction,
+     * one SELECT per chunk of users and JDBC-batched inserts and updates. Returns the number of rows written.
+     * If the write fails the views go back into the buffer for the next run.
+     */
+    @Scheduled(fixedDelayString = "${pro_tube.history.flush_interval_ms:1000}")
+    public synchronized int flushViews() {
+        Map<String, Map<String, Long>> batch = new HashMap<>();
+        for (String userId : pending.keySet()) {
+            Map<String, Long> views = pending.remove(userId);
+            if (views != null) batch.put(userId, views);
         }
-        var saved = videoViewRepository.save(existing);
-        Video video = resolveVideo(videoFileName);
-        return VideoViewMapper.toDTO(saved, video);
+        if (batch.isEmpty()) return 0;
+        flushing = batch;
+        int written;
+        try {
+            written = videoViewRepository.upsertLatestViews(batch);
+        } catch (RuntimeException e) {
+            batch.forEach((userId, views) -> views.forEach((fileName, viewedAt) -> buffer(userId, fileName, viewedAt)));
+            LOG.warn("Could not write buffered views of {} users, retrying on the next flush: {}", batch.size(), e.getMessage());
+            return 0;
+        } finally {
+            flushing = Map.of();
+        }
+        indexViews(batch);
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushViews();
     }
 
     public List<VideoViewDTO> listViews(String userId) {
         if (userId == null || userId.isBlank()) {
             return List.of();
         }
-        return videoViewRepository.findByUserIdOrderByViewedAtDesc(userId)
-                .stream()
-                .map(v -> {
-                    Video video = resolveVideo(v.getVideoFileName());
-                    return VideoViewMapper.toDTO(v, video);
-                })
+        List<VideoView> views = videoViewRepository.findByUserIdOrderByViewedAtDesc(userId);
+        Map<String, Long> buffered = bufferedViews(userId);
+        if (!buffered.isEmpty()) {
+            views = withBuffered(userId, views, buffered);
+        }
+        Map<String, Video> videos = resolveVideos(views.stream().map(VideoView::getVideoFileName).collect(Collectors.toSet()));
+        return views.stream()
+                .map(v -> VideoViewMapper.toDTO(v, videos.get(v.getVideoFileName())))
                 .collect(Collectors.toList());
     }
 
-    private Video resolveVideo(String fileName) {
-        return videoRepository.findByFileName(fileName)
-                .or(() -> {
-                    var list = videoRepository.findByFileNameStartingWith(fileName + ".");
-                    return list.isEmpty() ? java.util.Optional.empty() : java.util.Optional.of(list.get(0));
-                })
-                .orElse(null);
+    /**
+     * One page of the user's history, newest first. cursor is the nextCursor of the previous page (null for the
+     * first); nextCursor is null on the last page. Each page is a range scan of idx_vview_user from the cursor,
+     * however deep it is. Views still in the buffer are merged in, as in {@link #listViews}, in place of the
+     * stored row of the same file, so the first page shows the latest plays without waiting for a flush.
+     */
+    public HistoryPageDTO findPage(String userId, String cursor, Integer limit) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Cursor after = Cursor.decode(cursor);
+        Long afterViewedAt = after != null ? after.position() : null;
+        String afterId = after != null ? after.id() : null;
+        Map<String, Long> buffered = bufferedViews(userId);
+        // one extra row tells whether there is another page; each buffered view may displace one stored row
+        Limit rowLimit = Limit.of(size + 1 + buffered.size());
+        List<VideoView> rows = afterViewedAt == null
+                ? videoViewRepository.findByUserIdOrderByViewedAtDescIdDesc(userId, rowLimit)
+                : videoViewRepository.findPageAfter(userId, afterViewedAt, afterId, rowLimit);
+        if (!buffered.isEmpty()) {
+            rows = withBufferedAfter(userId, rows, buffered, afterViewedAt, afterId);
+        }
+        boolean hasMore = rows.size() > size;
+        List<VideoView> page = hasMore ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasMore) {
+            VideoView last = page.get(page.size() - 1);
+            // a buffered view has no id yet; "" sorts it after the stored rows of the same millisecond
+            String lastId = last.getId() != null ? last.getId() : "";
+            next = new Cursor(last.getViewedAt(), lastId).encode();
+        }
+        Map<String, Video> videos = resolveVideos(page.stream().map(VideoView::getVideoFileName).collect(Collectors.toSet()));
+        List<VideoViewDTO> items = page.stream()
+                .map(v -> VideoViewMapper.toDTO(v, videos.get(v.getVideoFileName())))
+                .collect(Collectors.toList());
+        return new HistoryPageDTO(items, next);
+    }
+
+    private void buffer(String userId, String videoFileName, long viewedAt) {
+        pending.compute(userId, (u, views) -> {
+            if (views == null) views = new HashMap<>();
+            views.merge(videoFileName, viewedAt, Math::max);
+            return views;
+        });
+    }
+
+    // the user's views that are not in the table yet: pending ones and those of a flush in progress
+    private Map<String, Long> bufferedViews(String userId) {
+        Map<String, Long> out = new HashMap<>();
+        Map<String, Long> inFlight = flushing.get(userId);
+        if (inFlight != null) out.putAll(inFlight);
+        pending.computeIfPresent(userId, (u, views) -> {
+            views.forEach((fileName, viewedAt) -> out.merge(fileName, viewedAt, Math::max));
+            return views;
+        });
+        return out;
+    }
+
+    private static List<VideoView> withBuffered(String userId, List<VideoView> stored, Map<String, Long> buffered) {
+        Map<String, Long> remaining = new HashMap<>(buffered);
+        List<VideoView> merged = new ArrayList<>(stored.size() + buffered.size());
+        for (VideoView view : stored) {
+            Long viewedAt = remaining.remove(view.getVideoFileName());
+            if (viewedAt != null && viewedAt > view.getViewedAt()) {
+                // a copy, so the loaded entity is not modified outside the flush
+                VideoView newer = new VideoView(view.getUserId(), view.getVideoFileName());
+                newer.setId(view.getId());
+                newer.setViewedAt(viewedAt);
+                view = newer;
+            }
+            merged.add(view);
+        }
+        remaining.forEach((fileName, viewedAt) -> {
+            VideoView view = new VideoView(userId, fileName);
+            view.setId(null);
+            view.setViewedAt(viewedAt);
+            merged.add(view);
+        });
+        merged.sort(Comparator.comparingLong(VideoView::getViewedAt).reversed());
+        return merged;
+    }
+
+    // stored rows after the cursor with the buffered views that also sort after it, in (viewedAt, id) order; a
+    // stored row is left out while a newer view of its file is buffered, so no page shows the file twice
+    private static List<VideoView> withBufferedAfter(String userId, List<VideoView> stored, Map<String, Long> buffered,
+                                                     Long afterViewedAt, String afterId) {
+        Map<String, Long> remaining = new HashMap<>(buffered);
+        List<VideoView> merged = new ArrayList<>(stored.size() + buffered.size());
+        for (VideoView view : stored) {
+            Long viewedAt = buffered.get(view.getVideoFileName());
+            if (viewedAt != null && viewedAt > view.getViewedAt()) continue;
+            if (viewedAt != null) remaining.remove(view.getVideoFileName());
+            merged.add(view);
+        }
+        remaining.forEach((fileName, viewedAt) -> {
+            boolean afterCursor = afterViewedAt == null || viewedAt < afterViewedAt
+                    || (viewedAt.longValue() == afterViewedAt && !afterId.isEmpty());
+            if (!afterCursor) return;
+            VideoView view = new VideoView(userId, fileName);
+            view.setId(null);
+            view.setViewedAt(viewedAt);
+            merged.add(view);
+        });
+        merged.sort(Comparator.comparingLong(VideoView::getViewedAt)
+                .thenComparing(VideoView::getId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .reversed());
+        return merged;
+    }
+
+    /**
+     * Drop deleted views from the view index. A user stops counting as a viewer of a video once the row of the
+     * file they watched is gone; a view of it still in the buffer records them again on the next flush.
+     */
+    void unindexViews(Collection<VideoView> deleted) {
+        if (deleted.isEmpty()) return;
+        Map<String, Video> videos = resolveVideos(deleted.stream().map(VideoView::getVideoFileName).collect(Collectors.toSet()));
+        for (VideoView view : deleted) {
+            Video video = videos.get(view.getVideoFileName());
+            if (video != null) viewIndex.remove(view.getUserId(), video.getVideoId());
+        }
+    }
+
+    private void indexViews(Map<String, Map<String, Long>> batch) {
+        Set<String> fileNames = new HashSet<>();
+        batch.values().forEach(views -> fileNames.addAll(views.keySet()));
+        Map<String, Video> videos = resolveVideos(fileNames);
+        batch.forEach((userId, views) -> {
+            for (String fileName : views.keySet()) {
+                Video video = videos.get(fileName);
+                if (video != null) viewIndex.record(userId, video.getVideoId());
+            }
+        });
+    }
+
+    /**
+     * The video each file name refers to: an exact file name match, or else the first video (by file name) named
+     * like it plus an extension, as views may be recorded without one. Costs one IN query per
+     * {@value #RESOLVE_CHUNK} names plus one OR-of-LIKE query per {@value #PREFIX_CHUNK} names that had no exact
+     * match, instead of up to two queries per name. Names that resolve to nothing are absent from the map.
+     */
+    Map<String, Video> resolveVideos(Collection<String> fileNames) {
+        Map<String, Video> out = new HashMap<>();
+        List<String> names = new ArrayList<>(fileNames);
+        for (int from = 0; from < names.size(); from += RESOLVE_CHUNK) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + RESOLVE_CHUNK));
+            for (Video video : videoRepository.findByFileNameIn(chunk)) {
+                out.putIfAbsent(video.getFileName(), video);
+            }
+        }
+        List<String> missing = names.stream().filter(name -> !out.containsKey(name)).toList();
+        for (int from = 0; from < missing.size(); from += PREFIX_CHUNK) {
+            List<String> chunk = missing.subList(from, Math.min(missing.size(), from + PREFIX_CHUNK));
+            Map<String, Video> byBaseName = new HashMap<>();
+            // ordered by file name, so the first video seen for a base name wins
+            for (Video video : videoRepository.findByFileNamePrefixes(chunk)) {
+                String fileName = video.getFileName();
+                for (int dot = fileName.indexOf('.'); dot >= 0; dot = fileName.indexOf('.', dot + 1)) {
+                    byBaseName.putIfAbsent(fileName.substring(0, dot), video);
+                }
+            }
+            for (String name : chunk) {
+                Video video = byBaseName.get(name);
+                if (video != null) out.put(name, video);
+            }
+        }
+        return out;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UniqueViewersDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewStatsDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.ViewBucketDTO;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.HyperLogLog;
+import com.tecnocampus.LS2.protube_back.repository.UniqueViewerRepository;
+import com.tecnocampus.LS2.protube_back.repository.ViewCountRepository;
+import com.tecnocampus.LS2.protube_back.repository.ViewCountRepository.Granularity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-video view counters. {@link #record} only bumps a striped {@link LongAdder} keyed by the file name the
+ * player reported, so counting a view never waits on a lock or the database. Every
+ * {@code pro_tube.views.rollup_interval_ms} {@link #rollup()} drains the adders, resolves file names to videos in
+ * batched queries and adds the deltas to {@link ViewCountRepository}'s minute/hour/day buckets; views are
+ * attributed to the minute of the rollup that drained them, so the series lags by up to one interval.
+ * The viewer of each view is hashed into a per-name set at record time and the rollup offers the sets to the
+ * day's {@link UniqueViewerRepository} sketch, which answers distinct-viewer questions without scanning history.
+ * File names that match no video are dropped.
+ */
+@Component
+public class ViewCounter {
+    private static final Logger LOG = LoggerFactory.getLogger(ViewCounter.class);
+
+    private static final int DEFAULT_VIEWER_DAYS = 7;
+
+    private final ViewCountRepository viewCountRepository;
+    private final UniqueViewerRepository uniqueViewerRepository;
+    private final VideoViewService videoViewService;
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // file name -> viewer hashes since the last rollup; a set is only touched inside compute/remove on its entry
+    private final ConcurrentHashMap<String, Set<Long>> viewers = new ConcurrentHashMap<>();
+    // file name -> videoId; a name can be reused once its video is deleted, so deletes evict it (see #forget)
+    private final Map<String, String> videoIds = new ConcurrentHashMap<>();
+
+    public ViewCounter(ViewCountRepository viewCountRepository, UniqueViewerRepository uniqueViewerRepository,
+                       VideoViewService videoViewService) {
+        this.viewCountRepository = viewCountRepository;
+        this.uniqueViewerRepository = uniqueViewerRepository;
+        this.videoViewService = videoViewService;
+    }
+
+    public void record(String userId, String videoFileName) {
+        if (videoFileName == null || videoFileName.isBlank()) return;
+        counters.computeIfAbsent(videoFileName, name -> new LongAdder()).increment();
+        if (userId == null || userId.isBlank()) return;
+        long hash = HyperLogLog.hash(userId);
+        viewers.compute(videoFileName, (name, hashes) -> {
+            Set<Long> out = hashes != null ? hashes : new HashSet<>();
+            out.add(hash);
+            return out;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${pro_tube.views.rollup_interval_ms:10000}")
+    public void rollup() {
+        rollup(System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void rollupOnShutdown() {
+        rollup();
+    }
+
+    /**
+     * Move the views counted so far into the buckets containing now. Returns the number of views rolled up.
+     */
+    synchronized long rollup(long now) {
+        Map<String, Long> deltas = new HashMap<>();
+        counters.forEach((name, adder) -> {
+            // views racing with the reset are not lost, they land in the next rollup
+            long n = adder.sumThenReset();
+            if (n > 0) deltas.put(name, n);
+        });
+        Map<String, Set<Long>> viewerDeltas = new HashMap<>();
+        for (String name : viewers.keySet()) {
+            Set<Long> hashes = viewers.remove(name);
+            if (hashes != null) viewerDeltas.put(name, hashes);
+        }
+        if (deltas.isEmpty() && viewerDeltas.isEmpty()) return 0;
+
+        Set<String> names = new HashSet<>(deltas.keySet());
+        names.addAll(viewerDeltas.keySet());
+        List<String> unknown = names.stream().filter(name -> !videoIds.containsKey(name)).toList();
+        if (!unknown.isEmpty()) {
+            try {
+                for (Map.Entry<String, Video> e : videoViewService.resolveVideos(unknown).entrySet()) {
+                    videoIds.put(e.getKey(), e.getValue().getVideoId());
+                }
+            } catch (RuntimeException e) {
+                // put the views back for the next rollup rather than lose them
+                LOG.warn("Could not resolve {} video file names, retrying next rollup: {}", unknown.size(), e.getMessage());
+                for (String name : unknown) {
+                    Long n = deltas.remove(name);
+                    if (n != null) counters.computeIfAbsent(name, k -> new LongAdder()).add(n);
+                    Set<Long> hashes = viewerDeltas.remove(name);
+                    if (hashes != null) viewers.merge(name, hashes, (a, b) -> {
+                        a.addAll(b);
+                        return a;
+                    });
+                }
+            }
+        }
+
+        Map<String, Long> byVideo = new HashMap<>();
+        long rolled = 0;
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+            String videoId = videoIds.get(e.getKey());
+            if (videoId == null) {
+                // not a video; forget the name so arbitrary input can't grow the map
+                counters.remove(e.getKey());
+                continue;
+            }
+            byVideo.merge(videoId, e.getValue(), Long::sum);
+            rolled += e.getValue();
+        }
+        byVideo.forEach((videoId, n) -> viewCountRepository.add(videoId, now, n));
+
+        Map<String, Set<Long>> viewersByVideo = new HashMap<>();
+        viewerDeltas.forEach((name, hashes) -> {
+            String videoId = videoIds.get(name);
+            if (videoId != null) viewersByVideo.computeIfAbsent(videoId, id -> new HashSet<>()).addAll(hashes);
+        });
+        viewersByVideo.forEach((videoId, hashes) -> uniqueViewerRepository.offer(videoId, now, hashes));
+        return rolled;
+    }
+
+    /**
+     * Drop the cached video of fileName, called once the video stored under it is deleted. Content-addressed
+     * names come back when the same content is uploaded again, and the next rollup must resolve them afresh.
+     * Waits for a running rollup, so it cannot cache the name again after this.
+     */
+    public synchronized void forget(String fileName) {
+        if (fileName != null) videoIds.remove(fileName);
+    }
+
+    /**
+     * Total views of videoId and the counts of its last points buckets of granularity (minute, hour or day),
+     * oldest first. points defaults per granularity and may not exceed the buckets kept.
+     */
+    public VideoViewStatsDTO stats(String videoId, String granularity, Integer points) {
+        return stats(videoId, granularity, points, System.currentTimeMillis());
+    }
+
+    VideoViewStatsDTO stats(String videoId, String granularity, Integer points, long now) {
+        if (videoId == null || videoId.isBlank()) throw new IllegalArgumentException("videoId is required");
+        Granularity g = parseGranularity(granularity);
+        int n = points != null ? points : defaultPoints(g);
+        if (n < 1 || n > g.retained()) {
+            throw new IllegalArgumentException("points must be between 1 and " + g.retained());
+        }
+        long[] counts = viewCountRepository.series(videoId, g, now, n);
+        long first = g.bucketStart(now) - (long) (n - 1) * g.millis();
+        List<ViewBucketDTO> series = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            series.add(new ViewBucketDTO(first + i * g.millis(), counts[i]));
+        }
+        return new VideoViewStatsDTO(videoId, viewCountRepository.total(videoId),
+                g.name().toLowerCase(Locale.ROOT), series);
+    }
+
+    /**
+     * Estimated distinct viewers of videoId over the last days days (today included), plus the estimate for each
+     * of those days, oldest first. Day buckets are UTC; the numbers are HyperLogLog estimates (about 1.6% error).
+     */
+    public UniqueViewersDTO uniqueViewers(String videoId, Integer days) {
+        return uniqueViewers(videoId, days, System.currentTimeMillis());
+    }
+
+    UniqueViewersDTO uniqueViewers(String videoId, Integer days, long now) {
+        if (videoId == null || videoId.isBlank()) throw new IllegalArgumentException("videoId is required");
+        int n = days != null ? days : DEFAULT_VIEWER_DAYS;
+        int max = uniqueViewerRepository.retentionDays();
+        if (n < 1 || n > max) throw new IllegalArgumentException("days must be between 1 and " + max);
+        long[] perDay = uniqueViewerRepository.daily(videoId, now, n);
+        long first = UniqueViewerRepository.dayStart(now) - (long) (n - 1) * Granularity.DAY.millis();
+        List<ViewBucketDTO> daily = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            daily.add(new ViewBucketDTO(first + i * Granularity.DAY.millis(), perDay[i]));
+        }
+        return new UniqueViewersDTO(videoId, n, uniqueViewerRepository.estimate(videoId, now, n), daily);
+    }
+
+    private static Granularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) return Granularity.HOUR;
+        try {
+            return Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be minute, hour or day");
+        }
+    }
+
+    private static int defaultPoints(Granularity g) {
+        return switch (g) {
+            case MINUTE -> 60;
+            case HOUR -> 24;
+            case DAY -> 30;
+        };
+    }
+}
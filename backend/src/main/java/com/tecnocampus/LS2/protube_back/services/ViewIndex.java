@@ -0,0 +1,94 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.repository.IdDictionaries;
+import com.tecnocampus.LS2.protube_back.repository.IdDictionary;
+import com.tecnocampus.LS2.protube_back.repository.IntBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "who watched what" over the video_view table, as compressed bitmaps in the shared
+ * {@link IdDictionaries} int space: the videos each user has watched and the users who watched each video.
+ * Because likes use the same dictionaries, questions like "liked and watched" are a bitmap AND.
+ * The table stays the source of truth; {@link VideoViewService} keeps this index in step with it.
+ */
+@Component
+public class ViewIndex {
+    private final IdDictionary users;
+    private final IdDictionary videos;
+    private final Map<Integer, IntBitmap> videosByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, IntBitmap> usersByVideo = new ConcurrentHashMap<>();
+
+    public ViewIndex(IdDictionaries ids) {
+        this.users = ids.users();
+        this.videos = ids.videos();
+    }
+
+    /**
+     * Remember that userId has watched videoId; watching again changes nothing.
+     */
+    public void record(String userId, String videoId) {
+        if (userId == null || videoId == null) return;
+        int user = users.intern(userId);
+        int video = videos.intern(videoId);
+        IntBitmap watched = videosByUser.computeIfAbsent(user, u -> new IntBitmap());
+        synchronized (watched) {
+            if (!watched.add(video)) return;
+        }
+        IntBitmap viewers = usersByVideo.computeIfAbsent(video, v -> new IntBitmap());
+        synchronized (viewers) {
+            viewers.add(user);
+        }
+    }
+
+    /**
+     * Forget that userId has watched videoId, e.g. once the view was deleted from the table.
+     */
+    public void remove(String userId, String videoId) {
+        int user = users.idOf(userId);
+        int video = videos.idOf(videoId);
+        IntBitmap watched = user >= 0 ? videosByUser.get(user) : null;
+        if (watched == null || video < 0) return;
+        synchronized (watched) {
+            if (!watched.remove(video)) return;
+        }
+        IntBitmap viewers = usersByVideo.get(video);
+        if (viewers == null) return;
+        synchronized (viewers) {
+            viewers.remove(user);
+        }
+    }
+
+    public boolean hasWatched(String userId, String videoId) {
+        int user = users.idOf(userId);
+        int video = videos.idOf(videoId);
+        IntBitmap watched = user >= 0 ? videosByUser.get(user) : null;
+        if (watched == null || video < 0) return false;
+        synchronized (watched) {
+            return watched.contains(video);
+        }
+    }
+
+    /**
+     * A copy of the videos the user has watched, as dictionary ids.
+     */
+    public IntBitmap watchedBy(String userId) {
+        int user = users.idOf(userId);
+        IntBitmap watched = user >= 0 ? videosByUser.get(user) : null;
+        if (watched == null) return new IntBitmap();
+        synchronized (watched) {
+            return watched.copy();
+        }
+    }
+
+    public int uniqueViewers(String videoId) {
+        int video = videos.idOf(videoId);
+        IntBitmap viewers = video >= 0 ? usersByVideo.get(video) : null;
+        if (viewers == null) return 0;
+        synchronized (viewers) {
+            return viewers.cardinality();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.Comentari;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.CommentImportRepository;
+import com.tecnocampus.LS2.protube_back.repository.ComentariRepository;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItem;
+import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Brings the comments yt-dlp wrote into a video's info JSON ({@code --write-comments}) into the comment store.
+ * A video is imported the first time its comments are asked for, so startup does not pay for the whole store;
+ * {@code pro_tube.comments.import.backfill=true} additionally walks every video on a background thread.
+ * <p>
+ * The file is streamed with {@link VideoMetadataReader#readComments} and saved in small batches, so memory use
+ * does not depend on the thread length. Ids are derived from the source ({@code yt-<comment id>}, or
+ * {@code yt-<video id>-<position>} in the videoGrabber layout, which drops comment ids), so an import cut short
+ * skips what the comment log already has when it is retried. A finished import is recorded in
+ * {@link CommentImportRepository} and never runs again for that video, so a deleted imported comment stays
+ * deleted across restarts. Authors are stored as {@code yt:<handle>}, outside the namespace of local usernames,
+ * so an imported comment never counts as written by a local account.
+ */
+@Component
+public class YtCommentImporter {
+    private static final Logger LOG = LoggerFactory.getLogger(YtCommentImporter.class);
+
+    private static final int DEFAULT_MAX_PER_VIDEO = 500;
+    private static final int BATCH_SIZE = 100;
+    private static final int BACKFILL_PAGE_SIZE = 200;
+    static final String ID_PREFIX = "yt-";
+    static final String AUTHOR_PREFIX = "yt:";
+    // importVideo result for an id that names no video; such ids are not remembered
+    private static final int NO_VIDEO = -1;
+
+    private final ComentariRepository comentariRepository;
+    private final CommentImportRepository importRepository;
+    private final VideoRepository videoRepository;
+    private final VideoMetadataReader metadataReader;
+    private final Path storeBase;
+    private final int maxPerVideo;
+    private final boolean backfill;
+
+    // one task per existing video: the first caller runs it and concurrent callers wait for the same import
+    private final Map<String, FutureTask<Integer>> imports = new ConcurrentHashMap<>();
+
+    public YtCommentImporter(ComentariRepository comentariRepository, CommentImportRepository importRepository,
+                             VideoRepository videoRepository, VideoMetadataReader metadataReader, Environment env) {
+        this.comentariRepository = comentariRepository;
+        this.importRepository = importRepository;
+        this.videoRepository = videoRepository;
+        this.metadataReader = metadataReader;
+        String configured = env != null ? env.getProperty("pro_tube.store.dir") : null;
+        Path base = (configured != null && !configured.isBlank())
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.dir"), "..", "store");
+        this.storeBase = base.toAbsolutePath().normalize();
+        Integer max = env != null ? env.getProperty("pro_tube.comments.import.max_per_video", Integer.class) : null;
+        this.maxPerVideo = max != null ? max : DEFAULT_MAX_PER_VIDEO;
+        Boolean backfillEnabled = env != null ? env.getProperty("pro_tube.comments.import.backfill", Boolean.class) : null;
+        this.backfill = Boolean.TRUE.equals(backfillEnabled);
+    }
+
+    /**
+     * Import the video's yt-dlp comments unless that was already done, by this process or an earlier one. A failed
+     * import is logged and retried on the next call; it never fails the request that triggered it.
+     */
+    public void ensureImported(String videoId) {
+        if (videoId == null || videoId.isBlank() || maxPerVideo <= 0) return;
+        FutureTask<Integer> task = imports.computeIfAbsent(videoId, id -> new FutureTask<>(() -> importVideo(id)));
+        // runs the import on the first caller's thread; a no-op for everyone else
+        task.run();
+        try {
+            // unknown ids (any path segment a client sends) must not accumulate here
+            if (task.get() == NO_VIDEO) imports.remove(videoId, task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            imports.remove(videoId, task);
+            LOG.warn("Could not import comments of video {}: {}", videoId, e.getCause().getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!backfill || maxPerVideo <= 0) return;
+        Thread worker = new Thread(() -> {
+            int videos = backfillAll();
+            LOG.info("Comment backfill checked {} videos", videos);
+        }, "yt-comment-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Import every video, walking the table in id order a page at a time. Returns the number of videos visited.
+     */
+    int backfillAll() {
+        int visited = 0;
+        List<VideoListItem> page = videoRepository.findAllByOrderByVideoIdAsc(Limit.of(BACKFILL_PAGE_SIZE), VideoListItem.class);
+        while (!page.isEmpty()) {
+            for (VideoListItem item : page) {
+                ensureImported(item.getVideoId());
+                visited++;
+            }
+            String last = page.get(page.size() - 1).getVideoId();
+            page = videoRepository.findByVideoIdGreaterThanOrderByVideoIdAsc(last, Limit.of(BACKFILL_PAGE_SIZE), VideoListItem.class);
+        }
+        return visited;
+    }
+
+    int importVideo(String videoId) throws IOException {
+        Video video = videoRepository.findById(videoId).orElse(null);
+        if (video == null) return NO_VIDEO;
+        if (video.getFileName() == null || importRepository.isImported(videoId)) return 0;
+        Path json = storeBase.resolve(VideoCatalog.baseName(video.getFileName()) + ".json").normalize();
+        if (!json.startsWith(storeBase) || !Files.isRegularFile(json)) return 0;
+
+        BatchingSink sink = new BatchingSink(videoId);
+        metadataReader.readComments(json, maxPerVideo, sink);
+        sink.flush();
+        importRepository.markImported(videoId, Instant.now().toEpochMilli());
+        if (sink.imported > 0) LOG.info("Imported {} comments for video {}", sink.imported, videoId);
+        return sink.imported;
+    }
+
+    static Comentari toComentari(String id, String videoId, VideoMetadataReader.InfoComment comment) {
+        Comentari c = new Comentari(id, authorId(comment.author()), videoId, null, comment.text());
+        if (comment.timestamp() != null && comment.timestamp() > 0) {
+            c.setCreatedAt(comment.timestamp() * 1000);
+        }
+        return c;
+    }
+
+    static String authorId(String author) {
+        if (author == null) return AUTHOR_PREFIX;
+        // raw yt-dlp authors are handles ("@name"); the videoGrabber already stripped the "@"
+        return AUTHOR_PREFIX + (author.startsWith("@") ? author.substring(1) : author);
+    }
+
+    private final class BatchingSink implements Consumer<VideoMetadataReader.InfoComment> {
+        private final String videoId;
+        private final List<Comentari> batch = new ArrayList<>(BATCH_SIZE);
+        private int position;
+        private int imported;
+
+        BatchingSink(String videoId) {
+            this.videoId = videoId;
+        }
+
+        @Override
+        public void accept(VideoMetadataReader.InfoComment comment) {
+            String id = ID_PREFIX + (comment.id() != null ? comment.id() : videoId + "-" + position);
+            position++;
+            if (!comentariRepository.existsById(id)) batch.add(toComentari(id, videoId, comment));
+            if (batch.size() == BATCH_SIZE) flush();
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            imported += comentariRepository.saveAll(batch).size();
+            batch.clear();
+        }
+    }
+}
@@ -5,20 +5,32 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 
 @SpringBootTest({
         "pro_tube.store.dir=c:",
-        "pro_tube.load_initial_data=false"
+        "pro_tube.load_initial_data=false",
+        "pro_tube.comments.durability=strict",
+        "pro_tube.likes.durability=strict",
+        "pro_tube.views.durability=strict"
 })
 class ProtubeBackApplicationTests {
 
     @Autowired
     VideoService videoService;
 
+    @Autowired
+    ThreadPoolTaskScheduler taskScheduler;
+
     @Test
     void shouldStartApp() {
         Assertions.assertNotNull(videoService);
     }
 
+    @Test
+    void scheduledTasksShareAPoolOfSeveralThreads() {
+        Assertions.assertEquals(4, taskScheduler.getPoolSize());
+    }
+
 }
@@ -0,0 +1,70 @@
+package com.tecnocampus.LS2.protube_back.configuration;
+
+import com.tecnocampus.LS2.protube_back.services.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthTokenFilterTest {
+
+    private TokenService tokenService;
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(new MockEnvironment().withProperty("pro_tube.auth.token_secret", "s3cret"));
+        filter = new AuthTokenFilter(tokenService);
+    }
+
+    @Test
+    void validTokenSetsTheUserAttribute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/comentaris/save");
+        request.addHeader("Authorization", "Bearer " + tokenService.issue("alice"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals("alice", request.getAttribute(AuthTokenFilter.USER_ID_ATTRIBUTE));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void requestWithoutTokenPassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/videos");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNull(request.getAttribute(AuthTokenFilter.USER_ID_ATTRIBUTE));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void invalidTokenIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/likes/alice");
+        request.addHeader("Authorization", "Bearer forged.1.sig");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void nonApiPathsAreNotChecked() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/video.mp4");
+        request.addHeader("Authorization", "Bearer forged.1.sig");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+    }
+}
@@ -0,0 +1,31 @@
+package com.tecnocampus.LS2.protube_back.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MvcConfigTest {
+
+    // getCorsConfigurations is protected; a subclass lets the test read what MvcConfig registered
+    private static final class InspectableCorsRegistry extends CorsRegistry {
+        Map<String, CorsConfiguration> configurations() {
+            return getCorsConfigurations();
+        }
+    }
+
+    @Test
+    void apiExposesTheHeadersClientsRead() {
+        InspectableCorsRegistry registry = new InspectableCorsRegistry();
+        new MvcConfig().addCorsMappings(registry);
+
+        var exposed = registry.configurations().get("/api/**").getExposedHeaders();
+        assertNotNull(exposed);
+        assertTrue(exposed.containsAll(List.of("X-Auth-Token", "X-User-Id", "X-Error", "X-Duplicate-Of",
+                "X-Media-Job-Id")));
+    }
+}
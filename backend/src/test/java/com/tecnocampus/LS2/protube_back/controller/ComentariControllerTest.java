@@ -1,6 +1,7 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
 import com.tecnocampus.LS2.protube_back.controller.dto.ComentariDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.CommentPageDTO;
 import com.tecnocampus.LS2.protube_back.services.ComentariService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +15,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,8 +40,8 @@ class ComentariControllerTest {
     void saveComentario_returnsCreatedString() {
         ComentariDTO dto = new ComentariDTO(null, "u1","v1","t","d");
         ComentariDTO saved = new ComentariDTO("c1","u1","v1","t","d");
-        when(comentariService.create(dto, dto.userId())).thenReturn(saved);
-        ResponseEntity<String> resp = comentariController.saveComentario(dto);
+        when(comentariService.create(dto, "u1")).thenReturn(saved);
+        ResponseEntity<String> resp = comentariController.saveComentario(dto, "u1");
         assertEquals(200, resp.getStatusCode().value());
         var body = resp.getBody();
         assertNotNull(body);
@@ -51,19 +53,39 @@ class ComentariControllerTest {
         ComentariDTO dto = new ComentariDTO(null, "u1","v1","t","d");
         when(comentariService.create(dto, "u1")).thenThrow(new IllegalArgumentException("Invalid input"));
         
-        ResponseEntity<String> resp = comentariController.saveComentario(dto);
+        ResponseEntity<String> resp = comentariController.saveComentario(dto, "u1");
         assertEquals(400, resp.getStatusCode().value());
         assertEquals("Invalid input", resp.getHeaders().getFirst("X-Error"));
     }
 
+    @Test
+    void saveComentario_prefersTheAuthenticatedUser() {
+        ComentariDTO dto = new ComentariDTO(null, "u1","v1","t","d");
+        when(comentariService.create(dto, "u2")).thenThrow(new IllegalArgumentException("authenticated user does not match comment userId"));
+
+        ResponseEntity<String> resp = comentariController.saveComentario(dto, "u2");
+
+        assertEquals(400, resp.getStatusCode().value());
+    }
+
     @Test
     void saveComentario_handlesNullDto() {
-        when(comentariService.create(null, null)).thenThrow(new IllegalArgumentException("dto is null"));
+        when(comentariService.create(null, "u1")).thenThrow(new IllegalArgumentException("dto is null"));
         
-        ResponseEntity<String> resp = comentariController.saveComentario(null);
+        ResponseEntity<String> resp = comentariController.saveComentario(null, "u1");
         assertEquals(400, resp.getStatusCode().value());
     }
 
+    @Test
+    void saveComentario_withoutToken_returnsUnauthorized() {
+        ComentariDTO dto = new ComentariDTO(null, "u1","v1","t","d");
+
+        ResponseEntity<String> resp = comentariController.saveComentario(dto, null);
+
+        assertEquals(401, resp.getStatusCode().value());
+        verifyNoInteractions(comentariService);
+    }
+
     @Test
     void getCommentsByVideo_returnsList() {
         when(comentariService.findByVideoId("v1")).thenReturn(List.of(new ComentariDTO("1","u1","v1","t","d")));
@@ -121,4 +143,26 @@ class ComentariControllerTest {
         assertNotNull(body);
         assertEquals(1, body.size());
     }
+
+    @Test
+    void getCommentPageByVideo_returnsPage() {
+        CommentPageDTO page = new CommentPageDTO(List.of(new ComentariDTO("1","u1","v1","t","d", 10L)), "next");
+        when(comentariService.findPageByVideoId("v1", null, 20, false)).thenReturn(page);
+
+        var resp = comentariController.getCommentPageByVideo("v1", null, 20, "newest");
+
+        assertEquals(200, resp.getStatusCode().value());
+        assertEquals(page, resp.getBody());
+    }
+
+    @Test
+    void getCommentPageByVideo_rejectsBadInput() {
+        var badOrder = comentariController.getCommentPageByVideo("v1", null, null, "random");
+        assertEquals(400, badOrder.getStatusCode().value());
+
+        when(comentariService.findPageByVideoId("v1", "bad", null, true)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+        var badCursor = comentariController.getCommentPageByVideo("v1", "bad", null, "oldest");
+        assertEquals(400, badCursor.getStatusCode().value());
+        assertEquals("Invalid cursor", badCursor.getHeaders().getFirst("X-Error"));
+    }
 }
@@ -61,6 +61,20 @@ class LikeControllerTest {
         assertEquals("v2", result.get(1));
     }
 
+    @Test
+    void getLikedAndWatchedByUser_returnsServiceResult() {
+        when(likeService.getLikedAndWatchedVideoIds("u1")).thenReturn(List.of("v2"));
+
+        assertEquals(List.of("v2"), controller.getLikedAndWatchedByUser("u1"));
+    }
+
+    @Test
+    void countLikes_returnsServiceCount() {
+        when(likeService.countLikes("v1")).thenReturn(5L);
+
+        assertEquals(5L, controller.countLikes("v1"));
+    }
+
     @Test
     void unlikeVideo_callsService() {
         doNothing().when(likeService).unlikeVideo("u1", "v1");
@@ -69,4 +83,24 @@ class LikeControllerTest {
 
         verify(likeService).unlikeVideo("u1", "v1");
     }
+
+    @Test
+    void areVideosLikedByUser_returnsArray() {
+        when(likeService.areVideosLikedByUser("u1", List.of("v1", "v2"))).thenReturn(new boolean[]{false, true});
+
+        var resp = controller.areVideosLikedByUser("u1", List.of("v1", "v2"));
+
+        assertEquals(200, resp.getStatusCode().value());
+        assertArrayEquals(new boolean[]{false, true}, resp.getBody());
+    }
+
+    @Test
+    void areVideosLikedByUser_badRequestOnInvalidBatch() {
+        when(likeService.areVideosLikedByUser("u1", null)).thenThrow(new IllegalArgumentException("videoIds is required"));
+
+        var resp = controller.areVideosLikedByUser("u1", null);
+
+        assertEquals(400, resp.getStatusCode().value());
+        assertEquals("videoIds is required", resp.getHeaders().getFirst("X-Error"));
+    }
 }
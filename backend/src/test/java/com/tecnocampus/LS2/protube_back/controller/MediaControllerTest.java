@@ -0,0 +1,76 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.services.MediaStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MediaControllerTest {
+
+    private MediaStreamService mediaStreamService;
+    private MediaController controller;
+
+    @BeforeEach
+    void setUp() {
+        mediaStreamService = mock(MediaStreamService.class);
+        controller = new MediaController(mediaStreamService);
+    }
+
+    @Test
+    void getMedia_resolvesDecodedPathAndServes() throws Exception {
+        Path file = Path.of("my clip.mp4");
+        when(mediaStreamService.resolve("my clip.mp4")).thenReturn(file);
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/my%20clip.mp4");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        controller.getMedia(req, res);
+
+        verify(mediaStreamService).serve(file, req, res);
+    }
+
+    @Test
+    void getMedia_missingFile_returnsNotFound() throws Exception {
+        when(mediaStreamService.resolve(any())).thenReturn(null);
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/nope.mp4");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        controller.getMedia(req, res);
+
+        assertEquals(404, res.getStatus());
+        verify(mediaStreamService, never()).serve(any(), any(), any());
+    }
+
+    @Test
+    void getMedia_privateStoreFiles_returnNotFound(@TempDir Path store) throws Exception {
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(store.toString());
+        MediaController real = new MediaController(new MediaStreamService(env, null));
+        Files.createDirectories(store.resolve(".uploads"));
+        Files.writeString(store.resolve(".uploads/abc.part"), "partial upload");
+        Files.writeString(store.resolve(".uploads/abc.json"), "{}");
+        Files.writeString(store.resolve("comments-0000000001.wal"), "{}");
+        Files.writeString(store.resolve("likes.snapshot.json"), "[]");
+        Files.writeString(store.resolve("comments.json"), "[]");
+        Files.writeString(store.resolve("0.mp4"), "video");
+
+        for (String path : new String[]{".uploads/abc.part", ".uploads/abc.json", "comments-0000000001.wal",
+                "likes.snapshot.json", "comments.json"}) {
+            MockHttpServletResponse res = new MockHttpServletResponse();
+            real.getMedia(new MockHttpServletRequest("GET", "/media/" + path), res);
+            assertEquals(404, res.getStatus(), path);
+        }
+        MockHttpServletResponse video = new MockHttpServletResponse();
+        real.getMedia(new MockHttpServletRequest("GET", "/media/0.mp4"), video);
+        assertEquals(200, video.getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.MediaJobDTO;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.services.MediaJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MediaJobControllerTest {
+
+    private MediaJobService mediaJobService;
+    private MediaJobController controller;
+
+    @BeforeEach
+    void setUp() {
+        mediaJobService = mock(MediaJobService.class);
+        controller = new MediaJobController(mediaJobService);
+    }
+
+    @Test
+    void getJob_found_returnsStatus() {
+        MediaJob job = new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, "a.mp4", "in", null, "out");
+        job.setStatus(MediaJob.Status.RUNNING);
+        when(mediaJobService.findById(job.getId())).thenReturn(Optional.of(job));
+
+        ResponseEntity<MediaJobDTO> res = controller.getJob(job.getId());
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("RUNNING", res.getBody().status());
+        assertEquals("a.mp4", res.getBody().videoFileName());
+    }
+
+    @Test
+    void getJob_missing_returnsNotFound() {
+        when(mediaJobService.findById("nope")).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, controller.getJob("nope").getStatusCode());
+    }
+
+    @Test
+    void getLatestJobForVideo_delegatesToService() {
+        MediaJob job = new MediaJob(MediaJob.Type.IMAGE_THUMBNAIL, MediaJob.Priority.INTERACTIVE, "b.mp4", "in", "b.mp4", "out");
+        when(mediaJobService.findLatestByVideoFileName("b.mp4")).thenReturn(Optional.of(job));
+
+        ResponseEntity<MediaJobDTO> res = controller.getLatestJobForVideo("b.mp4");
+
+        assertEquals("IMAGE_THUMBNAIL", res.getBody().type());
+    }
+}
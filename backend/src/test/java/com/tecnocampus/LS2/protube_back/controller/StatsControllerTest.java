@@ -0,0 +1,68 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UniqueViewersDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewStatsDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.ViewBucketDTO;
+import com.tecnocampus.LS2.protube_back.services.ViewCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatsControllerTest {
+
+    private ViewCounter viewCounter;
+    private StatsController controller;
+
+    @BeforeEach
+    void setUp() {
+        viewCounter = mock(ViewCounter.class);
+        controller = new StatsController(viewCounter);
+    }
+
+    @Test
+    void getVideoViews_returnsStats() {
+        VideoViewStatsDTO stats = new VideoViewStatsDTO("v1", 7, "day", List.of(new ViewBucketDTO(0, 7)));
+        when(viewCounter.stats("v1", "day", 1)).thenReturn(stats);
+
+        ResponseEntity<VideoViewStatsDTO> response = controller.getVideoViews("v1", "day", 1);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(stats, response.getBody());
+    }
+
+    @Test
+    void getVideoViews_badParametersIs400() {
+        when(viewCounter.stats("v1", "week", null)).thenThrow(new IllegalArgumentException("granularity must be minute, hour or day"));
+
+        ResponseEntity<VideoViewStatsDTO> response = controller.getVideoViews("v1", "week", null);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("granularity must be minute, hour or day", response.getHeaders().getFirst("X-Error"));
+    }
+
+    @Test
+    void getUniqueViewers_returnsEstimate() {
+        UniqueViewersDTO viewers = new UniqueViewersDTO("v1", 1, 3, List.of(new ViewBucketDTO(0, 3)));
+        when(viewCounter.uniqueViewers("v1", 1)).thenReturn(viewers);
+
+        ResponseEntity<UniqueViewersDTO> response = controller.getUniqueViewers("v1", 1);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(viewers, response.getBody());
+    }
+
+    @Test
+    void getUniqueViewers_badDaysIs400() {
+        when(viewCounter.uniqueViewers("v1", 0)).thenThrow(new IllegalArgumentException("days must be between 1 and 90"));
+
+        ResponseEntity<UniqueViewersDTO> response = controller.getUniqueViewers("v1", 0);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("days must be between 1 and 90", response.getHeaders().getFirst("X-Error"));
+    }
+}
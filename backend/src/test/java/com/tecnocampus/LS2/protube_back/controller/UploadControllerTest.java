@@ -0,0 +1,111 @@
+package com.tecnocampus.LS2.protube_back.controller;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadCreateDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadSessionDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.UploadSession;
+import com.tecnocampus.LS2.protube_back.services.ChunkedUploadService;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.services.VideoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UploadControllerTest {
+
+    private ChunkedUploadService uploadService;
+    private UploadController controller;
+
+    @BeforeEach
+    void setUp() {
+        uploadService = mock(ChunkedUploadService.class);
+        controller = new UploadController(uploadService);
+    }
+
+    @Test
+    void createUpload_returnsCreatedSession() throws Exception {
+        UploadCreateDTO req = new UploadCreateDTO("a.mp4", 25, 10, "u", "t", "d");
+        UploadSession session = new UploadSession("u", "t", "d", "a.mp4", 25, 10);
+        when(uploadService.create(req)).thenReturn(session);
+
+        ResponseEntity<UploadSessionDTO> res = controller.createUpload(req);
+
+        assertEquals(HttpStatus.CREATED, res.getStatusCode());
+        assertEquals(3, res.getBody().totalChunks());
+    }
+
+    @Test
+    void createUpload_invalid_returnsBadRequest() throws Exception {
+        when(uploadService.create(any())).thenThrow(new IllegalArgumentException("No file provided"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.createUpload(null).getStatusCode());
+    }
+
+    @Test
+    void putChunk_passesBodyAndChecksum() throws Exception {
+        UploadSession session = new UploadSession("u", "t", "d", "a.mp4", 25, 10);
+        session.getReceived().add(1);
+        MockHttpServletRequest req = new MockHttpServletRequest("PUT", "/api/uploads/x/chunks/1");
+        req.setContent(new byte[10]);
+        when(uploadService.writeChunk(eq("x"), eq(1), any(), eq("abc"))).thenReturn(Optional.of(session));
+
+        ResponseEntity<UploadSessionDTO> res = controller.putChunk("x", 1, "abc", req);
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(java.util.List.of(1), res.getBody().received());
+    }
+
+    @Test
+    void putChunk_unknownSession_returnsNotFound() throws Exception {
+        when(uploadService.writeChunk(anyString(), anyInt(), any(), any())).thenReturn(Optional.empty());
+
+        ResponseEntity<UploadSessionDTO> res = controller.putChunk("x", 0, null, new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.NOT_FOUND, res.getStatusCode());
+    }
+
+    @Test
+    void completeUpload_incomplete_returnsConflict() throws Exception {
+        when(uploadService.complete("x")).thenThrow(new IllegalStateException("missing chunks"));
+
+        assertEquals(HttpStatus.CONFLICT, controller.completeUpload("x").getStatusCode());
+    }
+
+    @Test
+    void completeUpload_returnsVideo() throws Exception {
+        when(uploadService.complete("x")).thenReturn(Optional.of(
+                new VideoService.StoredVideo(new videoSaveDTO("u", "t", "d", "id_a.mp4"), null)));
+
+        ResponseEntity<videoSaveDTO> res = controller.completeUpload("x");
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("id_a.mp4", res.getBody().fileName());
+        assertNull(res.getHeaders().getFirst("X-Media-Job-Id"));
+    }
+
+    @Test
+    void completeUpload_returnsThumbnailJobIdHeader() throws Exception {
+        MediaJob job = new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, "id_a.mp4", "in", null, "out");
+        when(uploadService.complete("x")).thenReturn(Optional.of(
+                new VideoService.StoredVideo(new videoSaveDTO("u", "t", "d", "id_a.mp4"), job)));
+
+        ResponseEntity<videoSaveDTO> res = controller.completeUpload("x");
+
+        assertEquals(job.getId(), res.getHeaders().getFirst("X-Media-Job-Id"));
+    }
+
+    @Test
+    void abortUpload_missing_returnsNotFound() {
+        when(uploadService.abort("x")).thenReturn(false);
+
+        assertEquals(HttpStatus.NOT_FOUND, controller.abortUpload("x").getStatusCode());
+    }
+}
@@ -1,6 +1,7 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
 import com.tecnocampus.LS2.protube_back.controller.dto.UserDTO;
+import com.tecnocampus.LS2.protube_back.services.TokenService;
 import com.tecnocampus.LS2.protube_back.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,20 +11,25 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UserControllerTest {
 
     private UserService userService;
+    private TokenService tokenService;
     private UserController controller;
 
     @BeforeEach
     void setUp() {
         userService = mock(UserService.class);
-        controller = new UserController(userService);
+        tokenService = mock(TokenService.class);
+        controller = new UserController(userService, tokenService);
     }
 
     @Test
@@ -44,11 +50,14 @@ class UserControllerTest {
     @Test
     void registerUserSuccess() {
         doNothing().when(userService).register("alex", "alex@example.com", "pw");
+        when(tokenService.issue("alex")).thenReturn("signed-token");
         ResponseEntity<String> res = controller.registerUser("alex", "alex@example.com", "pw");
         assertEquals(200, res.getStatusCode().value());
         var body = res.getBody();
         assertNotNull(body);
         assertTrue(body.toLowerCase().contains("registered"));
+        assertEquals("signed-token", res.getHeaders().getFirst(UserController.TOKEN_HEADER));
+        assertEquals("alex", res.getHeaders().getFirst(UserController.USER_ID_HEADER));
     }
 
     @Test
@@ -59,16 +68,21 @@ class UserControllerTest {
         var body = res.getBody();
         assertNotNull(body);
         assertTrue(body.toLowerCase().contains("ya existe") || body.toLowerCase().contains("exists"));
+        verify(tokenService, never()).issue(anyString());
     }
 
     @Test
     void loginUserSuccess() {
         doNothing().when(userService).login("u@example.com", "pw");
+        when(userService.getUsernameByEmail("u@example.com")).thenReturn("u");
+        when(tokenService.issue("u")).thenReturn("signed-token");
         ResponseEntity<String> res = controller.loginUser("u@example.com", "pw");
         assertEquals(200, res.getStatusCode().value());
         var body = res.getBody();
         assertNotNull(body);
         assertTrue(body.toLowerCase().contains("logged in") || body.toLowerCase().contains("logged"));
+        assertEquals("signed-token", res.getHeaders().getFirst(UserController.TOKEN_HEADER));
+        assertEquals("u", res.getHeaders().getFirst(UserController.USER_ID_HEADER));
     }
 
     @Test
@@ -1,7 +1,11 @@
 package com.tecnocampus.LS2.protube_back.controller;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoPageDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoSummaryDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
 import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.services.VideoCatalog;
 import com.tecnocampus.LS2.protube_back.services.VideoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,9 +17,11 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,6 +40,9 @@ class VideosControllerTest {
     @Mock
     VideoService videoService;
 
+    @Mock
+    VideoCatalog videoCatalog;
+
 
     private Video sample1;
     private Video sample2;
@@ -84,7 +93,7 @@ class VideosControllerTest {
         when(videoService.getAll()).thenReturn(new ArrayList<>(fakeDb));
 
         // delete: remove from fakeDb and return whether removed
-        when(videoService.deleteVideo(anyString())).thenAnswer(invocation -> {
+        when(videoService.deleteVideo(anyString(), any())).thenAnswer(invocation -> {
             String id = invocation.getArgument(0);
             return fakeDb.removeIf(v -> id.equals(v.getVideoId()));
         });
@@ -123,6 +132,19 @@ class VideosControllerTest {
         assertNull(res.getBody());
     }
 
+    @Test
+    void getVideoDescription_found_returnsFullDescription() {
+        ResponseEntity<String> res = videosController.getVideoDescription("1");
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("Description A", res.getBody());
+    }
+
+    @Test
+    void getVideoDescription_notFound_returnsNotFound() {
+        ResponseEntity<String> res = videosController.getVideoDescription("missing-id");
+        assertEquals(HttpStatus.NOT_FOUND, res.getStatusCode());
+    }
+
     @Test
     void getAllVideos_returnsAllAndOk() {
         ResponseEntity<List<Video>> res = videosController.getAllVideos();
@@ -137,7 +159,7 @@ class VideosControllerTest {
     @Test
     void deleteVideo_success_returnsNoContentAndRemoves() {
         int before = fakeDb.size();
-        ResponseEntity<Void> res = videosController.deleteVideo("1");
+        ResponseEntity<Void> res = videosController.deleteVideo("1", null);
         assertEquals(HttpStatus.NO_CONTENT, res.getStatusCode());
         assertNull(res.getBody());
         assertEquals(before - 1, fakeDb.size());
@@ -148,11 +170,21 @@ class VideosControllerTest {
     @Test
     void deleteVideo_notFound_returnsNotFoundAndKeepsDb() {
         int before = fakeDb.size();
-        ResponseEntity<Void> res = videosController.deleteVideo("nope");
+        ResponseEntity<Void> res = videosController.deleteVideo("nope", null);
         assertEquals(HttpStatus.NOT_FOUND, res.getStatusCode());
         assertEquals(before, fakeDb.size());
     }
 
+    @Test
+    void deleteVideo_byANonOwnerReturnsForbidden() {
+        when(videoService.deleteVideo("1", "intruder")).thenThrow(new IllegalStateException("not yours"));
+
+        ResponseEntity<Void> res = videosController.deleteVideo("1", "intruder");
+
+        assertEquals(HttpStatus.FORBIDDEN, res.getStatusCode());
+        assertEquals("not yours", res.getHeaders().getFirst("X-Error"));
+    }
+
     @Test
     void saveVideo_returnsOkBodyAndPersists() {
         ResponseEntity<String> res = videosController.saveVideo(sampleSaveDto);
@@ -165,4 +197,88 @@ class VideosControllerTest {
         boolean found = fakeDb.stream().anyMatch(v -> "Saved Video".equals(v.getTitle()));
         assertTrue(found);
     }
-}
\ No newline at end of file
+
+    @Test
+    void uploadVideo_returnsMediaJobIdHeader() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "up.mp4", "video/mp4", "x".getBytes());
+        videoSaveDTO stored = new videoSaveDTO("userC", "Up", "Desc", "abc_up.mp4");
+        MediaJob job = new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, "abc_up.mp4", "in", null, "out");
+        when(videoService.uploadAndSave(file, null, null, false)).thenReturn(new VideoService.StoredVideo(stored, job));
+
+        ResponseEntity<videoSaveDTO> res = videosController.uploadVideo(file, null, null, false);
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(job.getId(), res.getHeaders().getFirst("X-Media-Job-Id"));
+        assertEquals("abc_up.mp4", res.getBody().fileName());
+        assertNull(res.getHeaders().getFirst("X-Duplicate-Of"));
+    }
+
+    @Test
+    void uploadVideo_duplicateContentNamesTheExistingVideo() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "up.mp4", "video/mp4", "x".getBytes());
+        videoSaveDTO existing = new videoSaveDTO("userA", "First Video", "Description A", "abc_up.mp4");
+        when(videoService.uploadAndSave(file, null, null, false)).thenReturn(new VideoService.StoredVideo(existing, null, "1"));
+
+        ResponseEntity<videoSaveDTO> res = videosController.uploadVideo(file, null, null, false);
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("1", res.getHeaders().getFirst("X-Duplicate-Of"));
+        assertEquals("First Video", res.getBody().title());
+    }
+
+    @Test
+    void uploadVideo_thumbnailConflictReturnsConflict() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "up.mp4", "video/mp4", "x".getBytes());
+        MockMultipartFile thumb = new MockMultipartFile("thumbnail", "t.png", "image/png", "png".getBytes());
+        when(videoService.uploadAndSave(file, thumb, null, false)).thenThrow(new IllegalStateException("taken"));
+
+        ResponseEntity<videoSaveDTO> res = videosController.uploadVideo(file, thumb, null, false);
+
+        assertEquals(HttpStatus.CONFLICT, res.getStatusCode());
+        assertEquals("taken", res.getHeaders().getFirst("X-Error"));
+    }
+
+    @Test
+    void getCatalog_returnsSnapshotWithEtag() {
+        VideoSummaryDTO summary = new VideoSummaryDTO("1", "userA", "First Video", "Description A", "fileA.mp4",
+                "/media/fileA.webp", "Channel", 10L, 2L, 30.0, List.of(), List.of());
+        when(videoCatalog.snapshot()).thenReturn(new VideoCatalog.Snapshot(7, List.of(summary)));
+
+        ResponseEntity<List<VideoSummaryDTO>> resp = videosController.getCatalog(null);
+
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertEquals("\"catalog-7\"", resp.getHeaders().getETag());
+        assertEquals(List.of(summary), resp.getBody());
+    }
+
+    @Test
+    void getCatalog_unchangedReturnsNotModified() {
+        when(videoCatalog.snapshot()).thenReturn(new VideoCatalog.Snapshot(7, List.of()));
+
+        ResponseEntity<List<VideoSummaryDTO>> resp = videosController.getCatalog("\"catalog-7\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, resp.getStatusCode());
+        assertNull(resp.getBody());
+    }
+
+    @Test
+    void getVideoPage_returnsServicePage() {
+        VideoPageDTO page = new VideoPageDTO(List.of(), "abc");
+        when(videoService.listPage("cur", 10, true)).thenReturn(page);
+
+        ResponseEntity<VideoPageDTO> resp = videosController.getVideoPage("cur", 10, true);
+
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertSame(page, resp.getBody());
+    }
+
+    @Test
+    void getVideoPage_invalidArgumentsReturnBadRequest() {
+        when(videoService.listPage(null, 0, false)).thenThrow(new IllegalArgumentException("limit must be between 1 and 200"));
+
+        ResponseEntity<VideoPageDTO> resp = videosController.getVideoPage(null, 0, false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+        assertEquals("limit must be between 1 and 200", resp.getHeaders().getFirst("X-Error"));
+    }
+}
@@ -0,0 +1,235 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecnocampus.LS2.protube_back.domain.Comentari;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private AppendOnlyLog<Comentari> newLog() {
+        return new AppendOnlyLog<>(tempDir, "comments", Comentari.class, mapper);
+    }
+
+    private static AppendOnlyLog.Replay<Comentari> into(Map<String, Comentari> state) {
+        return new AppendOnlyLog.Replay<>() {
+            @Override
+            public void put(String key, Comentari value) {
+                state.put(key, value);
+            }
+
+            @Override
+            public void delete(String key) {
+                state.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                state.clear();
+            }
+        };
+    }
+
+    private List<String> walFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(p -> p.getFileName().toString()).filter(n -> n.endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    @Test
+    void open_onEmptyDirectoryReportsNothingRecovered() throws IOException {
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            assertFalse(log.open(into(new HashMap<>())));
+        }
+    }
+
+    @Test
+    void replay_appliesOperationsInOrder() throws IOException {
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "first"));
+            log.appendPut("b", new Comentari("b", "u", "v", "t", "b"));
+            log.appendClear();
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "second"));
+            log.appendPut("c", new Comentari("c", "u", "v", "t", "c"));
+            log.appendDelete("c");
+        }
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            assertTrue(log.open(into(state)));
+        }
+
+        assertEquals(1, state.size());
+        assertEquals("second", state.get("a").getDescripcion());
+    }
+
+    @Test
+    void replay_skipsTornTrailingLine() throws IOException {
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "d"));
+        }
+        Path segment = tempDir.resolve(walFiles().get(0));
+        Files.writeString(segment, "{\"op\":\"PUT\",\"key\":\"b\",\"val", StandardOpenOption.APPEND);
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(state));
+            // appends after recovery go to a new segment, never after the torn line
+            log.appendPut("c", new Comentari("c", "u", "v", "t", "d"));
+        }
+
+        assertEquals(1, state.size());
+        assertEquals("d", state.get("a").getDescripcion());
+        assertEquals(2, walFiles().size());
+    }
+
+    @Test
+    void compact_writesSnapshotAndDropsSealedSegments() throws IOException {
+        Map<String, Comentari> live = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(live));
+            for (int i = 0; i < 10; i++) {
+                Comentari c = new Comentari("k" + i, "u", "v", "t", "d" + i);
+                live.put(c.getId(), c);
+                log.appendPut(c.getId(), c);
+            }
+            assertTrue(log.bytesSinceCompaction() > 0);
+
+            log.compact(() -> new HashMap<>(live));
+
+            assertEquals(0, log.bytesSinceCompaction());
+            assertEquals(1, walFiles().size());
+            assertTrue(Files.exists(tempDir.resolve("comments.snapshot.json")));
+            live.remove("k0");
+            log.appendDelete("k0");
+        }
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(state));
+        }
+        assertEquals(9, state.size());
+        assertFalse(state.containsKey("k0"));
+        assertEquals("d9", state.get("k9").getDescripcion());
+    }
+
+    @Test
+    void compact_writeRacingTheStateCopyIsStillRecovered() throws IOException {
+        Map<String, Comentari> live = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(live));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "old"));
+
+            // the state handed to compaction already contains a write that was logged after the rotation
+            log.compact(() -> {
+                try {
+                    log.appendPut("a", new Comentari("a", "u", "v", "t", "new"));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return Map.of("a", new Comentari("a", "u", "v", "t", "new"));
+            });
+        }
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(state));
+        }
+        assertEquals("new", state.get("a").getDescripcion());
+    }
+
+    @Test
+    void open_deletesSegmentsAlreadyCoveredBySnapshot() throws IOException {
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "d"));
+            log.compact(() -> Map.of("a", new Comentari("a", "u", "v", "t", "d")));
+        }
+        // simulate a crash between writing the snapshot and deleting its input segments
+        Files.writeString(tempDir.resolve("comments-0000000000.wal"),
+                "{\"op\":\"DELETE\",\"key\":\"a\",\"value\":null}\n");
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(state));
+        }
+
+        assertTrue(state.containsKey("a"));
+        assertFalse(Files.exists(tempDir.resolve("comments-0000000000.wal")));
+    }
+
+    @Test
+    void append_beforeOpenFails() {
+        AppendOnlyLog<Comentari> log = newLog();
+        assertThrows(IOException.class, () -> log.appendDelete("a"));
+    }
+
+    @Test
+    void asyncAppend_isQueuedUntilFlushed() throws IOException {
+        // an interval long enough that only flush() or close() can write the queue
+        try (AppendOnlyLog<Comentari> log = new AppendOnlyLog<>(tempDir, "comments", Comentari.class, mapper,
+                AppendOnlyLog.Durability.ASYNC, 60_000, 1_000)) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "d"));
+            Path segment = tempDir.resolve(walFiles().get(0));
+            assertEquals(0, Files.size(segment));
+            assertTrue(log.bytesSinceCompaction() > 0);
+
+            log.flush();
+            assertTrue(Files.readString(segment).contains("\"key\":\"a\""));
+        }
+    }
+
+    @Test
+    void asyncAppend_writerFlushesOnceBatchIsFull() throws Exception {
+        try (AppendOnlyLog<Comentari> log = new AppendOnlyLog<>(tempDir, "comments", Comentari.class, mapper,
+                AppendOnlyLog.Durability.ASYNC, 60_000, 2)) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "d"));
+            log.appendPut("b", new Comentari("b", "u", "v", "t", "d"));
+            Path segment = tempDir.resolve(walFiles().get(0));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (Files.readAllLines(segment).size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, Files.readAllLines(segment).size());
+        }
+    }
+
+    @Test
+    void asyncAppend_closeAndCompactWriteTheQueue() throws IOException {
+        try (AppendOnlyLog<Comentari> log = new AppendOnlyLog<>(tempDir, "comments", Comentari.class, mapper,
+                AppendOnlyLog.Durability.ASYNC, 60_000, 1_000)) {
+            log.open(into(new HashMap<>()));
+            log.appendPut("a", new Comentari("a", "u", "v", "t", "d"));
+            // queued before the rotation, so it must end up in the sealed segment and not be lost with it
+            log.compact(HashMap::new);
+            log.appendPut("b", new Comentari("b", "u", "v", "t", "d"));
+        }
+
+        Map<String, Comentari> state = new HashMap<>();
+        try (AppendOnlyLog<Comentari> log = newLog()) {
+            log.open(into(state));
+        }
+        assertEquals(Set.of("b"), state.keySet());
+    }
+}
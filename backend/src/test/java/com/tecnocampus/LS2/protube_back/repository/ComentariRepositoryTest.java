@@ -2,9 +2,13 @@ package com.tecnocampus.LS2.protube_back.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.tecnocampus.LS2.protube_back.domain.Comentari;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -109,4 +113,184 @@ class ComentariRepositoryTest {
     void deleteByIdReturnsFalseWhenNotFound() {
         assertFalse(repo.deleteById("non-existent"));
     }
+
+    @Test
+    void writesSurviveRestartThroughTheLog(@TempDir Path dir) {
+        ComentariRepository first = new ComentariRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        first.load();
+        Comentari a = first.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        Comentari b = first.save(new Comentari(null, "u2", "v1", "t2", "d2"));
+        first.deleteById(a.getId());
+        first.close();
+
+        ComentariRepository second = new ComentariRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+
+        assertEquals(1, second.findAll().size());
+        assertEquals("d2", second.findById(b.getId()).orElseThrow().getDescripcion());
+        assertFalse(Files.exists(dir.resolve("comments.json")));
+    }
+
+    @Test
+    void compactIfNeeded_foldsLogOnceThresholdIsReached(@TempDir Path dir) throws Exception {
+        ComentariRepository repository = new ComentariRepository();
+        ReflectionTestUtils.setField(repository, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(repository, "compactBytes", 1L);
+        repository.load();
+        repository.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+
+        repository.compactIfNeeded();
+
+        assertTrue(Files.exists(dir.resolve("comments.snapshot.json")));
+        repository.close();
+    }
+
+    @Test
+    void load_importsLegacyCommentsFile(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("comments.json"),
+                "[{\"id\":\"c1\",\"userId\":\"u\",\"videoId\":\"v\",\"titulo\":\"t\",\"descripcion\":\"d\"}]");
+
+        ComentariRepository repository = new ComentariRepository();
+        ReflectionTestUtils.setField(repository, "storeDir", dir.toString());
+        repository.load();
+
+        assertTrue(repository.findById("c1").isPresent());
+        assertTrue(Files.exists(dir.resolve("comments.snapshot.json")));
+        repository.close();
+    }
+
+    @Test
+    void findByVideoIdKeepsSaveOrder() {
+        Comentari first = repo.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        Comentari second = repo.save(new Comentari(null, "u2", "v1", "t2", "d2"));
+        Comentari third = repo.save(new Comentari(null, "u3", "v1", "t3", "d3"));
+        // updating a comment does not move it
+        repo.save(new Comentari(first.getId(), "u1", "v1", "t1", "edited"));
+
+        List<String> ids = repo.findByVideoId("v1").stream().map(Comentari::getId).toList();
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), ids);
+        assertEquals("edited", repo.findByVideoId("v1").get(0).getDescripcion());
+    }
+
+    @Test
+    void resaveUnderAnotherVideoMovesIndexEntries() {
+        Comentari c = repo.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+
+        repo.save(new Comentari(c.getId(), "u2", "v2", "t1", "d1"));
+
+        assertTrue(repo.findByVideoId("v1").isEmpty());
+        assertTrue(repo.findByUserId("u1").isEmpty());
+        assertEquals(1, repo.findByVideoId("v2").size());
+        assertEquals(1, repo.findByUserId("u2").size());
+        assertFalse(repo.findAllGroupedByVideo().containsKey("v1"));
+    }
+
+    @Test
+    void deleteAndClearDropIndexEntries() {
+        Comentari a = repo.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        repo.save(new Comentari(null, "u1", "v2", "t2", "d2"));
+
+        repo.deleteById(a.getId());
+        assertTrue(repo.findByVideoId("v1").isEmpty());
+        assertEquals(1, repo.findByUserId("u1").size());
+
+        repo.clear();
+        assertTrue(repo.findByUserId("u1").isEmpty());
+        assertTrue(repo.findAllGroupedByVideo().isEmpty());
+    }
+
+    @Test
+    void indexesAreRebuiltOnLoad(@TempDir Path dir) {
+        ComentariRepository first = new ComentariRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        first.load();
+        Comentari a = first.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        Comentari b = first.save(new Comentari(null, "u2", "v1", "t2", "d2"));
+        first.save(new Comentari(null, "u1", "v2", "t3", "d3"));
+        first.close();
+
+        ComentariRepository second = new ComentariRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+
+        assertEquals(List.of(a.getId(), b.getId()), second.findByVideoId("v1").stream().map(Comentari::getId).toList());
+        assertEquals(2, second.findByUserId("u1").size());
+        second.close();
+    }
+
+    @Test
+    void saveAssignsIncreasingCreatedAtAndKeepsItOnResave() {
+        Comentari a = repo.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        Comentari b = repo.save(new Comentari(null, "u1", "v1", "t2", "d2"));
+        assertTrue(a.getCreatedAt() > 0);
+        assertTrue(b.getCreatedAt() > a.getCreatedAt());
+
+        long created = a.getCreatedAt();
+        Comentari edited = new Comentari(a.getId(), "u1", "v1", "edited", "d1");
+        repo.save(edited);
+        assertEquals(created, edited.getCreatedAt());
+    }
+
+    @Test
+    void findPageByVideoIdWalksBothDirectionsFromACursor() {
+        List<Comentari> saved = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            saved.add(repo.save(new Comentari(null, "u1", "v1", "t" + i, "d")));
+        }
+        repo.save(new Comentari(null, "u1", "v2", "other", "d"));
+
+        List<Comentari> newest = repo.findPageByVideoId("v1", 0, null, 2, true);
+        assertEquals(List.of(saved.get(4).getId(), saved.get(3).getId()), newest.stream().map(Comentari::getId).toList());
+
+        Comentari last = newest.get(1);
+        List<Comentari> next = repo.findPageByVideoId("v1", last.getCreatedAt(), last.getId(), 10, true);
+        assertEquals(List.of(saved.get(2).getId(), saved.get(1).getId(), saved.get(0).getId()),
+                next.stream().map(Comentari::getId).toList());
+
+        List<Comentari> oldest = repo.findPageByVideoId("v1", saved.get(1).getCreatedAt(), saved.get(1).getId(), 2, false);
+        assertEquals(List.of(saved.get(2).getId(), saved.get(3).getId()), oldest.stream().map(Comentari::getId).toList());
+
+        assertTrue(repo.findPageByVideoId("missing", 0, null, 10, true).isEmpty());
+    }
+
+    @Test
+    void createdAtSurvivesRestart(@TempDir Path dir) {
+        ComentariRepository first = new ComentariRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        first.load();
+        Comentari a = first.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+        first.close();
+
+        ComentariRepository second = new ComentariRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+        assertEquals(a.getCreatedAt(), second.findById(a.getId()).orElseThrow().getCreatedAt());
+        Comentari b = second.save(new Comentari(null, "u1", "v1", "t2", "d2"));
+        assertTrue(b.getCreatedAt() > a.getCreatedAt());
+        second.close();
+    }
+
+    @Test
+    void strictDurability_writesReachTheLogBeforeSaveReturns(@TempDir Path dir) throws Exception {
+        ComentariRepository repository = new ComentariRepository();
+        ReflectionTestUtils.setField(repository, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(repository, "durability", "strict");
+        repository.load();
+        Comentari saved = repository.save(new Comentari(null, "u1", "v1", "t1", "d1"));
+
+        String wal = Files.readString(dir.resolve("comments-0000000000.wal"));
+        assertTrue(wal.contains(saved.getId()));
+        repository.close();
+    }
+
+    @Test
+    void load_rejectsUnknownDurability(@TempDir Path dir) {
+        ComentariRepository repository = new ComentariRepository();
+        ReflectionTestUtils.setField(repository, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(repository, "durability", "sometimes");
+        assertThrows(IllegalArgumentException.class, repository::load);
+    }
 }
@@ -0,0 +1,78 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) sketch.offer(HyperLogLog.hash("user" + i));
+        return sketch;
+    }
+
+    @Test
+    void smallCountsAreExactAndRepeatsDontCount() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+
+        assertTrue(sketch.offer(HyperLogLog.hash("a")));
+        assertFalse(sketch.offer(HyperLogLog.hash("a")));
+        sketch.offer(HyperLogLog.hash("b"));
+        sketch.offer(HyperLogLog.hash("c"));
+
+        assertEquals(3, sketch.estimate());
+    }
+
+    @Test
+    void largeCountsStayWithinAFewPercent() {
+        for (int n : new int[]{1_000, 20_000, 500_000}) {
+            long estimate = sketchOf(0, n).estimate();
+            assertEquals(n, estimate, n * 0.05, "n=" + n);
+        }
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog a = sketchOf(0, 30_000);
+        HyperLogLog b = sketchOf(20_000, 50_000);
+
+        assertTrue(a.merge(b));
+        assertFalse(a.merge(b));
+        assertEquals(50_000, a.estimate(), 50_000 * 0.05);
+        assertEquals(sketchOf(0, 50_000).estimate(), a.estimate());
+    }
+
+    @Test
+    void bytesRoundTripInBothForms() {
+        HyperLogLog sparse = sketchOf(0, 100);
+        HyperLogLog dense = sketchOf(0, 10_000);
+
+        byte[] sparseBytes = sparse.toBytes();
+        byte[] denseBytes = dense.toBytes();
+
+        assertTrue(sparseBytes.length < 1 + 4 * 100 + 1);
+        assertEquals(1 + HyperLogLog.REGISTERS, denseBytes.length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparseBytes).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(denseBytes).estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{9, 1}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[0]));
+    }
+
+    @Test
+    void switchesToDensePastSparseMax() {
+        HyperLogLog sketch = new HyperLogLog();
+        int i = 0;
+        while (sketch.toBytes().length < 1 + HyperLogLog.REGISTERS) {
+            sketch.offer(HyperLogLog.hash("user" + i++));
+        }
+
+        assertTrue(i > HyperLogLog.SPARSE_MAX);
+        HyperLogLog copy = sketch.copy();
+        assertFalse(copy.merge(sketch));
+        assertEquals(sketch.estimate(), copy.estimate());
+        assertEquals(i, sketch.estimate(), i * 0.05);
+    }
+}
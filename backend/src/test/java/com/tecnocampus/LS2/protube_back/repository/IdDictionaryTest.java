@@ -0,0 +1,66 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdDictionaryTest {
+
+    @Test
+    void intern_assignsDenseIdsInFirstSeenOrder() {
+        IdDictionary dictionary = new IdDictionary();
+
+        assertEquals(0, dictionary.intern("b"));
+        assertEquals(1, dictionary.intern("a"));
+        assertEquals(0, dictionary.intern("b"));
+        assertEquals(1, dictionary.idOf("a"));
+        assertEquals(-1, dictionary.idOf("c"));
+        assertEquals("a", dictionary.nameOf(1));
+        assertNull(dictionary.nameOf(5));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void namesOf_mapsABitmapBackToNames() {
+        IdDictionary dictionary = new IdDictionary();
+        for (int i = 0; i < 300; i++) dictionary.intern("v" + i);
+        IntBitmap bitmap = new IntBitmap();
+        bitmap.add(dictionary.idOf("v299"));
+        bitmap.add(dictionary.idOf("v2"));
+
+        assertEquals(List.of("v2", "v299"), dictionary.namesOf(bitmap));
+    }
+
+    @Test
+    void intern_isConsistentUnderConcurrency() throws Exception {
+        IdDictionary dictionary = new IdDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int id = dictionary.intern("id" + i);
+                        ids.add(id);
+                        assertEquals("id" + i, dictionary.nameOf(id));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1000, dictionary.size());
+        assertEquals(1000, ids.size());
+    }
+}
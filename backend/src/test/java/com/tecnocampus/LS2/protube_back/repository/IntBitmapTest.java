@@ -0,0 +1,98 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBitmapTest {
+
+    @Test
+    void addRemoveAndContains() {
+        IntBitmap bitmap = new IntBitmap();
+
+        assertTrue(bitmap.add(7));
+        assertFalse(bitmap.add(7));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.contains(7));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(8));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(7));
+        assertFalse(bitmap.remove(7));
+        assertTrue(bitmap.remove(70_000));
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void switchesToBitmapPastArrayMaxAndBack() {
+        IntBitmap bitmap = new IntBitmap();
+        int n = IntBitmap.ARRAY_MAX + 100;
+        for (int i = 0; i < n; i++) bitmap.add(i * 3);
+
+        assertEquals(n, bitmap.cardinality());
+        assertTrue(bitmap.contains(3 * (n - 1)));
+        assertFalse(bitmap.contains(1));
+        // a dense container is a fixed 8 KiB; n sorted chars would be more
+        assertEquals(8192, bitmap.estimatedBytes());
+
+        for (int i = 0; i < 200; i++) bitmap.remove(i * 3);
+
+        assertEquals(n - 200, bitmap.cardinality());
+        assertFalse(bitmap.contains(0));
+        assertTrue(bitmap.contains(600));
+        assertTrue(bitmap.estimatedBytes() <= 2L * IntBitmap.ARRAY_MAX);
+    }
+
+    @Test
+    void and_keepsCommonValuesAcrossContainerKinds() {
+        IntBitmap dense = new IntBitmap();
+        for (int i = 0; i < 10_000; i++) dense.add(i);
+        dense.add(1 << 20);
+        IntBitmap sparse = new IntBitmap();
+        sparse.add(5);
+        sparse.add(9_999);
+        sparse.add(10_000);
+        sparse.add(1 << 20);
+        sparse.add(1 << 21);
+
+        IntBitmap both = dense.and(sparse);
+        IntBitmap other = sparse.and(dense);
+
+        assertArrayEquals(new int[]{5, 9_999, 1 << 20}, both.toArray());
+        assertArrayEquals(both.toArray(), other.toArray());
+        assertEquals(10_001, dense.and(dense).cardinality());
+    }
+
+    @Test
+    void forEach_visitsInAscendingOrder() {
+        IntBitmap bitmap = new IntBitmap();
+        bitmap.add(200_000);
+        bitmap.add(3);
+        bitmap.add(65_536);
+        bitmap.add(1);
+        List<Integer> seen = new ArrayList<>();
+
+        bitmap.forEach(seen::add);
+
+        assertEquals(List.of(1, 3, 65_536, 200_000), seen);
+    }
+
+    @Test
+    void copy_isIndependent() {
+        IntBitmap bitmap = new IntBitmap();
+        for (int i = 0; i < 5000; i++) bitmap.add(i);
+        IntBitmap copy = bitmap.copy();
+
+        bitmap.remove(1);
+        copy.add(99_999);
+
+        assertTrue(copy.contains(1));
+        assertFalse(bitmap.contains(99_999));
+        assertEquals(5001, copy.cardinality());
+        assertEquals(4999, bitmap.cardinality());
+    }
+}
@@ -3,8 +3,17 @@ package com.tecnocampus.LS2.protube_back.repository;
 import com.tecnocampus.LS2.protube_back.domain.Like;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,4 +58,122 @@ class LikeRepositoryTest {
     void removeMissingThrows() {
         assertThrows(IllegalArgumentException.class, () -> likeRepository.removeLike("no", "no"));
     }
+
+    @Test
+    void addDuplicatePairThrowsEvenForAnotherInstance() {
+        likeRepository.addLike(new Like("u1", "v1"));
+
+        assertThrows(IllegalArgumentException.class, () -> likeRepository.addLike(new Like("u1", "v1")));
+        assertFalse(likeRepository.addLikeIfAbsent(new Like("u1", "v1")));
+        assertEquals(1, likeRepository.countByVideo("v1"));
+    }
+
+    @Test
+    void indexesAndCountsFollowLikesAndUnlikes() {
+        likeRepository.addLike(new Like("u1", "v2"));
+        likeRepository.addLike(new Like("u1", "v1"));
+        likeRepository.addLike(new Like("u2", "v1"));
+
+        assertTrue(likeRepository.isLiked("u2", "v1"));
+        assertFalse(likeRepository.isLiked("u2", "v2"));
+        assertEquals(List.of("v2", "v1"), likeRepository.findVideoIdsByUser("u1"));
+        assertEquals(Set.of("u1", "u2"), likeRepository.findUserIdsByVideo("v1"));
+        assertEquals(2, likeRepository.countByVideo("v1"));
+
+        likeRepository.removeLike("u1", "v1");
+
+        assertEquals(List.of("v2"), likeRepository.findVideoIdsByUser("u1"));
+        assertEquals(Set.of("u2"), likeRepository.findUserIdsByVideo("v1"));
+        assertEquals(1, likeRepository.countByVideo("v1"));
+        assertEquals(0, likeRepository.countByVideo("unknown"));
+        assertTrue(likeRepository.findVideoIdsByUser("nobody").isEmpty());
+    }
+
+    @Test
+    void concurrentLikesOfTheSamePairAreCountedOnce() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        likeRepository.addLikeIfAbsent(new Like("u" + i, "v1"));
+                        likeRepository.addLikeIfAbsent(new Like("u" + offset + "-" + i, "v2"));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(200, likeRepository.countByVideo("v1"));
+        assertEquals(200, likeRepository.findUserIdsByVideo("v1").size());
+        assertEquals(threads * 200, likeRepository.countByVideo("v2"));
+        assertEquals(threads * 200 + 200, likeRepository.getAllLikes().size());
+    }
+
+    @Test
+    void likesSurviveRestartThroughTheLog(@TempDir Path dir) {
+        LikeRepository first = new LikeRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        first.load();
+        first.addLike(new Like("u1", "v1"));
+        first.addLike(new Like("u1", "v2"));
+        first.addLike(new Like("u2", "v1"));
+        first.removeLike("u1", "v1");
+        first.close();
+
+        LikeRepository second = new LikeRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+
+        assertEquals(List.of("v2"), second.findVideoIdsByUser("u1"));
+        assertEquals(1, second.countByVideo("v1"));
+        assertTrue(second.isLiked("u2", "v1"));
+        second.close();
+    }
+
+    @Test
+    void replayAfterCompactionAppliesOnlyLaterRecords(@TempDir Path dir) throws Exception {
+        LikeRepository first = new LikeRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(first, "durability", "strict");
+        ReflectionTestUtils.setField(first, "compactBytes", 1L);
+        first.load();
+        first.addLike(new Like("u1", "v1"));
+        first.compactIfNeeded();
+        first.removeLike("u1", "v1");
+        first.addLike(new Like("u2", "v1"));
+        assertTrue(Files.exists(dir.resolve("likes.snapshot.json")));
+
+        // simulate a crash: a second instance reads what is on disk while the first never closed
+        LikeRepository second = new LikeRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+
+        assertFalse(second.isLiked("u1", "v1"));
+        assertTrue(second.isLiked("u2", "v1"));
+        assertEquals(1, second.countByVideo("v1"));
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void addRejectsIdsContainingTheKeySeparator() {
+        assertThrows(IllegalArgumentException.class, () -> likeRepository.addLike(new Like("u\u001f1", "v1")));
+    }
+
+    @Test
+    void areLikedAnswersInRequestOrder() {
+        likeRepository.addLike(new Like("u1", "v2"));
+        likeRepository.addLike(new Like("u1", "v4"));
+
+        assertArrayEquals(new boolean[]{false, true, false, true, false},
+                likeRepository.areLiked("u1", java.util.Arrays.asList("v1", "v2", "v3", "v4", null)));
+        assertArrayEquals(new boolean[]{false, false}, likeRepository.areLiked("nobody", List.of("v2", "v4")));
+        assertEquals(0, likeRepository.areLiked("u1", List.of()).length);
+    }
 }
@@ -0,0 +1,104 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaJobRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MediaJobRepository repositoryIn(Path dir) {
+        MediaJobRepository repo = new MediaJobRepository();
+        ReflectionTestUtils.setField(repo, "storeDir", dir.toString());
+        repo.load();
+        return repo;
+    }
+
+    private static MediaJob job(String video) {
+        return new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, video, video, null, video + ".webp");
+    }
+
+    @Test
+    void saveAndFindById() {
+        MediaJobRepository repo = new MediaJobRepository();
+        MediaJob saved = repo.save(job("a.mp4"));
+
+        assertTrue(repo.findById(saved.getId()).isPresent());
+        assertTrue(repo.findById(null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repo.save(null));
+    }
+
+    @Test
+    void jobsSurviveReload() {
+        MediaJobRepository repo = repositoryIn(tempDir);
+        MediaJob pending = repo.save(job("a.mp4"));
+        MediaJob done = job("b.mp4");
+        done.setStatus(MediaJob.Status.DONE);
+        repo.save(done);
+
+        MediaJobRepository reloaded = repositoryIn(tempDir);
+
+        assertEquals(2, reloaded.findAll().size());
+        List<MediaJob> unfinished = reloaded.findUnfinished();
+        assertEquals(1, unfinished.size());
+        assertEquals(pending.getId(), unfinished.get(0).getId());
+    }
+
+    @Test
+    void eachJobIsWrittenToItsOwnFile() {
+        MediaJobRepository repo = repositoryIn(tempDir);
+        MediaJob a = repo.save(job("a.mp4"));
+        MediaJob b = repo.save(job("b.mp4"));
+
+        Path dir = tempDir.resolve(MediaJobRepository.JOBS_DIR);
+        assertTrue(Files.exists(dir.resolve(a.getId() + ".json")));
+        assertTrue(Files.exists(dir.resolve(b.getId() + ".json")));
+    }
+
+    @Test
+    void legacyQueueFileIsSplitIntoJobFilesOnLoad() throws Exception {
+        MediaJob legacy = job("a.mp4");
+        new ObjectMapper().writeValue(tempDir.resolve("media-jobs.json").toFile(), List.of(legacy));
+
+        MediaJobRepository repo = repositoryIn(tempDir);
+
+        assertTrue(repo.findById(legacy.getId()).isPresent());
+        assertFalse(Files.exists(tempDir.resolve("media-jobs.json")));
+        assertEquals(legacy.getId(), repositoryIn(tempDir).findUnfinished().get(0).getId());
+    }
+
+    @Test
+    void oldFinishedJobsAreDroppedOnLoad() {
+        MediaJobRepository repo = repositoryIn(tempDir);
+        MediaJob old = job("a.mp4");
+        old.setStatus(MediaJob.Status.FAILED);
+        old.setUpdatedAt(0);
+        repo.save(old);
+
+        assertTrue(repositoryIn(tempDir).findAll().isEmpty());
+    }
+
+    @Test
+    void findLatestByVideoFileNameReturnsNewest() {
+        MediaJobRepository repo = new MediaJobRepository();
+        MediaJob first = job("a.mp4");
+        first.setCreatedAt(1);
+        MediaJob second = job("a.mp4");
+        second.setCreatedAt(2);
+        repo.save(first);
+        repo.save(second);
+
+        assertEquals(second.getId(), repo.findLatestByVideoFileName("a.mp4").orElseThrow().getId());
+        assertTrue(repo.findLatestByVideoFileName("other.mp4").isEmpty());
+    }
+}
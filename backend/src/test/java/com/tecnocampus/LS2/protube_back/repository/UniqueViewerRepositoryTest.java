@@ -0,0 +1,77 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueViewerRepositoryTest {
+    private static final long DAY = 86_400_000L;
+    private static final long T0 = 1_700_006_400_000L;
+
+    private static List<Long> viewers(int from, int to) {
+        List<Long> hashes = new ArrayList<>();
+        for (int i = from; i < to; i++) hashes.add(HyperLogLog.hash("user" + i));
+        return hashes;
+    }
+
+    @Test
+    void estimatesPerDayAndAcrossDays() {
+        UniqueViewerRepository repository = new UniqueViewerRepository();
+
+        repository.offer("v1", T0 + 1_000, viewers(0, 10));
+        repository.offer("v1", T0 + 5_000, viewers(5, 15));
+        repository.offer("v1", T0 + DAY, viewers(10, 20));
+
+        assertEquals(15, repository.estimate("v1", T0, 1));
+        assertEquals(20, repository.estimate("v1", T0 + DAY, 2));
+        assertArrayEquals(new long[]{0, 15, 10}, repository.daily("v1", T0 + DAY, 3));
+        assertEquals(0, repository.estimate("other", T0, 7));
+    }
+
+    @Test
+    void daysOutsideRetentionAreDropped() {
+        UniqueViewerRepository repository = new UniqueViewerRepository();
+        ReflectionTestUtils.setField(repository, "retentionDays", 2);
+        repository.offer("v1", T0, viewers(0, 3));
+        repository.offer("v1", T0 + DAY, viewers(0, 1));
+
+        repository.offer("v1", T0 + 2 * DAY, viewers(0, 1));
+
+        assertArrayEquals(new long[]{0, 1, 1}, repository.daily("v1", T0 + 2 * DAY, 3));
+    }
+
+    @Test
+    void sketchesSurviveRestartThroughTheLog(@TempDir Path dir) {
+        UniqueViewerRepository first = new UniqueViewerRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(first, "durability", "strict");
+        first.load();
+        first.offer("v1", T0, viewers(0, 2_000));
+        first.offer("v2", T0 + DAY, viewers(0, 5));
+        first.compact();
+        // records appended after the snapshot only hold the raised registers and merge into it on replay
+        first.offer("v1", T0, viewers(1_000, 3_000));
+        long expected = first.estimate("v1", T0, 1);
+
+        // no close: a second instance replays the log as it is on disk
+        UniqueViewerRepository second = new UniqueViewerRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+        assertEquals(expected, second.estimate("v1", T0, 1));
+        assertEquals(5, second.estimate("v2", T0 + DAY, 1));
+        second.close();
+        first.close();
+
+        UniqueViewerRepository third = new UniqueViewerRepository();
+        ReflectionTestUtils.setField(third, "storeDir", dir.toString());
+        third.load();
+        assertEquals(expected, third.estimate("v1", T0, 1));
+        third.close();
+    }
+}
@@ -3,9 +3,15 @@ package com.tecnocampus.LS2.protube_back.repository;
 import com.tecnocampus.LS2.protube_back.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,5 +62,72 @@ class UserRepositoryTest {
         List<User> list2 = repo.findAll();
         assertEquals(2, list2.size());
     }
-}
 
+    @Test
+    void findById() {
+        User u = new User("a", "a@example.com", "pw");
+        repo.save(u);
+
+        assertSame(u, repo.findById(u.getId()).orElseThrow());
+        assertTrue(repo.findById("missing").isEmpty());
+        assertTrue(repo.findById(null).isEmpty());
+    }
+
+    @Test
+    void insertRejectsTakenEmailAndUsername() {
+        assertEquals(UserRepository.InsertResult.INSERTED, repo.insert(new User("a", "a@example.com", "pw")));
+
+        assertEquals(UserRepository.InsertResult.EMAIL_TAKEN, repo.insert(new User("b", "a@example.com", "pw")));
+        assertEquals(UserRepository.InsertResult.USERNAME_TAKEN, repo.insert(new User("a", "b@example.com", "pw")));
+        assertEquals(1, repo.findAll().size());
+    }
+
+    @Test
+    void saveMovesIndexKeysWhenTheyChange() {
+        User u = new User("old", "old@example.com", "pw");
+        repo.save(u);
+        User renamed = new User("new", "new@example.com", "pw");
+        ReflectionTestUtils.setField(renamed, "id", u.getId());
+
+        repo.save(renamed);
+
+        assertTrue(repo.findByUsername("old").isEmpty());
+        assertTrue(repo.findByEmail("old@example.com").isEmpty());
+        assertSame(renamed, repo.findByUsername("new").orElseThrow());
+        assertEquals(1, repo.findAll().size());
+    }
+
+    @Test
+    void saveRejectsAnotherUsersEmail() {
+        repo.save(new User("a", "a@example.com", "pw"));
+
+        assertThrows(IllegalArgumentException.class, () -> repo.save(new User("b", "a@example.com", "pw")));
+        assertEquals("a", repo.findByEmail("a@example.com").orElseThrow().getUsername());
+    }
+
+    @Test
+    void concurrentInsertsOfTheSameEmail_onlyOneWins() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserRepository.InsertResult>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                String name = "user" + t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return repo.insert(new User(name, "same@example.com", "pw"));
+                }));
+            }
+            start.countDown();
+            int inserted = 0;
+            for (Future<UserRepository.InsertResult> r : results) {
+                if (r.get() == UserRepository.InsertResult.INSERTED) inserted++;
+            }
+            assertEquals(1, inserted);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, repo.findAll().size());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -85,4 +86,75 @@ class VideoRepositoryTest {
         assertEquals(2, all.size());
         assertTrue(all.stream().anyMatch(v -> "Repo Title A - Updated".equals(v.getTitle())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertAll_persistsEveryRowAcrossBatches() {
+        List<Video> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            batch.add(new Video("bulk-" + i, "user-1", "Bulk " + i, "", i + ".mp4"));
+        }
+
+        videoRepository.insertAll(batch);
+
+        assertEquals(122, videoRepository.count());
+        assertEquals("Bulk 119", videoRepository.findById("bulk-119").orElseThrow().getTitle());
+    }
+
+    @Test
+    void countByFileName_countsSharedFiles() {
+        videoRepository.save(new Video("rid-3", "user-3", "Copy of A", "", "fileA.mp4"));
+
+        assertEquals(2, videoRepository.countByFileName("fileA.mp4"));
+        assertEquals(1, videoRepository.countByFileName("fileB.mp4"));
+        assertEquals(0, videoRepository.countByFileName("none.mp4"));
+    }
+
+    @Test
+    void findByFileNameIn_matchesExactNames() {
+        List<Video> found = videoRepository.findByFileNameIn(List.of("fileA.mp4", "fileB", "none.mp4"));
+
+        assertEquals(List.of("rid-1"), found.stream().map(Video::getVideoId).toList());
+    }
+
+    @Test
+    void findByFileNamePrefixes_matchesBaseNamesPlusExtension() {
+        videoRepository.save(new Video("rid-3", "user-3", "Underscore", "", "clip_1.webm"));
+        videoRepository.save(new Video("rid-4", "user-4", "Lookalike", "", "clipX1.webm"));
+        videoRepository.save(new Video("rid-5", "user-5", "Longer name", "", "fileAB.mp4"));
+
+        List<Video> found = videoRepository.findByFileNamePrefixes(List.of("fileA", "clip_1", "missing"));
+
+        // "_" is literal, and "fileA" does not match "fileAB.mp4"
+        assertEquals(List.of("clip_1.webm", "fileA.mp4"), found.stream().map(Video::getFileName).toList());
+        assertTrue(videoRepository.findByFileNamePrefixes(List.of()).isEmpty());
+    }
+
+    @Test
+    void keysetPages_walkAllRowsInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            videoRepository.save(new Video("rid-k" + i, "user-k", "K" + i, "Long description " + i, "k" + i + ".mp4"));
+        }
+
+        List<VideoListItem> first = videoRepository.findAllByOrderByVideoIdAsc(Limit.of(3), VideoListItem.class);
+        List<VideoListItem> second = videoRepository.findByVideoIdGreaterThanOrderByVideoIdAsc(
+                first.get(2).getVideoId(), Limit.of(3), VideoListItem.class);
+        List<VideoListItem> third = videoRepository.findByVideoIdGreaterThanOrderByVideoIdAsc(
+                second.get(2).getVideoId(), Limit.of(3), VideoListItem.class);
+
+        assertEquals(List.of("rid-1", "rid-2", "rid-k0"), first.stream().map(VideoListItem::getVideoId).toList());
+        assertEquals(List.of("rid-k1", "rid-k2", "rid-k3"), second.stream().map(VideoListItem::getVideoId).toList());
+        assertEquals(List.of("rid-k4"), third.stream().map(VideoListItem::getVideoId).toList());
+        assertEquals("k0.mp4", first.get(2).getFileName());
+        assertEquals("user-k", first.get(2).getUserId());
+    }
+
+    @Test
+    void keysetPages_descriptionOnlyWhenRequested() {
+        List<VideoListItemWithDescription> rows = videoRepository.findAllByOrderByVideoIdAsc(
+                Limit.of(1), VideoListItemWithDescription.class);
+
+        assertEquals("Repo Desc A", rows.get(0).getDescription());
+        assertFalse(videoRepository.findAllByOrderByVideoIdAsc(Limit.of(1), VideoListItem.class).get(0)
+                instanceof VideoListItemWithDescription);
+    }
+}
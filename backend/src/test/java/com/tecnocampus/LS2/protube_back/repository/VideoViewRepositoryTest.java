@@ -0,0 +1,84 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.domain.VideoView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class VideoViewRepositoryTest {
+
+    @Autowired
+    private VideoViewRepository videoViewRepository;
+
+    @BeforeEach
+    void setUp() {
+        videoViewRepository.deleteAll();
+        // u1 has five views, two of them in the same millisecond; u2 has one
+        save("u1", "a", "id-a", 10);
+        save("u1", "b", "id-b", 20);
+        save("u1", "c", "id-c", 20);
+        save("u1", "d", "id-d", 30);
+        save("u1", "e", "id-e", 40);
+        save("u2", "a", "id-x", 5);
+    }
+
+    private void save(String userId, String fileName, String id, long viewedAt) {
+        VideoView view = new VideoView(userId, fileName);
+        view.setId(id);
+        view.setViewedAt(viewedAt);
+        videoViewRepository.save(view);
+    }
+
+    @Test
+    void keysetPages_walkOneUsersHistoryNewestFirst() {
+        List<VideoView> first = videoViewRepository.findByUserIdOrderByViewedAtDescIdDesc("u1", Limit.of(2));
+        VideoView last = first.get(1);
+        List<VideoView> second = videoViewRepository.findPageAfter("u1", last.getViewedAt(), last.getId(), Limit.of(2));
+        last = second.get(1);
+        List<VideoView> third = videoViewRepository.findPageAfter("u1", last.getViewedAt(), last.getId(), Limit.of(2));
+
+        assertEquals(List.of("e", "d"), first.stream().map(VideoView::getVideoFileName).toList());
+        // ties on viewedAt are ordered by id
+        assertEquals(List.of("c", "b"), second.stream().map(VideoView::getVideoFileName).toList());
+        assertEquals(List.of("a"), third.stream().map(VideoView::getVideoFileName).toList());
+    }
+
+    @Test
+    void retentionQueries_findTheRowsPastTheCapAndAge() {
+        assertEquals(List.of("u1"), videoViewRepository.findUserIdsWithMoreViewsThan(3));
+
+        VideoView boundary = videoViewRepository.findByUserIdNewestFirst("u1", PageRequest.of(3, 1)).get(0);
+        assertEquals("id-b", boundary.getId());
+        assertEquals(List.of("id-a", "id-b"), videoViewRepository.findAtOrBefore(
+                "u1", boundary.getViewedAt(), boundary.getId(), Limit.of(10)).stream().map(VideoView::getId).sorted().toList());
+
+        assertEquals(List.of("id-a", "id-x"), videoViewRepository.findViewedBefore(20, Limit.of(10)).stream()
+                .map(VideoView::getId).sorted().toList());
+    }
+
+    @Test
+    void upsertLatestViews_insertsNewRowsAndOnlyMovesViewedAtForward() {
+        int written = videoViewRepository.upsertLatestViews(Map.of(
+                "u1", Map.of("a", 50L, "e", 35L, "f", 60L),
+                "u3", Map.of("a", 70L)));
+
+        // a moves forward, e is older than the stored view, f and u3/a are new
+        assertEquals(3, written);
+        assertEquals(50L, videoViewRepository.findById("id-a").orElseThrow().getViewedAt());
+        assertEquals(40L, videoViewRepository.findById("id-e").orElseThrow().getViewedAt());
+        assertEquals(60L, videoViewRepository.findByUserIdAndVideoFileName("u1", "f").orElseThrow().getViewedAt());
+        assertEquals(70L, videoViewRepository.findByUserIdAndVideoFileName("u3", "a").orElseThrow().getViewedAt());
+        assertEquals(8, videoViewRepository.count());
+    }
+}
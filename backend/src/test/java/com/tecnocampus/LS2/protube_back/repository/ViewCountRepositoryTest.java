@@ -0,0 +1,83 @@
+package com.tecnocampus.LS2.protube_back.repository;
+
+import com.tecnocampus.LS2.protube_back.repository.ViewCountRepository.Granularity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewCountRepositoryTest {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 3_600_000L;
+    // a day boundary, so minute and hour buckets line up with it
+    private static final long T0 = 1_700_006_400_000L;
+
+    @Test
+    void addCountsIntoTotalAndEveryGranularity() {
+        ViewCountRepository repository = new ViewCountRepository();
+
+        repository.add("v1", T0 + 5_000, 3);
+        repository.add("v1", T0 + MINUTE + 1, 2);
+        repository.add("v1", T0 + HOUR, 4);
+
+        assertEquals(9, repository.total("v1"));
+        assertArrayEquals(new long[]{3, 2}, repository.series("v1", Granularity.MINUTE, T0 + MINUTE, 2));
+        assertArrayEquals(new long[]{5, 4}, repository.series("v1", Granularity.HOUR, T0 + HOUR + 10, 2));
+        assertArrayEquals(new long[]{0, 9}, repository.series("v1", Granularity.DAY, T0, 2));
+        assertEquals(0, repository.total("other"));
+        assertArrayEquals(new long[3], repository.series("other", Granularity.HOUR, T0, 3));
+    }
+
+    @Test
+    void bucketsOutsideRetentionAreDropped() {
+        ViewCountRepository repository = new ViewCountRepository();
+        repository.add("v1", T0, 1);
+
+        repository.add("v1", T0 + Granularity.MINUTE.retained() * MINUTE, 1);
+
+        long[] window = repository.series("v1", Granularity.MINUTE, T0 + Granularity.MINUTE.retained() * MINUTE,
+                Granularity.MINUTE.retained() + 1);
+        assertEquals(0, window[0]);
+        assertEquals(1, window[window.length - 1]);
+        assertEquals(2, repository.total("v1"));
+    }
+
+    @Test
+    void rejectsMissingVideoId() {
+        assertThrows(IllegalArgumentException.class, () -> new ViewCountRepository().add(" ", T0, 1));
+    }
+
+    @Test
+    void countsSurviveRestartThroughTheLog(@TempDir Path dir) {
+        ViewCountRepository first = new ViewCountRepository();
+        ReflectionTestUtils.setField(first, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(first, "durability", "strict");
+        first.load();
+        first.add("v1", T0, 3);
+        first.add("v1", T0 + Granularity.MINUTE.retained() * MINUTE, 2);
+        first.add("v2", T0, 1);
+        // no close: a second instance replays the log as it is on disk
+
+        ViewCountRepository second = new ViewCountRepository();
+        ReflectionTestUtils.setField(second, "storeDir", dir.toString());
+        second.load();
+        assertEquals(5, second.total("v1"));
+        assertEquals(1, second.total("v2"));
+        long end = T0 + Granularity.MINUTE.retained() * MINUTE;
+        long[] minutes = second.series("v1", Granularity.MINUTE, end, Granularity.MINUTE.retained() + 1);
+        assertEquals(0, minutes[0]);
+        assertEquals(2, minutes[minutes.length - 1]);
+        assertArrayEquals(new long[]{3, 2}, second.series("v1", Granularity.DAY, end, 2));
+        second.close();
+        first.close();
+
+        ViewCountRepository third = new ViewCountRepository();
+        ReflectionTestUtils.setField(third, "storeDir", dir.toString());
+        third.load();
+        assertEquals(5, third.total("v1"));
+        third.close();
+    }
+}
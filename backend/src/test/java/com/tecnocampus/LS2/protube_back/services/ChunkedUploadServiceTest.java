@@ -0,0 +1,255 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UploadCreateDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.UploadSession;
+import com.tecnocampus.LS2.protube_back.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UploadSessionRepository repository;
+    private VideoService videoService;
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new UploadSessionRepository();
+        ReflectionTestUtils.setField(repository, "storeDir", tempDir.toString());
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
+        ContentStore contentStore = new ContentStore(env);
+        videoService = mock(VideoService.class);
+        when(videoService.getStoreBase()).thenReturn(tempDir);
+        when(videoService.registerFile(any(Path.class), anyString(), any()))
+                .thenAnswer(inv -> contentStore.adopt(inv.getArgument(0), inv.getArgument(1),
+                        blob -> new VideoService.StoredVideo(new videoSaveDTO("u", "t", "d", blob.fileName()), null)));
+        service = new ChunkedUploadService(repository, videoService, mock(Environment.class));
+    }
+
+    private static byte[] bytes(int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; i++) b[i] = (byte) (i * 31);
+        return b;
+    }
+
+    private static byte[] slice(byte[] src, int from, int to) {
+        byte[] out = new byte[to - from];
+        System.arraycopy(src, from, out, 0, out.length);
+        return out;
+    }
+
+    /**
+     * Hands out the first half of data, then blocks until released, so a chunk write stays in flight.
+     */
+    private static InputStream stalling(byte[] data, CountDownLatch started, CountDownLatch release) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                if (pos == data.length / 2) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.read(b, off, pos < data.length / 2 ? Math.min(len, data.length / 2 - pos) : len);
+            }
+        };
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    @Test
+    void create_presizesPartFileAndPersistsSession() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 2500, 1000, "u", "t", "d"));
+
+        assertEquals(3, s.totalChunks());
+        assertEquals(2500, Files.size(tempDir.resolve(".uploads").resolve(s.getId() + ".part")));
+        assertTrue(Files.exists(tempDir.resolve(".uploads").resolve(s.getId() + ".json")));
+    }
+
+    @Test
+    void create_rejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> service.create(new UploadCreateDTO("a.mp4", 0, null, "u", "t", "d")));
+        assertThrows(IllegalArgumentException.class, () -> service.create(new UploadCreateDTO("../a.mp4", 10, null, "u", "t", "d")));
+        assertThrows(IllegalArgumentException.class, () -> service.create(new UploadCreateDTO("a.mp4", 10, -1, "u", "t", "d")));
+    }
+
+    @Test
+    void chunksInAnyOrderAndInParallel_assembleIntoStoreWithoutCopy() throws Exception {
+        byte[] data = bytes(2500);
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", data.length, 1000, "u", "t", "d"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int index : new int[]{2, 0, 1}) {
+            byte[] chunk = slice(data, index * 1000, Math.min(data.length, (index + 1) * 1000));
+            futures.add(pool.submit(() -> service.writeChunk(s.getId(), index, new ByteArrayInputStream(chunk), sha256(chunk))));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        Optional<VideoService.StoredVideo> result = service.complete(s.getId());
+
+        assertTrue(result.isPresent());
+        verify(videoService).registerFile(any(Path.class), eq("movie.mp4"), any());
+        String stored = result.get().video().fileName();
+        assertEquals(sha256(data) + ".mp4", stored);
+        assertArrayEquals(data, Files.readAllBytes(tempDir.resolve(stored)));
+        assertFalse(Files.exists(tempDir.resolve(".uploads").resolve(s.getId() + ".part")));
+        assertTrue(service.findById(s.getId()).isEmpty());
+    }
+
+    @Test
+    void writeChunk_checksumMismatchIsNotRecorded() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 10, 10, "u", "t", "d"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(s.getId(), 0, new ByteArrayInputStream(bytes(10)), "deadbeef"));
+
+        assertTrue(service.findById(s.getId()).orElseThrow().getReceived().isEmpty());
+    }
+
+    @Test
+    void writeChunk_badResendUnmarksTheChunk() throws Exception {
+        byte[] data = bytes(20);
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+        service.writeChunk(s.getId(), 0, new ByteArrayInputStream(slice(data, 0, 10)), null);
+        service.writeChunk(s.getId(), 1, new ByteArrayInputStream(slice(data, 10, 20)), null);
+
+        // the retry overwrites chunk 0 on disk before its checksum fails
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(s.getId(), 0, new ByteArrayInputStream(bytes(10)), "deadbeef"));
+
+        assertEquals(List.of(1), new ArrayList<>(service.findById(s.getId()).orElseThrow().getReceived()));
+        assertThrows(IllegalStateException.class, () -> service.complete(s.getId()));
+        verify(videoService, never()).registerFile(any(), anyString(), any());
+    }
+
+    @Test
+    void writeChunk_sameChunkInFlightIsRejected() throws Exception {
+        byte[] data = bytes(10);
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 10, 10, "u", "t", "d"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> first = pool.submit(() -> service.writeChunk(s.getId(), 0, stalling(data, started, release), null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.writeChunk(s.getId(), 0, new ByteArrayInputStream(bytes(10)), null));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals(List.of(0), new ArrayList<>(service.findById(s.getId()).orElseThrow().getReceived()));
+    }
+
+    @Test
+    void complete_waitsForChunkWritesInFlight() throws Exception {
+        byte[] data = bytes(20);
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+        service.writeChunk(s.getId(), 0, new ByteArrayInputStream(slice(data, 0, 10)), null);
+        service.writeChunk(s.getId(), 1, new ByteArrayInputStream(bytes(10)), null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        // a retry of chunk 1 with the right bytes is still running when the client completes
+        Future<?> resend = pool.submit(() ->
+                service.writeChunk(s.getId(), 1, stalling(slice(data, 10, 20), started, release), null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Optional<VideoService.StoredVideo>> completed = pool.submit(() -> service.complete(s.getId()));
+
+        assertThrows(TimeoutException.class, () -> completed.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        resend.get(5, TimeUnit.SECONDS);
+        Optional<VideoService.StoredVideo> result = completed.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        // the write finished before the part file was moved, and it is the one that counts
+        assertTrue(result.isPresent());
+        assertArrayEquals(data, Files.readAllBytes(tempDir.resolve(result.get().video().fileName())));
+    }
+
+    @Test
+    void writeChunk_rejectsWrongLengthAndIndex() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 15, 10, "u", "t", "d"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(s.getId(), 0, new ByteArrayInputStream(bytes(9)), null));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(s.getId(), 1, new ByteArrayInputStream(bytes(6)), null));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(s.getId(), 2, new ByteArrayInputStream(bytes(1)), null));
+        assertTrue(service.writeChunk("missing", 0, new ByteArrayInputStream(bytes(1)), null).isEmpty());
+    }
+
+    @Test
+    void complete_withMissingChunksFails() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+        service.writeChunk(s.getId(), 1, new ByteArrayInputStream(bytes(10)), null);
+
+        assertThrows(IllegalStateException.class, () -> service.complete(s.getId()));
+        verify(videoService, never()).registerFile(any(), anyString(), any());
+    }
+
+    @Test
+    void sessionCanBeResumedAfterRestart() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+        service.writeChunk(s.getId(), 0, new ByteArrayInputStream(bytes(10)), null);
+
+        UploadSessionRepository reloaded = new UploadSessionRepository();
+        ReflectionTestUtils.setField(reloaded, "storeDir", tempDir.toString());
+        reloaded.load();
+
+        assertEquals(List.of(0), new ArrayList<>(reloaded.findById(s.getId()).orElseThrow().getReceived()));
+    }
+
+    @Test
+    void abort_removesSessionAndPartFile() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+
+        assertTrue(service.abort(s.getId()));
+
+        assertFalse(Files.exists(tempDir.resolve(".uploads").resolve(s.getId() + ".part")));
+        assertFalse(service.abort(s.getId()));
+    }
+
+    @Test
+    void purgeExpired_dropsStaleSessions() throws Exception {
+        UploadSession s = service.create(new UploadCreateDTO("movie.mp4", 20, 10, "u", "t", "d"));
+        s.setUpdatedAt(0);
+
+        service.purgeExpired();
+
+        assertTrue(service.findById(s.getId()).isEmpty());
+    }
+}
@@ -1,6 +1,7 @@
 package com.tecnocampus.LS2.protube_back.services;
 
 import com.tecnocampus.LS2.protube_back.controller.dto.ComentariDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.CommentPageDTO;
 import com.tecnocampus.LS2.protube_back.domain.Comentari;
 import com.tecnocampus.LS2.protube_back.repository.ComentariRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,11 +27,14 @@ class ComentariServiceTest {
     @Mock
     private VideoService videoService;
 
+    @Mock
+    private YtCommentImporter ytCommentImporter;
+
     private ComentariService service;
 
     @BeforeEach
     void setUp() {
-        service = new ComentariService(repo, videoService);
+        service = new ComentariService(repo, videoService, ytCommentImporter);
     }
 
     @Test
@@ -104,6 +108,7 @@ class ComentariServiceTest {
         when(repo.findByVideoId("v1")).thenReturn(List.of(new Comentari("id1", "u1", "v1", "t", "d")));
         List<ComentariDTO> result = service.findByVideoId("v1");
         assertEquals(1, result.size());
+        verify(ytCommentImporter).ensureImported("v1");
     }
 
     @Test
@@ -142,4 +147,47 @@ class ComentariServiceTest {
         assertTrue(service.deleteById("id1"));
         verify(repo).deleteById("id1");
     }
+
+    @Test
+    void findPageByVideoIdReturnsCursorWhenMoreRowsExist() {
+        Comentari a = new Comentari("c1", "u1", "video-1", "t", "d");
+        a.setCreatedAt(200L);
+        Comentari b = new Comentari("c2", "u1", "video-1", "t", "d");
+        b.setCreatedAt(100L);
+        Comentari extra = new Comentari("c3", "u1", "video-1", "t", "d");
+        extra.setCreatedAt(50L);
+        when(repo.findPageByVideoId("video-1", 0L, null, 3, true)).thenReturn(List.of(a, b, extra));
+
+        CommentPageDTO page = service.findPageByVideoId("video-1", null, 2, false);
+
+        assertEquals(List.of("c1", "c2"), page.items().stream().map(ComentariDTO::id).toList());
+        assertEquals(100L, page.items().get(1).createdAt());
+        assertNotNull(page.nextCursor());
+
+        when(repo.findPageByVideoId("video-1", 100L, "c2", 3, true)).thenReturn(List.of(extra));
+        CommentPageDTO second = service.findPageByVideoId("video-1", page.nextCursor(), 2, false);
+        assertEquals(List.of("c3"), second.items().stream().map(ComentariDTO::id).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void findPageByVideoIdUsesDefaultLimitAndOldestFirst() {
+        when(repo.findPageByVideoId("video-1", 0L, null, ComentariService.DEFAULT_PAGE_SIZE + 1, false)).thenReturn(List.of());
+
+        CommentPageDTO page = service.findPageByVideoId("video-1", null, null, true);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void findPageByVideoIdRejectsBadLimitAndCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.findPageByVideoId("video-1", null, 0, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findPageByVideoId("video-1", null, ComentariService.MAX_PAGE_SIZE + 1, false));
+        assertThrows(IllegalArgumentException.class, () -> service.findPageByVideoId("video-1", "%%%", 10, false));
+        String noSeparator = java.util.Base64.getUrlEncoder().encodeToString("123".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> service.findPageByVideoId("video-1", noSeparator, 10, false));
+        verifyNoInteractions(repo);
+    }
 }
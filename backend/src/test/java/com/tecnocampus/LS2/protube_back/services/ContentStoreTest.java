@@ -0,0 +1,126 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContentStore store;
+
+    @BeforeEach
+    void setUp() {
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
+        store = new ContentStore(env);
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    @Test
+    void store_namesBlobAfterItsHash() throws Exception {
+        byte[] data = "video bytes".getBytes();
+
+        ContentStore.Blob blob = store.store(new ByteArrayInputStream(data), "clip.MP4", b -> b);
+
+        assertEquals(sha256(data) + ".mp4", blob.fileName());
+        assertFalse(blob.deduplicated());
+        assertArrayEquals(data, Files.readAllBytes(tempDir.resolve(blob.fileName())));
+        assertTrue(ContentStore.isContentAddressed(blob.fileName()));
+    }
+
+    @Test
+    void store_sameContentIsDeduplicated() throws Exception {
+        byte[] data = "video bytes".getBytes();
+        ContentStore.Blob first = store.store(new ByteArrayInputStream(data), "a.mp4", b -> b);
+
+        ContentStore.Blob second = store.store(new ByteArrayInputStream(data), "b.mp4", b -> b);
+
+        assertEquals(first.fileName(), second.fileName());
+        assertTrue(second.deduplicated());
+        try (var incoming = Files.list(tempDir.resolve(ContentStore.INCOMING_DIR))) {
+            assertEquals(0, incoming.count());
+        }
+    }
+
+    @Test
+    void store_failedReadLeavesNoScratchFile() throws Exception {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        assertThrows(IOException.class, () -> store.store(broken, "a.mp4", b -> b));
+
+        try (var incoming = Files.list(tempDir.resolve(ContentStore.INCOMING_DIR))) {
+            assertEquals(0, incoming.count());
+        }
+    }
+
+    @Test
+    void store_failedRegistrationDropsNewBlob() throws Exception {
+        byte[] data = "video bytes".getBytes();
+
+        assertThrows(IllegalStateException.class, () -> store.store(new ByteArrayInputStream(data), "a.mp4", b -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertFalse(Files.exists(tempDir.resolve(sha256(data) + ".mp4")));
+    }
+
+    @Test
+    void adopt_movesFileIntoPlace() throws Exception {
+        byte[] data = "assembled".getBytes();
+        Path part = tempDir.resolve("upload.part");
+        Files.write(part, data);
+
+        ContentStore.Blob blob = store.adopt(part, "movie.webm", b -> b);
+
+        assertEquals(sha256(data) + ".webm", blob.fileName());
+        assertFalse(Files.exists(part));
+        assertArrayEquals(data, Files.readAllBytes(tempDir.resolve(blob.fileName())));
+    }
+
+    @Test
+    void delete_removesBlobAndThumbnailButIgnoresOtherNames() throws Exception {
+        ContentStore.Blob blob = store.store(new ByteArrayInputStream("x".getBytes()), "a.mp4", b -> b);
+        Path thumb = tempDir.resolve(blob.fileName().replace(".mp4", ".webp"));
+        Files.writeString(thumb, "w");
+        Files.writeString(tempDir.resolve("12.mp4"), "seed");
+
+        store.delete(blob.fileName());
+        store.delete("12.mp4");
+
+        assertFalse(Files.exists(tempDir.resolve(blob.fileName())));
+        assertFalse(Files.exists(thumb));
+        assertTrue(Files.exists(tempDir.resolve("12.mp4")));
+    }
+
+    @Test
+    void extensionOf_fallsBackToMp4() {
+        assertEquals(".mp4", ContentStore.extensionOf(null));
+        assertEquals(".mp4", ContentStore.extensionOf("noext"));
+        assertEquals(".mp4", ContentStore.extensionOf("weird.e$t"));
+        assertEquals(".mkv", ContentStore.extensionOf("a.b.MKV"));
+    }
+}
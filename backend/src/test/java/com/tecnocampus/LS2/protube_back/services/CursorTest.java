@@ -0,0 +1,56 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().encodeToString(bytes);
+    }
+
+    @Test
+    void encode_roundTripsPositionAndId() {
+        String encoded = new Cursor(1700000000123L, "a:b/c").encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(new Cursor(1700000000123L, "a:b/c"), Cursor.decode(encoded));
+        // a view still in the buffer has no id yet
+        assertEquals(new Cursor(5, ""), Cursor.decode(new Cursor(5, "").encode()));
+    }
+
+    @Test
+    void encodeId_roundTripsTheId() {
+        assertEquals("video-é", Cursor.decodeId(Cursor.encodeId("video-é")));
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertNull(Cursor.decode(null));
+        assertNull(Cursor.decode(" "));
+        assertNull(Cursor.decodeId(null));
+        assertNull(Cursor.decodeId(""));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String[] malformed = {
+                "not base64!",
+                base64("123".getBytes(StandardCharsets.UTF_8)),
+                base64(":id".getBytes(StandardCharsets.UTF_8)),
+                base64("soon:id".getBytes(StandardCharsets.UTF_8)),
+                base64(new byte[]{'1', ':', (byte) 0xC3}),
+        };
+        for (String cursor : malformed) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Cursor.decode(cursor), cursor);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decodeId("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decodeId(base64(new byte[]{(byte) 0xFF})));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decodeId("===="));
+    }
+}
@@ -0,0 +1,71 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.VideoView;
+import com.tecnocampus.LS2.protube_back.repository.VideoViewRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class HistoryRetentionTest {
+
+    private final VideoViewRepository repository = mock(VideoViewRepository.class);
+    private final VideoViewService videoViewService = mock(VideoViewService.class);
+
+    private HistoryRetention retention(int maxPerUser, int maxAgeDays, int batchSize) {
+        return new HistoryRetention(repository, videoViewService, new MockEnvironment()
+                .withProperty("pro_tube.history.retention.max_per_user", String.valueOf(maxPerUser))
+                .withProperty("pro_tube.history.retention.max_age_days", String.valueOf(maxAgeDays))
+                .withProperty("pro_tube.history.retention.batch_size", String.valueOf(batchSize)));
+    }
+
+    private static VideoView view(String id, String userId) {
+        VideoView view = new VideoView(userId, "f.mp4");
+        view.setId(id);
+        return view;
+    }
+
+    @Test
+    void trim_deletesOldViewsInBatches() {
+        List<VideoView> first = List.of(view("a", "u1"), view("b", "u2"));
+        List<VideoView> second = List.of(view("c", "u1"));
+        when(repository.findViewedBefore(anyLong(), eq(Limit.of(2)))).thenReturn(first).thenReturn(second);
+
+        assertEquals(3, retention(0, 30, 2).trim());
+
+        verify(repository).deleteAllByIdInBatch(List.of("a", "b"));
+        verify(repository).deleteAllByIdInBatch(List.of("c"));
+        // the index forgets exactly the deleted views
+        verify(videoViewService).unindexViews(first);
+        verify(videoViewService).unindexViews(second);
+        verify(repository, never()).findUserIdsWithMoreViewsThan(anyLong());
+    }
+
+    @Test
+    void trim_cutsEachHeavyUserBackToTheCap() {
+        VideoView boundary = new VideoView("heavy", "f.mp4");
+        boundary.setViewedAt(42L);
+        when(repository.findUserIdsWithMoreViewsThan(10)).thenReturn(List.of("heavy"));
+        when(repository.findByUserIdNewestFirst("heavy", PageRequest.of(10, 1))).thenReturn(List.of(boundary));
+        when(repository.findAtOrBefore("heavy", 42L, boundary.getId(), Limit.of(500)))
+                .thenReturn(List.of(boundary, view("older", "heavy")));
+
+        assertEquals(2, retention(10, 0, 500).trim());
+
+        verify(repository).deleteAllByIdInBatch(List.of(boundary.getId(), "older"));
+        verify(repository, never()).findViewedBefore(anyLong(), any());
+    }
+
+    @Test
+    void trim_stopsQuietlyWhenTheDatabaseFails() {
+        when(repository.findViewedBefore(anyLong(), any())).thenThrow(new RuntimeException("db down"));
+
+        assertEquals(0, retention(10, 30, 500).trim());
+    }
+}
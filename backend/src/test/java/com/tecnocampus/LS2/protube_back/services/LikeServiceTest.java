@@ -1,14 +1,17 @@
 package com.tecnocampus.LS2.protube_back.services;
 
 import com.tecnocampus.LS2.protube_back.domain.Like;
+import com.tecnocampus.LS2.protube_back.repository.IdDictionaries;
+import com.tecnocampus.LS2.protube_back.repository.IntBitmap;
 import com.tecnocampus.LS2.protube_back.repository.LikeRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,32 +22,62 @@ class LikeServiceTest {
     @Mock
     private LikeRepository likeRepository;
 
+    @Mock
+    private ViewIndex viewIndex;
+
+    @Spy
+    private IdDictionaries ids = new IdDictionaries();
+
     @InjectMocks
     private LikeService likeService;
 
     @Test
     void isVideoLikedByUser_trueWhenPresent() {
-        when(likeRepository.getAllLikes()).thenReturn(java.util.List.of(new Like("u1", "v1")));
+        when(likeRepository.isLiked("u1", "v1")).thenReturn(true);
 
         assertTrue(likeService.isVideoLikedByUser("u1", "v1"));
     }
 
     @Test
     void likeVideo_addsWhenMissing() {
-        when(likeRepository.getAllLikes()).thenReturn(Collections.emptyList());
-
         likeService.likeVideo("u1", "v1");
 
-        verify(likeRepository).addLike(any(Like.class));
+        verify(likeRepository).addLikeIfAbsent(argThat(l -> "u1".equals(l.getUserId()) && "v1".equals(l.getVideoId())));
+        verify(likeRepository, never()).addLike(any());
     }
 
     @Test
-    void likeVideo_doesNotAddWhenAlreadyLiked() {
-        when(likeRepository.getAllLikes()).thenReturn(java.util.List.of(new Like("u1", "v1")));
+    void likeVideo_doesNotFailWhenAlreadyLiked() {
+        when(likeRepository.addLikeIfAbsent(any(Like.class))).thenReturn(false);
 
-        likeService.likeVideo("u1", "v1");
+        assertDoesNotThrow(() -> likeService.likeVideo("u1", "v1"));
+    }
 
-        verify(likeRepository, never()).addLike(any());
+    @Test
+    void getLikedVideoIdsByUser_andCountLikes_useTheIndexes() {
+        when(likeRepository.findVideoIdsByUser("u1")).thenReturn(List.of("v1", "v2"));
+        when(likeRepository.countByVideo("v1")).thenReturn(3L);
+
+        assertEquals(List.of("v1", "v2"), likeService.getLikedVideoIdsByUser("u1"));
+        assertEquals(3L, likeService.countLikes("v1"));
+        verify(likeRepository, never()).getAllLikes();
+    }
+
+    @Test
+    void getLikedAndWatchedVideoIds_intersectsTheBitmaps() {
+        int v1 = ids.videos().intern("v1");
+        int v2 = ids.videos().intern("v2");
+        int v3 = ids.videos().intern("v3");
+        IntBitmap liked = new IntBitmap();
+        liked.add(v1);
+        liked.add(v2);
+        IntBitmap watched = new IntBitmap();
+        watched.add(v2);
+        watched.add(v3);
+        when(likeRepository.likedVideos("u1")).thenReturn(liked);
+        when(viewIndex.watchedBy("u1")).thenReturn(watched);
+
+        assertEquals(List.of("v2"), likeService.getLikedAndWatchedVideoIds("u1"));
     }
 
     @Test
@@ -53,4 +86,19 @@ class LikeServiceTest {
 
         verify(likeRepository).removeLike("u1", "v1");
     }
+
+    @Test
+    void areVideosLikedByUser_delegatesToRepository() {
+        when(likeRepository.areLiked("u1", List.of("v1", "v2"))).thenReturn(new boolean[]{true, false});
+
+        assertArrayEquals(new boolean[]{true, false}, likeService.areVideosLikedByUser("u1", List.of("v1", "v2")));
+    }
+
+    @Test
+    void areVideosLikedByUser_rejectsMissingOrOversizedBatch() {
+        assertThrows(IllegalArgumentException.class, () -> likeService.areVideosLikedByUser("u1", null));
+        List<String> tooMany = java.util.Collections.nCopies(LikeService.MAX_BATCH + 1, "v");
+        assertThrows(IllegalArgumentException.class, () -> likeService.areVideosLikedByUser("u1", tooMany));
+        verifyNoInteractions(likeRepository);
+    }
 }
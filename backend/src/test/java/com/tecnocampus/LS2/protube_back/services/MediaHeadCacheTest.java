@@ -0,0 +1,105 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MediaHeadCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MediaHeadCache cache(long segment, long max, long minHits) {
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.media.head_cache.segment_bytes", Long.class)).thenReturn(segment);
+        when(env.getProperty("pro_tube.media.head_cache.max_bytes", Long.class)).thenReturn(max);
+        when(env.getProperty("pro_tube.media.head_cache.min_hits", Long.class)).thenReturn(minHits);
+        return new MediaHeadCache(env);
+    }
+
+    private Path file(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void head_isAdmittedAfterMinHitsAndMapsOnlySegment() throws IOException {
+        MediaHeadCache cache = cache(4, 100, 2);
+        Path f = file("a.mp4", "abcdefgh");
+        long mtime = Files.getLastModifiedTime(f).toMillis();
+
+        assertNull(cache.head(f, 8, mtime));
+        ByteBuffer head = cache.head(f, 8, mtime);
+
+        assertNotNull(head);
+        assertTrue(head.isReadOnly());
+        assertEquals("abcd", text(head));
+        assertEquals(4, cache.usedBytes());
+    }
+
+    @Test
+    void head_evictsLeastRecentlyUsedOverBudget() throws IOException {
+        MediaHeadCache cache = cache(4, 8, 1);
+        Path a = file("a.mp4", "aaaaaaaa");
+        Path b = file("b.mp4", "bbbbbbbb");
+        Path c = file("c.mp4", "cccccccc");
+
+        cache.head(a, 8, 1);
+        cache.head(b, 8, 1);
+        cache.head(a, 8, 1); // a is now most recently used
+        cache.head(c, 8, 1);
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.usedBytes());
+        assertTrue(cache.contains(a));
+        assertFalse(cache.contains(b));
+        assertTrue(cache.contains(c));
+    }
+
+    @Test
+    void head_remapsWhenFileChanged() throws IOException {
+        MediaHeadCache cache = cache(4, 100, 1);
+        Path f = file("a.mp4", "abcdefgh");
+        assertEquals("abcd", text(cache.head(f, 8, 1)));
+
+        Files.writeString(f, "zyxwvuts");
+        assertEquals("zyxw", text(cache.head(f, 8, 2)));
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.usedBytes());
+    }
+
+    @Test
+    void head_disabledWhenBudgetIsZero() throws IOException {
+        MediaHeadCache cache = cache(4, 0, 1);
+        Path f = file("a.mp4", "abcdefgh");
+
+        assertNull(cache.head(f, 8, 1));
+        assertEquals(0, cache.segmentBytes());
+    }
+
+    @Test
+    void invalidate_releasesBudget() throws IOException {
+        MediaHeadCache cache = cache(4, 100, 1);
+        Path f = file("a.mp4", "abcdefgh");
+        cache.head(f, 8, 1);
+
+        cache.invalidate(f);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.usedBytes());
+    }
+}
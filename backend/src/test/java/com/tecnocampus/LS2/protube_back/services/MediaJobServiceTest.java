@@ -0,0 +1,135 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
+import com.tecnocampus.LS2.protube_back.repository.MediaJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MediaJobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MediaJobRepository repository;
+    private FfmpegThumbnailer thumbnailer;
+    private MediaJobService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MediaJobRepository();
+        thumbnailer = mock(FfmpegThumbnailer.class);
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.media.jobs.workers", Integer.class)).thenReturn(1);
+        when(env.getProperty("pro_tube.media.jobs.max_attempts", Integer.class)).thenReturn(2);
+        when(env.getProperty("pro_tube.media.jobs.retry_delay_ms", Integer.class)).thenReturn(1);
+        service = new MediaJobService(repository, thumbnailer, env);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private MediaJob videoJob(String name, MediaJob.Priority priority) {
+        return new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, priority, name,
+                tempDir.resolve(name).toString(), null, tempDir.resolve(name + ".webp").toString());
+    }
+
+    private MediaJob await(MediaJob job) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            MediaJob.Status status = job.getStatus();
+            if (status == MediaJob.Status.DONE || status == MediaJob.Status.FAILED) return job;
+            Thread.sleep(10);
+        }
+        fail("job " + job.getId() + " did not finish, status " + job.getStatus());
+        return job;
+    }
+
+    @Test
+    void submit_persistsAndRunsJob() throws Exception {
+        MediaJob job = service.submit(videoJob("a.mp4", MediaJob.Priority.INTERACTIVE));
+
+        assertTrue(repository.findById(job.getId()).isPresent());
+        await(job);
+        assertEquals(MediaJob.Status.DONE, job.getStatus());
+        verify(thumbnailer).fromVideo(tempDir.resolve("a.mp4"), tempDir.resolve("a.mp4.webp"));
+    }
+
+    @Test
+    void failingJob_isRetriedThenMarkedFailedWithPlaceholder() throws Exception {
+        doThrow(new IOException("boom")).when(thumbnailer).fromVideo(any(), any());
+
+        MediaJob job = await(service.submit(videoJob("b.mp4", MediaJob.Priority.INTERACTIVE)));
+
+        assertEquals(MediaJob.Status.FAILED, job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertEquals("boom", job.getError());
+        verify(thumbnailer, times(2)).fromVideo(any(), any());
+        verify(thumbnailer).createEmptyPlaceholder(tempDir.resolve("b.mp4.webp"));
+    }
+
+    @Test
+    void imageJob_fallsBackToVideoFrameAndDeletesScratchImage() throws Exception {
+        Path image = Files.writeString(tempDir.resolve("scratch"), "img");
+        doThrow(new IOException("bad image")).when(thumbnailer).fromImage(any(), any());
+        MediaJob job = new MediaJob(MediaJob.Type.IMAGE_THUMBNAIL, MediaJob.Priority.INTERACTIVE, "c.mp4",
+                image.toString(), tempDir.resolve("c.mp4").toString(), tempDir.resolve("c.webp").toString());
+
+        await(service.submit(job));
+
+        assertEquals(MediaJob.Status.DONE, job.getStatus());
+        verify(thumbnailer).fromVideo(tempDir.resolve("c.mp4"), tempDir.resolve("c.webp"));
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    void interactiveJobsRunBeforeQueuedBackfill() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            Path in = inv.getArgument(0);
+            String name = in.getFileName().toString();
+            if (name.equals("blocker.mp4")) release.await(5, TimeUnit.SECONDS);
+            order.add(name);
+            return null;
+        }).when(thumbnailer).fromVideo(any(), any());
+
+        service.submit(videoJob("blocker.mp4", MediaJob.Priority.BACKFILL));
+        Thread.sleep(50); // let the single worker pick up the blocker
+        MediaJob backfill = service.submit(videoJob("backfill.mp4", MediaJob.Priority.BACKFILL));
+        MediaJob upload = service.submit(videoJob("upload.mp4", MediaJob.Priority.INTERACTIVE));
+        release.countDown();
+        await(backfill);
+        await(upload);
+
+        assertEquals(List.of("blocker.mp4", "upload.mp4", "backfill.mp4"), order);
+    }
+
+    @Test
+    void recover_requeuesUnfinishedJobs() throws Exception {
+        MediaJob interrupted = videoJob("d.mp4", MediaJob.Priority.BACKFILL);
+        interrupted.setStatus(MediaJob.Status.RUNNING);
+        repository.save(interrupted);
+
+        service.recover();
+
+        await(interrupted);
+        assertEquals(MediaJob.Status.DONE, interrupted.getStatus());
+    }
+}
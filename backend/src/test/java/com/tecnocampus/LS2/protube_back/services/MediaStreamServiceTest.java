@@ -0,0 +1,231 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MediaStreamServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MediaStreamService service;
+    private MediaHeadCache headCache;
+    private Path video;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
+        when(env.getProperty("pro_tube.media.head_cache.segment_bytes", Long.class)).thenReturn(8L);
+        when(env.getProperty("pro_tube.media.head_cache.min_hits", Long.class)).thenReturn(1L);
+        headCache = new MediaHeadCache(env);
+        service = new MediaStreamService(env, headCache);
+        video = Files.writeString(tempDir.resolve("clip.mp4"), "0123456789abcdefghij");
+    }
+
+    @Test
+    void resolve_returnsFileInsideStore() {
+        assertEquals(video, service.resolve("clip.mp4"));
+    }
+
+    @Test
+    void resolve_rejectsMissingAndTraversal() {
+        assertNull(service.resolve("missing.mp4"));
+        assertNull(service.resolve("../clip.mp4"));
+        assertNull(service.resolve(null));
+    }
+
+    @Test
+    void resolve_servesInfoJsonOnlyNextToAVideo() throws IOException {
+        Path info = Files.writeString(tempDir.resolve("clip.json"), "{}");
+        Files.writeString(tempDir.resolve("users.json"), "[]");
+        Files.createDirectories(tempDir.resolve(".media-jobs"));
+        Files.writeString(tempDir.resolve(".media-jobs/clip.mp4"), "not a video");
+
+        assertEquals(info, service.resolve("clip.json"));
+        assertNull(service.resolve("users.json"));
+        assertNull(service.resolve(".media-jobs/clip.mp4"));
+        assertNull(service.resolve("sub/../.media-jobs/clip.mp4"));
+    }
+
+    @Test
+    void serve_withoutRange_returnsWholeFile() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(200, res.getStatus());
+        assertEquals("bytes", res.getHeader("Accept-Ranges"));
+        assertEquals(20, res.getContentLengthLong());
+        assertEquals("0123456789abcdefghij", res.getContentAsString());
+    }
+
+    @Test
+    void serve_singleRange_returnsPartialContent() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(206, res.getStatus());
+        assertEquals("bytes 5-9/20", res.getHeader("Content-Range"));
+        assertEquals("56789", res.getContentAsString());
+    }
+
+    @Test
+    void serve_suffixRange_returnsTail() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(206, res.getStatus());
+        assertEquals("hij", res.getContentAsString());
+    }
+
+    @Test
+    void serve_multiRange_returnsMultipartBody() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=0-1,10-12");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(206, res.getStatus());
+        assertTrue(res.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = res.getContentAsString(StandardCharsets.US_ASCII);
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01"));
+        assertTrue(body.contains("Content-Range: bytes 10-12/20\r\n\r\nabc"));
+        assertEquals(body.length(), res.getContentLengthLong());
+    }
+
+    @Test
+    void serve_unsatisfiableRange_returns416() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=50-60");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(416, res.getStatus());
+        assertEquals("bytes */20", res.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_staleIfRange_returnsWholeFile() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=0-1");
+        req.addHeader("If-Range", "\"stale\"");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(200, res.getStatus());
+        assertEquals(20, res.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_head_writesHeadersOnly() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("HEAD", "/media/clip.mp4");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(200, res.getStatus());
+        assertEquals(20, res.getContentLengthLong());
+        assertEquals(0, res.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_withSendfileSupport_delegatesRegionToConnector() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.setAttribute(MediaStreamService.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        req.addHeader("Range", "bytes=4-");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(206, res.getStatus());
+        assertEquals(4L, req.getAttribute(MediaStreamService.SENDFILE_START_ATTR));
+        assertEquals(20L, req.getAttribute(MediaStreamService.SENDFILE_END_ATTR));
+        assertEquals(0, res.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_withSendfileSupport_sendsRangesStartingInHeadThroughConnector() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.setAttribute(MediaStreamService.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        req.addHeader("Range", "bytes=0-");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(0L, req.getAttribute(MediaStreamService.SENDFILE_START_ATTR));
+        assertEquals(20L, req.getAttribute(MediaStreamService.SENDFILE_END_ATTR));
+        assertEquals(0, res.getContentAsByteArray().length);
+        assertEquals(0, headCache.size());
+    }
+
+    @Test
+    void serve_withSendfileSupport_answersRangeInsideHeadFromCache() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.setAttribute(MediaStreamService.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        req.addHeader("Range", "bytes=0-7");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals("01234567", res.getContentAsString());
+        assertNull(req.getAttribute(MediaStreamService.SENDFILE_START_ATTR));
+        assertEquals(1, headCache.size());
+    }
+
+    @Test
+    void serve_rangeCrossingCachedHead_stitchesHeadAndTail() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=6-11");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals(206, res.getStatus());
+        assertEquals("6789ab", res.getContentAsString());
+        assertEquals(1, headCache.size());
+    }
+
+    @Test
+    void serve_rangePastHead_doesNotTouchCache() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        req.addHeader("Range", "bytes=12-13");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        service.serve(video, req, res);
+
+        assertEquals("cd", res.getContentAsString());
+        assertEquals(0, headCache.size());
+    }
+
+    @Test
+    void parseRanges_malformedReturnsNull() {
+        assertNull(MediaStreamService.parseRanges("bytes=abc", 20));
+        List<long[]> ranges = MediaStreamService.parseRanges("bytes=15-100", 20);
+        assertNotNull(ranges);
+        assertEquals(19, ranges.get(0)[1]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final byte[] SECRET = "test-secret".getBytes(StandardCharsets.UTF_8);
+    private static final Clock NOW = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void issuedTokenVerifiesToItsUser() {
+        TokenService service = new TokenService(SECRET, 3600, NOW);
+
+        String token = service.issue("alice.ñ");
+
+        assertEquals("alice.ñ", service.verify(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = new TokenService(SECRET, 3600, NOW).issue("alice");
+        TokenService later = new TokenService(SECRET, 3600, Clock.offset(NOW, Duration.ofHours(1)));
+
+        assertNull(later.verify(token));
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        TokenService service = new TokenService(SECRET, 3600, NOW);
+        String token = service.issue("alice");
+        String[] parts = token.split("\\.");
+        String otherUser = service.issue("mallory").split("\\.")[0];
+
+        assertNull(service.verify(otherUser + "." + parts[1] + "." + parts[2]));
+        assertNull(service.verify(parts[0] + "." + (Long.parseLong(parts[1]) + 1) + "." + parts[2]));
+        assertNull(new TokenService("other".getBytes(StandardCharsets.UTF_8), 3600, NOW).verify(token));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        TokenService service = new TokenService(SECRET, 3600, NOW);
+
+        assertNull(service.verify(null));
+        assertNull(service.verify(""));
+        assertNull(service.verify("abc"));
+        assertNull(service.verify("a..b"));
+        assertNull(service.verify("a.b."));
+        assertNull(service.verify("a.notanumber.!!"));
+    }
+
+    @Test
+    void issueRequiresAUser() {
+        TokenService service = new TokenService(SECRET, 3600, NOW);
+
+        assertThrows(IllegalArgumentException.class, () -> service.issue(" "));
+    }
+}
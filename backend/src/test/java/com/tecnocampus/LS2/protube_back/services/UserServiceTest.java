@@ -42,6 +42,12 @@ class UserServiceTest {
         assertTrue(msg.contains("nombre de usuario") || msg.contains("username") || msg.contains("ya existe"));
     }
 
+    @Test
+    void registerRejectsTheImportedAuthorPrefix() {
+        assertThrows(RuntimeException.class, () -> service.register("yt:ana", "ana@example.com", "pw"));
+        assertTrue(repo.findByEmail("ana@example.com").isEmpty());
+    }
+
     @Test
     void loginHappyPath() {
         repo.save(new User("carol", "carol@example.com", "secret"));
@@ -0,0 +1,157 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoSummaryDTO;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VideoCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private VideoRepository videoRepository;
+    private VideoMetadataReader reader;
+    private VideoCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        Environment env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
+        videoRepository = mock(VideoRepository.class);
+        reader = spy(new VideoMetadataReader());
+        catalog = new VideoCatalog(videoRepository, reader, env);
+    }
+
+    private static Video video(String id, String fileName) {
+        return new Video(id, "user-" + id, "Title " + id, "Desc " + id, fileName);
+    }
+
+    @Test
+    void put_readsInfoJsonNextToTheFile() throws IOException {
+        Files.writeString(tempDir.resolve("3.json"), """
+                {"title": "T", "duration": 12.5, "meta": {"channel": "C", "view_count": 100, "like_count": 7,
+                 "tags": ["x"], "categories": ["Music"], "comments": [{"text": "skip me"}]}}
+                """);
+
+        catalog.put(video("1", "3.mp4"), null);
+
+        VideoSummaryDTO summary = catalog.list().get(0);
+        assertEquals("1", summary.videoId());
+        assertEquals("Title 1", summary.title());
+        assertEquals("/media/3.webp", summary.posterUrl());
+        assertEquals("C", summary.channel());
+        assertEquals(100L, summary.viewCount());
+        assertEquals(7L, summary.likeCount());
+        assertEquals(12.5, summary.durationSeconds());
+        assertEquals(List.of("Music"), summary.categories());
+    }
+
+    @Test
+    void put_withoutJsonKeepsEntityFieldsOnly() {
+        catalog.put(video("1", "my clip.mp4"), null);
+
+        VideoSummaryDTO summary = catalog.list().get(0);
+        assertNull(summary.channel());
+        assertNull(summary.durationSeconds());
+        assertEquals("/media/my%20clip.webp", summary.posterUrl());
+    }
+
+    @Test
+    void putAll_reusesGivenMetadataAndPublishesOnce() throws IOException {
+        VideoMetadataReader.VideoMetadata meta = new VideoMetadataReader.VideoMetadata("T", "D", 1.0, 2L, 3L, "C",
+                List.of(), List.of());
+        long before = catalog.snapshot().version();
+
+        catalog.putAll(List.of(video("1", "1.mp4"), video("2", "2.mp4")), Map.of("1", meta));
+
+        assertEquals(before + 1, catalog.snapshot().version());
+        assertEquals(List.of("1", "2"), catalog.list().stream().map(VideoSummaryDTO::videoId).toList());
+        assertEquals("C", catalog.list().get(0).channel());
+        verify(reader, never()).read(any());
+    }
+
+    @Test
+    void remove_dropsEntryAndBumpsVersion() {
+        catalog.put(video("1", "1.mp4"), null);
+        long version = catalog.snapshot().version();
+
+        catalog.remove("1");
+        catalog.remove("missing");
+
+        assertTrue(catalog.list().isEmpty());
+        assertEquals(version + 1, catalog.snapshot().version());
+    }
+
+    @Test
+    void snapshotsAreImmutable() {
+        catalog.put(video("1", "1.mp4"), null);
+        List<VideoSummaryDTO> seen = catalog.list();
+
+        catalog.put(video("2", "2.mp4"), null);
+
+        assertEquals(1, seen.size());
+        assertThrows(UnsupportedOperationException.class, () -> seen.add(null));
+    }
+
+    @Test
+    void put_cutsLongDescriptionsToAPreview() {
+        Video video = video("1", "1.mp4");
+        video.setDescription("a".repeat(VideoCatalog.DESCRIPTION_PREVIEW - 1) + "\uD83D\uDE00" + "tail");
+
+        catalog.put(video, null);
+
+        String preview = catalog.list().get(0).description();
+        assertEquals("a".repeat(VideoCatalog.DESCRIPTION_PREVIEW - 1) + "\u2026", preview);
+    }
+
+    @Test
+    void put_replacesInPlaceWithoutTouchingOlderSnapshots() {
+        catalog.putAll(List.of(video("1", "1.mp4"), video("2", "2.mp4"), video("3", "3.mp4")), Map.of());
+        List<VideoSummaryDTO> seen = catalog.list();
+
+        catalog.put(video("2", "changed.mp4"), null);
+
+        assertEquals(List.of("1", "2", "3"), catalog.list().stream().map(VideoSummaryDTO::videoId).toList());
+        assertEquals("changed.mp4", catalog.list().get(1).fileName());
+        assertEquals("2.mp4", seen.get(1).fileName());
+    }
+
+    @Test
+    void putAndRemove_keepTheOrderVideosWereAdded() {
+        for (int i = 0; i < 10; i++) catalog.put(video(String.valueOf(i), i + ".mp4"), null);
+
+        catalog.remove("3");
+        catalog.put(video("9", "last.mp4"), null);
+        catalog.putAll(List.of(video("0", "first.mp4"), video("10", "10.mp4")), Map.of());
+
+        List<VideoSummaryDTO> videos = catalog.list();
+        assertEquals(List.of("0", "1", "2", "4", "5", "6", "7", "8", "9", "10"),
+                videos.stream().map(VideoSummaryDTO::videoId).toList());
+        assertEquals("first.mp4", videos.get(0).fileName());
+        assertEquals("last.mp4", videos.get(8).fileName());
+    }
+
+    @Test
+    void loadMissing_addsOnlyVideosNotYetCataloged() {
+        catalog.put(video("1", "1.mp4"), null);
+        when(videoRepository.findAll()).thenReturn(List.of(video("1", "changed.mp4"), video("2", "2.mp4")));
+
+        catalog.loadMissing();
+
+        assertEquals(2, catalog.list().size());
+        assertEquals("1.mp4", catalog.list().get(0).fileName());
+    }
+}
@@ -0,0 +1,143 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoMetadataReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final VideoMetadataReader reader = new VideoMetadataReader();
+
+    private Path json(String content) throws IOException {
+        Path file = tempDir.resolve("0.json");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void read_extractsTitleAndDescriptionSkippingEverythingElse() throws IOException {
+        Path file = json("""
+                {"id": "abc", "formats": [{"url": "x", "nested": {"title": "not this"}}],
+                 "title": "Real title", "thumbnails": [], "description": "Top level"}
+                """);
+
+        VideoMetadataReader.VideoMetadata meta = reader.read(file);
+
+        assertEquals("Real title", meta.title());
+        assertEquals("Top level", meta.description());
+    }
+
+    @Test
+    void read_metaObjectTakesPrecedenceForDescription() throws IOException {
+        Path file = json("""
+                {"description": "Top level", "title": "T", "meta": {"tags": ["a"], "description": "From meta"}}
+                """);
+
+        assertEquals("From meta", reader.read(file).description());
+    }
+
+    @Test
+    void read_metaWithoutDescriptionFallsBackToTopLevel() throws IOException {
+        Path file = json("""
+                {"description": "Top level", "meta": {"other": 1}}
+                """);
+
+        VideoMetadataReader.VideoMetadata meta = reader.read(file);
+
+        assertNull(meta.title());
+        assertEquals("Top level", meta.description());
+        assertEquals(List.of(), meta.tags());
+        assertEquals(List.of(), meta.categories());
+    }
+
+    @Test
+    void read_videoGrabberLayoutSkipsComments() throws IOException {
+        Path file = json("""
+                {"id": 3, "width": 1280, "height": 720, "duration": 30.5, "title": "Shake It Off", "user": "TS",
+                 "timestamp": 1408665600,
+                 "meta": {"description": "Music video", "categories": ["Music"], "tags": ["pop", 7, "swift"],
+                          "view_count": 3625252158, "like_count": 14054641, "channel": "Taylor Swift",
+                          "channel_follower_count": 1, "comments": [{"id": "c1", "text": "great", "title": "no"}]}}
+                """);
+
+        VideoMetadataReader.VideoMetadata meta = reader.read(file);
+
+        assertEquals("Shake It Off", meta.title());
+        assertEquals("Music video", meta.description());
+        assertEquals(30.5, meta.duration());
+        assertEquals(3625252158L, meta.viewCount());
+        assertEquals(14054641L, meta.likeCount());
+        assertEquals("Taylor Swift", meta.channel());
+        assertEquals(List.of("pop", "swift"), meta.tags());
+        assertEquals(List.of("Music"), meta.categories());
+    }
+
+    @Test
+    void read_rawYtDlpLayoutUsesTopLevelFields() throws IOException {
+        Path file = json("""
+                {"id": "nfWlot6h_JM", "title": "T", "formats": [{"format_id": "18"}], "description": "D",
+                 "duration": 242, "view_count": 10, "categories": ["Music"], "tags": ["a"], "like_count": 2,
+                 "channel": "C", "comments": [{"text": "hi"}]}
+                """);
+
+        VideoMetadataReader.VideoMetadata meta = reader.read(file);
+
+        assertEquals(new VideoMetadataReader.VideoMetadata("T", "D", 242.0, 10L, 2L, "C", List.of("a"), List.of("Music")), meta);
+    }
+
+    @Test
+    void read_nonStringValuesAreIgnored() throws IOException {
+        Path file = json("""
+                {"title": {"text": "x"}, "description": 42}
+                """);
+
+        VideoMetadataReader.VideoMetadata meta = reader.read(file);
+
+        assertNull(meta.title());
+        assertNull(meta.description());
+    }
+
+    @Test
+    void read_rejectsNonObjectDocuments() throws IOException {
+        Path file = json("[1, 2, 3]");
+
+        assertThrows(IOException.class, () -> reader.read(file));
+    }
+
+    @Test
+    void readComments_streamsBothLayoutsUpToTheLimit() throws IOException {
+        Path grabber = json("""
+                {"id": 3, "title": "T", "meta": {"description": "D",
+                 "comments": [{"text": "first", "author": "ana", "timestamp": 1700000000, "like_count": 3},
+                              {"text": "", "author": "empty"},
+                              {"text": "second", "author": "bob", "timestamp": 1700000100, "like_count": 0},
+                              {"text": "third", "author": "cat"}]}}
+                """);
+        List<VideoMetadataReader.InfoComment> seen = new java.util.ArrayList<>();
+
+        assertEquals(2, reader.readComments(grabber, 2, seen::add));
+        assertEquals(List.of(
+                new VideoMetadataReader.InfoComment(null, "first", "ana", 1700000000L),
+                new VideoMetadataReader.InfoComment(null, "second", "bob", 1700000100L)), seen);
+
+        Path raw = tempDir.resolve("raw.json");
+        Files.writeString(raw, """
+                {"id": "abc", "formats": [{"text": "not a comment"}],
+                 "comments": [{"id": "Ugx1", "parent": "root", "text": "hi", "author": "@ana", "timestamp": 5,
+                               "author_thumbnail": "x", "is_favorited": false}]}
+                """);
+        seen.clear();
+
+        assertEquals(1, reader.readComments(raw, 10, seen::add));
+        assertEquals(new VideoMetadataReader.InfoComment("Ugx1", "hi", "@ana", 5L), seen.get(0));
+    }
+}
@@ -1,23 +1,33 @@
 package com.tecnocampus.LS2.protube_back.services;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoListItemDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.videoSaveDTO;
+import com.tecnocampus.LS2.protube_back.domain.MediaJob;
 import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.domain.VideoOwner;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItem;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItemWithDescription;
+import com.tecnocampus.LS2.protube_back.repository.VideoOwnerRepository;
 import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -33,19 +43,33 @@ class VideoServiceTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private VideoRepository videoRepository;
 
+    @Mock
+    private VideoOwnerRepository videoOwnerRepository;
+
     @Mock
     private Environment environment;
 
+    @Mock
+    private MediaJobService mediaJobService;
+
+    @Mock
+    private VideoCatalog videoCatalog;
+
+    @Mock
+    private ViewCounter viewCounter;
+
     private VideoService videoService;
 
     @TempDir
     Path tempDir;
 
     private List<Video> fakeDb;
+    private List<VideoOwner> owners;
 
     @BeforeEach
     void setUp() {
         fakeDb = new ArrayList<>();
+        owners = new ArrayList<>();
         // Using 4-arg constructor as seen in VideoService.java
         Video v1 = new Video("user-1", "Title A", "Desc A", "video1");
         setId(v1, "1");
@@ -78,7 +102,23 @@ class VideoServiceTest {
         }).when(videoRepository).deleteById(anyString());
 
         when(environment.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
-        videoService = new VideoService(videoRepository, environment);
+        when(mediaJobService.submit(any(MediaJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(mediaJobService.findLatestByVideoFileName(anyString())).thenReturn(Optional.empty());
+        when(videoRepository.findByFileName(anyString())).thenAnswer(inv ->
+                fakeDb.stream().filter(v -> Objects.equals(v.getFileName(), inv.getArgument(0))).findFirst());
+        when(videoRepository.countByFileName(anyString())).thenAnswer(inv ->
+                fakeDb.stream().filter(v -> Objects.equals(v.getFileName(), inv.getArgument(0))).count());
+        when(videoOwnerRepository.save(any(VideoOwner.class))).thenAnswer(inv -> {
+            owners.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        doAnswer(inv -> owners.remove(inv.<VideoOwner>getArgument(0))).when(videoOwnerRepository).delete(any(VideoOwner.class));
+        when(videoOwnerRepository.findByVideoIdOrderByAddedAtAsc(anyString())).thenAnswer(inv ->
+                owners.stream().filter(o -> o.getVideoId().equals(inv.getArgument(0))).toList());
+        when(videoOwnerRepository.existsByVideoIdAndUserId(anyString(), anyString())).thenAnswer(inv ->
+                owners.stream().anyMatch(o -> o.getVideoId().equals(inv.getArgument(0)) && o.getUserId().equals(inv.getArgument(1))));
+        videoService = new VideoService(videoRepository, videoOwnerRepository, mediaJobService, new ContentStore(environment),
+                videoCatalog, viewCounter, environment);
     }
 
     // Helper accessors
@@ -157,6 +197,74 @@ class VideoServiceTest {
         assertThrows(IllegalArgumentException.class, () -> videoService.saveVideo(null));
     }
 
+    @Test
+    void saveAll_insertsInOneBatch() {
+        List<Video> videos = List.of(new Video("u", "A", "", "a.mp4"), new Video("u", "B", "", "b.mp4"));
+
+        List<Video> saved = videoService.saveAll(videos);
+
+        assertSame(videos, saved);
+        verify(videoRepository).insertAll(videos);
+        verify(videoRepository, never()).save(any(Video.class));
+        verify(videoCatalog).putAll(videos, Map.of());
+    }
+
+    @Test
+    void saveVideo_andDeleteVideo_keepCatalogInSync() {
+        Video saved = videoService.saveVideo(new Video("u", "C", "", "c.mp4"));
+        verify(videoCatalog).put(saved, null);
+
+        videoService.deleteVideo(saved.getVideoId());
+        verify(videoCatalog).remove(saved.getVideoId());
+    }
+
+    @Test
+    void saveAll_throwsException_whenNull() {
+        assertThrows(IllegalArgumentException.class, () -> videoService.saveAll(null));
+    }
+
+    private static VideoListItem row(String id) {
+        return new VideoListItemWithDescription() {
+            public String getVideoId() { return id; }
+            public String getTitle() { return "Title " + id; }
+            public String getFileName() { return id + ".mp4"; }
+            public String getUserId() { return "u"; }
+            public String getDescription() { return "Desc " + id; }
+        };
+    }
+
+    @Test
+    void listPage_firstPageHasCursorWhenMoreRowsExist() {
+        doReturn(List.of(row("a"), row("b"), row("c")))
+                .when(videoRepository).findAllByOrderByVideoIdAsc(Limit.of(3), VideoListItem.class);
+
+        VideoPageDTO page = videoService.listPage(null, 2, false);
+
+        assertEquals(List.of("a", "b"), page.items().stream().map(VideoListItemDTO::videoId).toList());
+        assertEquals("/media/a.webp", page.items().get(0).posterUrl());
+        assertNotNull(page.nextCursor());
+        assertEquals("b", Cursor.decodeId(page.nextCursor()));
+    }
+
+    @Test
+    void listPage_followsCursorAndEndsWithoutNextCursor() {
+        doReturn(List.of(row("c")))
+                .when(videoRepository).findByVideoIdGreaterThanOrderByVideoIdAsc("b", Limit.of(3), VideoListItemWithDescription.class);
+
+        VideoPageDTO page = videoService.listPage(Cursor.encodeId("b"), 2, true);
+
+        assertEquals(1, page.items().size());
+        assertEquals("Desc c", page.items().get(0).description());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void listPage_rejectsBadLimitAndCursor() {
+        assertThrows(IllegalArgumentException.class, () -> videoService.listPage(null, 0, false));
+        assertThrows(IllegalArgumentException.class, () -> videoService.listPage(null, VideoService.MAX_PAGE_SIZE + 1, false));
+        assertThrows(IllegalArgumentException.class, () -> videoService.listPage("not base64!", 10, false));
+    }
+
     @Test
     void deleteVideo_whenExists_returnsTrueAndCallsDelete() {
         assertTrue(fakeDb.stream().anyMatch(v -> Objects.equals(getId(v), "1")));
@@ -191,8 +299,10 @@ class VideoServiceTest {
     void uploadAndSave_happyPath() throws IOException {
         MockMultipartFile file = new MockMultipartFile("file", "test.mp4", "video/mp4", "content".getBytes());
         videoSaveDTO meta = new videoSaveDTO("user-u", "Upload Title", "Upload Desc", null);
+        when(mediaJobService.submit(any(MediaJob.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        videoSaveDTO result = videoService.uploadAndSave(file, null, meta, false);
+        VideoService.StoredVideo stored = videoService.uploadAndSave(file, null, meta, false);
+        videoSaveDTO result = stored.video();
 
         assertNotNull(result);
         assertEquals("Upload Title", result.title());
@@ -202,6 +312,162 @@ class VideoServiceTest {
         assertNotNull(savedVideo);
         String storedFileName = savedVideo.getFileName();
         assertTrue(Files.exists(tempDir.resolve(storedFileName)));
+
+        ArgumentCaptor<MediaJob> job = ArgumentCaptor.forClass(MediaJob.class);
+        verify(mediaJobService).submit(job.capture());
+        assertEquals(MediaJob.Type.VIDEO_THUMBNAIL, job.getValue().getType());
+        assertEquals(MediaJob.Priority.INTERACTIVE, job.getValue().getPriority());
+        assertEquals(storedFileName, job.getValue().getVideoFileName());
+        assertSame(job.getValue(), stored.thumbnailJob());
+    }
+
+    @Test
+    void uploadAndSave_withThumbnail_queuesImageJobWithVideoFallback() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "clip.mp4", "video/mp4", "content".getBytes());
+        MockMultipartFile thumb = new MockMultipartFile("thumbnail", "t.png", "image/png", "png".getBytes());
+
+        videoService.uploadAndSave(file, thumb, new videoSaveDTO("u", "T", "D", null), false);
+
+        ArgumentCaptor<MediaJob> job = ArgumentCaptor.forClass(MediaJob.class);
+        verify(mediaJobService).submit(job.capture());
+        assertEquals(MediaJob.Type.IMAGE_THUMBNAIL, job.getValue().getType());
+        assertTrue(Files.exists(Path.of(job.getValue().getInput())));
+        assertTrue(job.getValue().getFallbackInput().endsWith(".mp4"));
+        assertTrue(job.getValue().getOutput().endsWith(".webp"));
+    }
+
+    @Test
+    void uploadAndSave_storesFileUnderItsContentHash() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "Clip.MOV", "video/quicktime", "content".getBytes());
+
+        videoSaveDTO result = videoService.uploadAndSave(file, null, new videoSaveDTO("u", "T", "D", null), false).video();
+
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest("content".getBytes()));
+        assertEquals(hash + ".mov", result.fileName());
+        assertEquals("content", Files.readString(tempDir.resolve(result.fileName())));
+    }
+
+    @Test
+    void uploadAndSave_duplicateContentReusesBlobVideoAndThumbnail() throws IOException {
+        MockMultipartFile first = new MockMultipartFile("file", "a.mp4", "video/mp4", "same".getBytes());
+        MockMultipartFile second = new MockMultipartFile("file", "b.mp4", "video/mp4", "same".getBytes());
+
+        VideoService.StoredVideo stored = videoService.uploadAndSave(first, null, new videoSaveDTO("u1", "A", "", null), false);
+        videoSaveDTO a = stored.video();
+        Files.writeString(tempDir.resolve(a.fileName().replace(".mp4", ".webp")), "w");
+        VideoService.StoredVideo duplicate = videoService.uploadAndSave(second, null, new videoSaveDTO("u2", "B", "", null), false);
+        videoService.uploadAndSave(second, null, new videoSaveDTO("u2", "B", "", null), false);
+
+        assertNull(stored.duplicateOf());
+        assertEquals(a, duplicate.video());
+        List<Video> rows = fakeDb.stream().filter(v -> a.fileName().equals(v.getFileName())).toList();
+        assertEquals(1, rows.size());
+        assertEquals(rows.get(0).getVideoId(), duplicate.duplicateOf());
+        assertEquals(List.of("u2"), owners.stream().map(VideoOwner::getUserId).toList());
+        verify(mediaJobService, times(1)).submit(any(MediaJob.class));
+        try (var files = Files.list(tempDir)) {
+            // the blob, its thumbnail and the (empty) incoming directory; no second copy
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void uploadAndSave_duplicateWithItsOwnThumbnailIsRejected() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "a.mp4", "video/mp4", "same".getBytes());
+        MockMultipartFile thumb = new MockMultipartFile("thumbnail", "t.png", "image/png", "png".getBytes());
+        videoSaveDTO a = videoService.uploadAndSave(file, null, new videoSaveDTO("u1", "A", "", null), false).video();
+        Files.writeString(tempDir.resolve(a.fileName().replace(".mp4", ".webp")), "w");
+
+        assertThrows(IllegalStateException.class,
+                () -> videoService.uploadAndSave(file, thumb, new videoSaveDTO("u2", "B", "", null), false));
+
+        assertTrue(owners.isEmpty());
+        try (var files = Files.list(tempDir)) {
+            // no leftover scratch image
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void uploadAndSave_duplicateWhileThumbnailJobPendingDoesNotQueueAnother() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "a.mp4", "video/mp4", "same".getBytes());
+        videoSaveDTO a = videoService.uploadAndSave(file, null, new videoSaveDTO("u1", "A", "", null), false).video();
+        MediaJob pending = new MediaJob(MediaJob.Type.VIDEO_THUMBNAIL, MediaJob.Priority.INTERACTIVE, a.fileName(), "in", null, "out");
+        when(mediaJobService.findLatestByVideoFileName(a.fileName())).thenReturn(Optional.of(pending));
+
+        VideoService.StoredVideo b = videoService.uploadAndSave(file, null, new videoSaveDTO("u2", "B", "", null), false);
+
+        verify(mediaJobService, times(1)).submit(any(MediaJob.class));
+        assertSame(pending, b.thumbnailJob());
+    }
+
+    @Test
+    void deleteVideo_keepsSharedContentUntilItsLastOwnerDeletesIt() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "a.mp4", "video/mp4", "same".getBytes());
+        videoSaveDTO a = videoService.uploadAndSave(file, null, new videoSaveDTO("u1", "A", "", null), false).video();
+        videoService.uploadAndSave(file, null, new videoSaveDTO("u2", "B", "", null), false);
+        videoService.uploadAndSave(file, null, new videoSaveDTO("u3", "C", "", null), false);
+        Path blob = tempDir.resolve(a.fileName());
+        Path thumbnail = tempDir.resolve(a.fileName().replace(".mp4", ".webp"));
+        Files.writeString(thumbnail, "w");
+        String id = fakeDb.stream().filter(v -> a.fileName().equals(v.getFileName())).map(VideoServiceTest::getId)
+                .findFirst().orElseThrow();
+
+        assertThrows(IllegalStateException.class, () -> videoService.deleteVideo(id, "stranger"));
+        // a co-owner only drops their own claim
+        assertTrue(videoService.deleteVideo(id, "u3"));
+        assertEquals(List.of("u2"), owners.stream().map(VideoOwner::getUserId).toList());
+        // the uploader leaves and the oldest co-owner takes the video over
+        assertTrue(videoService.deleteVideo(id, "u1"));
+        assertEquals("u2", videoService.getVideoById(id).getUserId());
+        assertTrue(owners.isEmpty());
+        assertTrue(Files.exists(blob));
+        verify(viewCounter, never()).forget(anyString());
+
+        assertTrue(videoService.deleteVideo(id, "u2"));
+        assertNull(videoService.getVideoById(id));
+        // the same content uploaded again must not be counted under this video
+        verify(viewCounter).forget(a.fileName());
+        assertFalse(Files.exists(blob));
+        assertFalse(Files.exists(thumbnail));
+    }
+
+    @Test
+    void uploadAndSave_blobWithoutVideoGetsANewOne() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "a.mp4", "video/mp4", "same".getBytes());
+        videoSaveDTO a = videoService.uploadAndSave(file, null, new videoSaveDTO("u1", "A", "", null), false).video();
+        // the rows are gone (in-memory database after a restart) but the blob is still on disk
+        fakeDb.clear();
+
+        videoSaveDTO b = videoService.uploadAndSave(file, null, new videoSaveDTO("u2", "B", "", null), false).video();
+
+        assertEquals(a.fileName(), b.fileName());
+        assertEquals("u2", b.userId());
+        assertEquals(1, fakeDb.size());
+    }
+
+    @Test
+    void deleteVideo_neverRemovesSeededFiles() throws IOException {
+        Files.writeString(tempDir.resolve("video1"), "v");
+
+        assertTrue(videoService.deleteVideo("1"));
+
+        assertTrue(Files.exists(tempDir.resolve("video1")));
+    }
+
+    @Test
+    void backfillThumbnails_queuesOnlyVideosWithoutWebp() throws IOException {
+        Files.writeString(tempDir.resolve("video1"), "v");
+        Files.writeString(tempDir.resolve("video2"), "v");
+        Files.writeString(tempDir.resolve("video2.webp"), "w");
+
+        int queued = videoService.backfillThumbnails();
+
+        assertEquals(1, queued);
+        ArgumentCaptor<MediaJob> job = ArgumentCaptor.forClass(MediaJob.class);
+        verify(mediaJobService).submit(job.capture());
+        assertEquals(MediaJob.Priority.BACKFILL, job.getValue().getPriority());
+        assertEquals("video1", job.getValue().getVideoFileName());
     }
 
     @Test
@@ -1,5 +1,6 @@
 package com.tecnocampus.LS2.protube_back.services;
 
+import com.tecnocampus.LS2.protube_back.controller.dto.HistoryPageDTO;
 import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewDTO;
 import com.tecnocampus.LS2.protube_back.domain.Video;
 import com.tecnocampus.LS2.protube_back.domain.VideoView;
@@ -8,15 +9,21 @@ import com.tecnocampus.LS2.protube_back.repository.VideoViewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,9 +35,15 @@ class VideoViewServiceTest {
     @Mock
     private VideoRepository videoRepository;
 
+    @Mock
+    private ViewIndex viewIndex;
+
     @InjectMocks
     private VideoViewService videoViewService;
 
+    @Captor
+    private ArgumentCaptor<Map<String, Map<String, Long>>> batch;
+
     private VideoView view1;
     private Video video1;
 
@@ -41,37 +54,90 @@ class VideoViewServiceTest {
     }
 
     @Test
-    void addOrUpdateView_createsNewView_whenNotExists() {
-        when(videoViewRepository.findByUserIdAndVideoFileName("user1", "video1")).thenReturn(Optional.empty());
-        when(videoViewRepository.save(any(VideoView.class))).thenAnswer(inv -> inv.getArgument(0));
-        // Exact match
-        when(videoRepository.findByFileName("video1")).thenReturn(Optional.empty());
-        // Prefix match
-        when(videoRepository.findByFileNameStartingWith("video1.")).thenReturn(List.of(video1));
-
+    void addOrUpdateView_buffersWithoutTouchingTheDatabase() {
         VideoViewDTO result = videoViewService.addOrUpdateView("user1", "video1");
 
         assertNotNull(result);
+        assertNull(result.id());
         assertEquals("user1", result.userId());
         assertEquals("video1", result.videoFileName());
-        assertEquals("Title 1", result.title()); // Resolved via prefix
-        verify(videoViewRepository).save(any(VideoView.class));
+        assertTrue(result.viewedAt() > 0);
+        verifyNoInteractions(videoViewRepository, videoRepository, viewIndex);
     }
 
     @Test
-    void addOrUpdateView_updatesExistingView_whenExists() {
-        VideoView existing = new VideoView("user1", "video1");
-        long oldTime = existing.getViewedAt();
-        
-        when(videoViewRepository.findByUserIdAndVideoFileName("user1", "video1")).thenReturn(Optional.of(existing));
-        when(videoViewRepository.save(any(VideoView.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(videoRepository.findByFileName("video1")).thenReturn(Optional.of(video1));
+    void indexExistingViews_resolvesFullAndBaseFileNames() {
+        Video video2 = new Video("user2", "Title 2", "Desc 2", "video2.mp4");
+        when(videoRepository.findAll()).thenReturn(List.of(video1, video2));
+        when(videoViewRepository.findAll()).thenReturn(List.of(
+                view1, new VideoView("user2", "video2.mp4"), new VideoView("user3", "missing")));
 
-        VideoViewDTO result = videoViewService.addOrUpdateView("user1", "video1");
+        videoViewService.indexExistingViews();
 
-        assertNotNull(result);
-        assertTrue(existing.getViewedAt() >= oldTime);
-        assertEquals("Title 1", result.title());
+        verify(viewIndex).record("user1", video1.getVideoId());
+        verify(viewIndex).record("user2", video2.getVideoId());
+        verifyNoMoreInteractions(viewIndex);
+    }
+
+    @Test
+    void flushViews_coalescesRepeatedViewsIntoOneWrite() {
+        when(videoViewRepository.upsertLatestViews(anyMap())).thenReturn(1);
+        // no exact match, found by prefix
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
+        videoViewService.addOrUpdateView("user1", "video1");
+        long latest = videoViewService.addOrUpdateView("user1", "video1").viewedAt();
+
+        assertEquals(1, videoViewService.flushViews());
+
+        verify(videoViewRepository).upsertLatestViews(batch.capture());
+        assertEquals(Map.of("user1", Map.of("video1", latest)), batch.getValue());
+        verify(viewIndex).record("user1", video1.getVideoId()); // resolved via prefix
+        assertEquals(0, videoViewService.flushViews());
+    }
+
+    @Test
+    void flushViews_keepsViewsWhenTheWriteFails() {
+        when(videoViewRepository.upsertLatestViews(anyMap()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
+        videoViewService.addOrUpdateView("user1", "video1");
+
+        assertEquals(0, videoViewService.flushViews());
+        verifyNoInteractions(viewIndex);
+
+        assertEquals(1, videoViewService.flushViews());
+        verify(viewIndex).record("user1", video1.getVideoId());
+    }
+
+    @Test
+    void flushViews_doesNotIndex_whenVideoUnknown() {
+        when(videoViewRepository.upsertLatestViews(anyMap())).thenReturn(1);
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of());
+        videoViewService.addOrUpdateView("user1", "gone");
+
+        videoViewService.flushViews();
+
+        verifyNoInteractions(viewIndex);
+    }
+
+    @Test
+    void listViews_includesViewsNotFlushedYet() {
+        view1.setViewedAt(1L);
+        when(videoViewRepository.findByUserIdOrderByViewedAtDesc("user1")).thenReturn(List.of(view1));
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
+        videoViewService.addOrUpdateView("user1", "video2");
+
+        List<VideoViewDTO> result = videoViewService.listViews("user1");
+
+        assertEquals(2, result.size());
+        assertEquals("video2", result.get(0).videoFileName());
+        assertEquals("Title 1", result.get(1).title());
+        assertEquals(1L, result.get(1).viewedAt());
     }
 
     @Test
@@ -87,7 +153,8 @@ class VideoViewServiceTest {
     @Test
     void listViews_returnsList_whenUserHasViews() {
         when(videoViewRepository.findByUserIdOrderByViewedAtDesc("user1")).thenReturn(List.of(view1));
-        when(videoRepository.findByFileName("video1")).thenReturn(Optional.of(video1));
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
 
         List<VideoViewDTO> result = videoViewService.listViews("user1");
 
@@ -95,6 +162,104 @@ class VideoViewServiceTest {
         assertEquals("Title 1", result.get(0).title());
     }
 
+    @Test
+    void listViews_resolvesEveryRowWithOneExactAndOnePrefixQuery() {
+        Video video2 = new Video("user2", "Title 2", "Desc 2", "video2.webm");
+        VideoView exact = new VideoView("user1", "video1.mp4");
+        VideoView byPrefix = new VideoView("user1", "video2");
+        VideoView unknown = new VideoView("user1", "video3");
+        when(videoViewRepository.findByUserIdOrderByViewedAtDesc("user1")).thenReturn(List.of(exact, byPrefix, unknown));
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of(video1));
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video2));
+
+        List<VideoViewDTO> result = videoViewService.listViews("user1");
+
+        assertEquals(List.of("Title 1", "Title 2", "video3"), result.stream().map(VideoViewDTO::title).toList());
+        verify(videoRepository).findByFileNameIn(argThat(names -> names.size() == 3));
+        verify(videoRepository).findByFileNamePrefixes(argThat(names -> Set.copyOf(names).equals(Set.of("video2", "video3"))));
+    }
+
+    @Test
+    void findPage_returnsCursorWhenThereIsMore() {
+        VideoView newer = new VideoView("user1", "video1");
+        newer.setViewedAt(30L);
+        VideoView older = new VideoView("user1", "video2");
+        older.setViewedAt(20L);
+        VideoView extra = new VideoView("user1", "video3");
+        extra.setViewedAt(10L);
+        when(videoViewRepository.findByUserIdOrderByViewedAtDescIdDesc("user1", Limit.of(3))).thenReturn(List.of(newer, older, extra));
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
+
+        HistoryPageDTO page = videoViewService.findPage("user1", null, 2);
+
+        assertEquals(List.of("video1", "video2"), page.items().stream().map(VideoViewDTO::videoFileName).toList());
+        assertEquals("Title 1", page.items().get(0).title());
+        assertNotNull(page.nextCursor());
+
+        when(videoViewRepository.findPageAfter("user1", 20L, older.getId(), Limit.of(3))).thenReturn(List.of(extra));
+
+        HistoryPageDTO second = videoViewService.findPage("user1", page.nextCursor(), 2);
+
+        assertEquals(1, second.items().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void findPage_mergesBufferedViewsWithoutFlushing() {
+        VideoView rewatched = new VideoView("user1", "video1");
+        rewatched.setViewedAt(30L);
+        VideoView older = new VideoView("user1", "video2");
+        older.setViewedAt(20L);
+        VideoView oldest = new VideoView("user1", "video3");
+        oldest.setViewedAt(10L);
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of());
+        // two rows for the page, one to tell there is more, one per buffered view
+        when(videoViewRepository.findByUserIdOrderByViewedAtDescIdDesc("user1", Limit.of(5)))
+                .thenReturn(List.of(rewatched, older, oldest));
+        videoViewService.addOrUpdateView("user1", "video1");
+        videoViewService.addOrUpdateView("user1", "video4");
+
+        HistoryPageDTO page = videoViewService.findPage("user1", null, 2);
+
+        // both buffered plays are newest; the stored row of video1 is not shown again further down
+        assertEquals(Set.of("video1", "video4"), page.items().stream().map(VideoViewDTO::videoFileName).collect(Collectors.toSet()));
+        assertTrue(page.items().stream().allMatch(item -> item.id() == null));
+        assertNotNull(page.nextCursor());
+        verify(videoViewRepository, never()).upsertLatestViews(anyMap());
+
+        long cursorViewedAt = page.items().get(1).viewedAt();
+        when(videoViewRepository.findPageAfter("user1", cursorViewedAt, "", Limit.of(5)))
+                .thenReturn(List.of(rewatched, older, oldest));
+
+        HistoryPageDTO second = videoViewService.findPage("user1", page.nextCursor(), 2);
+
+        assertEquals(List.of("video2", "video3"), second.items().stream().map(VideoViewDTO::videoFileName).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void unindexViews_forgetsTheVideosOfDeletedViews() {
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of(video1));
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of());
+
+        videoViewService.unindexViews(List.of(new VideoView("user1", "video1.mp4"), new VideoView("user2", "gone.mp4")));
+
+        verify(viewIndex).remove("user1", video1.getVideoId());
+        verifyNoMoreInteractions(viewIndex);
+    }
+
+    @Test
+    void findPage_rejectsBadCursorAndLimit() {
+        assertThrows(IllegalArgumentException.class, () -> videoViewService.findPage("user1", "!!", 10));
+        assertThrows(IllegalArgumentException.class, () -> videoViewService.findPage("user1",
+                Base64.getUrlEncoder().encodeToString("nope".getBytes(StandardCharsets.UTF_8)), 10));
+        assertThrows(IllegalArgumentException.class, () -> videoViewService.findPage("user1", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> videoViewService.findPage("user1", null, VideoViewService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> videoViewService.findPage(" ", null, 10));
+    }
+
     @Test
     void listViews_returnsEmpty_whenUserHasNoViews() {
         when(videoViewRepository.findByUserIdOrderByViewedAtDesc("user1")).thenReturn(List.of());
@@ -114,8 +279,8 @@ class VideoViewServiceTest {
     void resolveVideo_usesPrefix_whenExactMatchFails() {
         // This logic is internal but tested via public methods
         when(videoViewRepository.findByUserIdOrderByViewedAtDesc("user1")).thenReturn(List.of(view1));
-        when(videoRepository.findByFileName("video1")).thenReturn(Optional.empty());
-        when(videoRepository.findByFileNameStartingWith("video1.")).thenReturn(List.of(video1));
+        when(videoRepository.findByFileNameIn(anyCollection())).thenReturn(List.of());
+        when(videoRepository.findByFileNamePrefixes(anyCollection())).thenReturn(List.of(video1));
 
         List<VideoViewDTO> result = videoViewService.listViews("user1");
         
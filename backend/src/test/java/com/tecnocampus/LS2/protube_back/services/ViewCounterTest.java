@@ -0,0 +1,151 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.controller.dto.UniqueViewersDTO;
+import com.tecnocampus.LS2.protube_back.controller.dto.VideoViewStatsDTO;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.HyperLogLog;
+import com.tecnocampus.LS2.protube_back.repository.UniqueViewerRepository;
+import com.tecnocampus.LS2.protube_back.repository.ViewCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ViewCounterTest {
+    private static final long T0 = 1_700_006_400_000L;
+    private static final long HOUR = 3_600_000L;
+
+    private ViewCountRepository viewCountRepository;
+    private UniqueViewerRepository uniqueViewerRepository;
+    private VideoViewService videoViewService;
+    private ViewCounter viewCounter;
+
+    @BeforeEach
+    void setUp() {
+        viewCountRepository = new ViewCountRepository();
+        uniqueViewerRepository = new UniqueViewerRepository();
+        videoViewService = mock(VideoViewService.class);
+        viewCounter = new ViewCounter(viewCountRepository, uniqueViewerRepository, videoViewService);
+    }
+
+    private static Video video(String id, String fileName) {
+        Video video = new Video();
+        video.setVideoId(id);
+        video.setFileName(fileName);
+        return video;
+    }
+
+    @Test
+    void rollupResolvesFileNamesAndAddsPerVideo() {
+        Video v = video("v1", "clip.mp4");
+        when(videoViewService.resolveVideos(anyCollection())).thenReturn(Map.of("clip.mp4", v, "clip", v));
+        viewCounter.record("u1", "clip.mp4");
+        viewCounter.record("u2", "clip.mp4");
+        viewCounter.record("u1", "clip");
+
+        assertEquals(3, viewCounter.rollup(T0));
+
+        assertEquals(3, viewCountRepository.total("v1"));
+        // nothing new: no resolution, nothing added
+        assertEquals(0, viewCounter.rollup(T0 + 1));
+        viewCounter.record("u3", "clip");
+        assertEquals(1, viewCounter.rollup(T0 + HOUR));
+        verify(videoViewService, times(1)).resolveVideos(anyCollection());
+        assertEquals(4, viewCountRepository.total("v1"));
+        // u1 watched under both names and again within the day: three distinct viewers
+        assertEquals(3, uniqueViewerRepository.estimate("v1", T0 + HOUR, 1));
+    }
+
+    @Test
+    void unknownFileNamesAreDropped() {
+        when(videoViewService.resolveVideos(anyCollection())).thenReturn(Map.of());
+        viewCounter.record("u1", "nope.mp4");
+
+        assertEquals(0, viewCounter.rollup(T0));
+        assertEquals(0, viewCountRepository.total("nope.mp4"));
+        assertEquals(0, uniqueViewerRepository.estimate("nope.mp4", T0, 1));
+    }
+
+    @Test
+    void forgottenFileNamesAreResolvedAgain() {
+        when(videoViewService.resolveVideos(anyCollection()))
+                .thenReturn(Map.of("blob.mp4", video("v1", "blob.mp4")))
+                .thenReturn(Map.of("blob.mp4", video("v2", "blob.mp4")));
+        viewCounter.record("u1", "blob.mp4");
+        viewCounter.rollup(T0);
+
+        // v1 was deleted and the same content uploaded again as v2
+        viewCounter.forget("blob.mp4");
+        viewCounter.record("u1", "blob.mp4");
+        viewCounter.rollup(T0 + HOUR);
+
+        assertEquals(1, viewCountRepository.total("v1"));
+        assertEquals(1, viewCountRepository.total("v2"));
+    }
+
+    @Test
+    void failedResolutionKeepsViewsForNextRollup() {
+        when(videoViewService.resolveVideos(anyCollection()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(Map.of("clip.mp4", video("v1", "clip.mp4")));
+        viewCounter.record("u1", "clip.mp4");
+
+        assertEquals(0, viewCounter.rollup(T0));
+        assertEquals(1, viewCounter.rollup(T0 + 1));
+        assertEquals(1, viewCountRepository.total("v1"));
+        assertEquals(1, uniqueViewerRepository.estimate("v1", T0, 1));
+    }
+
+    @Test
+    void statsReturnsTotalAndSeriesOldestFirst() {
+        viewCountRepository.add("v1", T0, 2);
+        viewCountRepository.add("v1", T0 + 2 * HOUR, 5);
+
+        VideoViewStatsDTO stats = viewCounter.stats("v1", "Hour", 3, T0 + 2 * HOUR + 10);
+
+        assertEquals("v1", stats.videoId());
+        assertEquals(7, stats.total());
+        assertEquals("hour", stats.granularity());
+        assertEquals(List.of(T0, T0 + HOUR, T0 + 2 * HOUR), stats.series().stream().map(b -> b.start()).toList());
+        assertEquals(List.of(2L, 0L, 5L), stats.series().stream().map(b -> b.views()).toList());
+        assertEquals(24, viewCounter.stats("v1", null, null, T0).series().size());
+    }
+
+    @Test
+    void statsRejectsBadParameters() {
+        assertThrows(IllegalArgumentException.class, () -> viewCounter.stats("v1", "week", null, T0));
+        assertThrows(IllegalArgumentException.class, () -> viewCounter.stats("v1", "day", 0, T0));
+        assertThrows(IllegalArgumentException.class, () -> viewCounter.stats("v1", "day", 100_000, T0));
+    }
+
+    @Test
+    void anonymousViewsCountButAddNoViewer() {
+        when(videoViewService.resolveVideos(anyCollection())).thenReturn(Map.of("clip.mp4", video("v1", "clip.mp4")));
+        viewCounter.record(null, "clip.mp4");
+
+        assertEquals(1, viewCounter.rollup(T0));
+        assertEquals(0, uniqueViewerRepository.estimate("v1", T0, 1));
+    }
+
+    @Test
+    void uniqueViewersMergesDaysAndListsEachDay() {
+        long day = 86_400_000L;
+        uniqueViewerRepository.offer("v1", T0, List.of(HyperLogLog.hash("u1"), HyperLogLog.hash("u2")));
+        uniqueViewerRepository.offer("v1", T0 + 2 * day, List.of(HyperLogLog.hash("u2"), HyperLogLog.hash("u3")));
+
+        UniqueViewersDTO viewers = viewCounter.uniqueViewers("v1", 3, T0 + 2 * day + 10);
+
+        assertEquals(3, viewers.days());
+        assertEquals(3, viewers.uniqueViewers());
+        assertEquals(List.of(T0, T0 + day, T0 + 2 * day), viewers.daily().stream().map(b -> b.start()).toList());
+        assertEquals(List.of(2L, 0L, 2L), viewers.daily().stream().map(b -> b.views()).toList());
+        assertEquals(7, viewCounter.uniqueViewers("v1", null, T0).daily().size());
+        assertThrows(IllegalArgumentException.class, () -> viewCounter.uniqueViewers("v1", 0, T0));
+        assertThrows(IllegalArgumentException.class, () -> viewCounter.uniqueViewers("v1", 10_000, T0));
+    }
+}
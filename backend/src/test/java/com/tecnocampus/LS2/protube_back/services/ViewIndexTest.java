@@ -0,0 +1,61 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.repository.IdDictionaries;
+import com.tecnocampus.LS2.protube_back.repository.IntBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewIndexTest {
+
+    private IdDictionaries ids;
+    private ViewIndex viewIndex;
+
+    @BeforeEach
+    void setUp() {
+        ids = new IdDictionaries();
+        viewIndex = new ViewIndex(ids);
+    }
+
+    @Test
+    void record_isIdempotentAndIndexesBothDirections() {
+        viewIndex.record("u1", "v1");
+        viewIndex.record("u1", "v1");
+        viewIndex.record("u2", "v1");
+        viewIndex.record("u1", "v2");
+
+        assertTrue(viewIndex.hasWatched("u1", "v2"));
+        assertFalse(viewIndex.hasWatched("u2", "v2"));
+        assertFalse(viewIndex.hasWatched("nobody", "v1"));
+        assertEquals(2, viewIndex.uniqueViewers("v1"));
+        assertEquals(0, viewIndex.uniqueViewers("unknown"));
+        assertEquals(List.of("v1", "v2"), ids.videos().namesOf(viewIndex.watchedBy("u1")));
+    }
+
+    @Test
+    void remove_forgetsTheViewInBothDirections() {
+        viewIndex.record("u1", "v1");
+        viewIndex.record("u2", "v1");
+
+        viewIndex.remove("u1", "v1");
+        viewIndex.remove("nobody", "v1");
+
+        assertFalse(viewIndex.hasWatched("u1", "v1"));
+        assertTrue(viewIndex.hasWatched("u2", "v1"));
+        assertEquals(1, viewIndex.uniqueViewers("v1"));
+    }
+
+    @Test
+    void watchedBy_returnsACopy() {
+        viewIndex.record("u1", "v1");
+
+        IntBitmap watched = viewIndex.watchedBy("u1");
+        watched.add(ids.videos().intern("v2"));
+
+        assertFalse(viewIndex.hasWatched("u1", "v2"));
+        assertTrue(viewIndex.watchedBy("nobody").isEmpty());
+    }
+}
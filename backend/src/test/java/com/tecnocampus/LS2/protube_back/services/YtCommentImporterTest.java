@@ -0,0 +1,162 @@
+package com.tecnocampus.LS2.protube_back.services;
+
+import com.tecnocampus.LS2.protube_back.domain.Comentari;
+import com.tecnocampus.LS2.protube_back.domain.Video;
+import com.tecnocampus.LS2.protube_back.repository.CommentImportRepository;
+import com.tecnocampus.LS2.protube_back.repository.ComentariRepository;
+import com.tecnocampus.LS2.protube_back.repository.VideoListItem;
+import com.tecnocampus.LS2.protube_back.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class YtCommentImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private VideoRepository videoRepository;
+    private ComentariRepository comentariRepository;
+    private VideoMetadataReader reader;
+    private Environment env;
+    private YtCommentImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        env = mock(Environment.class);
+        when(env.getProperty("pro_tube.store.dir")).thenReturn(tempDir.toString());
+        videoRepository = mock(VideoRepository.class);
+        comentariRepository = new ComentariRepository();
+        reader = spy(new VideoMetadataReader());
+        importer = new YtCommentImporter(comentariRepository, new CommentImportRepository(), videoRepository, reader, env);
+    }
+
+    private CommentImportRepository persistentImports() {
+        CommentImportRepository imports = new CommentImportRepository();
+        ReflectionTestUtils.setField(imports, "storeDir", tempDir.toString());
+        ReflectionTestUtils.setField(imports, "durability", "strict");
+        imports.load();
+        return imports;
+    }
+
+    private void storeVideo(String id) throws IOException {
+        when(videoRepository.findById(id)).thenReturn(Optional.of(new Video(id, "u", "T", "D", id + ".mp4")));
+        Files.writeString(tempDir.resolve(id + ".json"), """
+                {"id": 1, "title": "T", "meta": {"comments": [
+                    {"text": "first", "author": "ana", "timestamp": 1700000000, "like_count": 1},
+                    {"text": "second", "author": "bob", "timestamp": 1700000100, "like_count": 0}]}}
+                """);
+    }
+
+    @Test
+    void ensureImported_importsOnceWithStableIdsAndTimestamps() throws IOException {
+        storeVideo("1");
+
+        importer.ensureImported("1");
+        importer.ensureImported("1");
+
+        List<Comentari> comments = comentariRepository.findByVideoId("1");
+        assertEquals(List.of("yt-1-0", "yt-1-1"), comments.stream().map(Comentari::getId).toList());
+        assertEquals("yt:ana", comments.get(0).getUserId());
+        assertEquals("first", comments.get(0).getDescripcion());
+        assertEquals(1700000000000L, comments.get(0).getCreatedAt());
+        verify(reader, times(1)).readComments(any(), anyInt(), any());
+    }
+
+    @Test
+    void importVideo_skipsCommentsAlreadyInTheStore() throws IOException {
+        storeVideo("1");
+        comentariRepository.save(new Comentari("yt-1-0", "yt:ana", "1", null, "first"));
+
+        assertEquals(1, importer.importVideo("1"));
+        assertEquals(2, comentariRepository.findByVideoId("1").size());
+    }
+
+    @Test
+    void importVideo_savesInBatches() throws IOException {
+        when(videoRepository.findById("1")).thenReturn(Optional.of(new Video("1", "u", "T", "D", "1.mp4")));
+        String comments = IntStream.range(0, 250)
+                .mapToObj(i -> "{\"text\": \"c" + i + "\", \"author\": \"ana\", \"timestamp\": 1700000000}")
+                .collect(Collectors.joining(","));
+        Files.writeString(tempDir.resolve("1.json"), "{\"id\": 1, \"meta\": {\"comments\": [" + comments + "]}}");
+        comentariRepository = spy(new ComentariRepository());
+        importer = new YtCommentImporter(comentariRepository, new CommentImportRepository(), videoRepository, reader, env);
+
+        assertEquals(250, importer.importVideo("1"));
+
+        verify(comentariRepository, times(3)).saveAll(any());
+        assertEquals(250, comentariRepository.findByUserId("yt:ana").size());
+    }
+
+    @Test
+    void ensureImported_deletedCommentsStayDeletedAfterRestart() throws IOException {
+        storeVideo("1");
+        CommentImportRepository imports = persistentImports();
+        importer = new YtCommentImporter(comentariRepository, imports, videoRepository, reader, env);
+        importer.ensureImported("1");
+        assertTrue(comentariRepository.deleteById("yt-1-0"));
+        imports.close();
+
+        // a new process: the comment log still lacks yt-1-0 and the import marker was replayed
+        YtCommentImporter restarted = new YtCommentImporter(comentariRepository, persistentImports(),
+                videoRepository, reader, env);
+        restarted.ensureImported("1");
+
+        assertEquals(List.of("yt-1-1"), comentariRepository.findByVideoId("1").stream().map(Comentari::getId).toList());
+        verify(reader, times(1)).readComments(any(), anyInt(), any());
+    }
+
+    @Test
+    void ensureImported_ignoresVideosWithoutInfoJson() {
+        when(videoRepository.findById("9")).thenReturn(Optional.of(new Video("9", "u", "T", "D", "9.mp4")));
+        when(videoRepository.findById("missing")).thenReturn(Optional.empty());
+
+        importer.ensureImported("9");
+        importer.ensureImported("missing");
+        importer.ensureImported("missing");
+
+        assertTrue(comentariRepository.findAll().isEmpty());
+        // an existing video is imported once; an unknown id is looked up again rather than remembered
+        importer.ensureImported("9");
+        verify(videoRepository, times(1)).findById("9");
+        verify(videoRepository, times(2)).findById("missing");
+    }
+
+    @Test
+    void toComentari_stripsHandlePrefix() {
+        Comentari c = YtCommentImporter.toComentari("yt-x", "1",
+                new VideoMetadataReader.InfoComment("x", "hi", "@ana", null));
+
+        assertEquals("yt:ana", c.getUserId());
+        assertEquals(0, c.getCreatedAt());
+    }
+
+    @Test
+    void backfillAll_walksEveryPage() throws IOException {
+        storeVideo("1");
+        VideoListItem item = mock(VideoListItem.class);
+        when(item.getVideoId()).thenReturn("1");
+        when(videoRepository.findAllByOrderByVideoIdAsc(any(Limit.class), eq(VideoListItem.class))).thenReturn(List.of(item));
+        when(videoRepository.findByVideoIdGreaterThanOrderByVideoIdAsc(eq("1"), any(Limit.class), eq(VideoListItem.class)))
+                .thenReturn(List.of());
+
+        assertEquals(1, importer.backfillAll());
+        assertEquals(2, comentariRepository.findByVideoId("1").size());
+    }
+}
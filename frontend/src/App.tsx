@@ -137,6 +137,7 @@ function App() {
       localStorage.removeItem('protube_user');
       localStorage.removeItem('protube_user_id');
       localStorage.removeItem('protube_username');
+      localStorage.removeItem('protube_token');
       // notify other components in the same tab to refresh auth-dependent state
       try {
         window.dispatchEvent(new CustomEvent('protube:update', { detail: { type: 'auth', loggedIn: false } }));
@@ -37,6 +37,9 @@ export default function LoginModal({ onClose, onLoggedIn }: LoginModalProps) {
         try {
           localStorage.setItem('protube_user_id', email);
           localStorage.setItem('protube_user', email);
+          // signed session token; sent back as "Authorization: Bearer" so the backend trusts our user id
+          const token = res.headers.get('X-Auth-Token');
+          if (token) localStorage.setItem('protube_token', token);
         } catch (_e) {
           /* intentionally left blank */
         }
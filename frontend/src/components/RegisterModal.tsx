@@ -37,6 +37,9 @@ export default function RegisterModal({ onClose, onRegistered, onBackToLogin }:
         try {
           localStorage.setItem('protube_user_id', username);
           localStorage.setItem('protube_user', username);
+          // registering logs the user in: keep the session token like LoginModal does
+          const token = res.headers.get('X-Auth-Token');
+          if (token) localStorage.setItem('protube_token', token);
         } catch (_e) {
           /* intentionally left blank */
         }
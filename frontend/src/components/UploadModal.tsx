@@ -108,18 +108,21 @@ const UploadModal: React.FC<Props> = ({ onClose }) => {
           form.append('published', String(publish));
 
           const res = await fetch('/api/videos/upload', { method: 'POST', body: form });
-          return res.ok;
+          // identical content is stored once: the server answers with the video already on ProTube
+          const duplicate = res.ok && res.headers.get('X-Duplicate-Of') !== null;
+          return { ok: res.ok, duplicate, error: res.ok ? null : res.headers.get('X-Error') };
         })
       );
 
-      const allOk = results.every(Boolean);
+      const allOk = results.every((r) => r.ok);
+      const conflict = results.find((r) => r.error)?.error;
+      let message = allOk ? (publish ? 'Vídeos publicats' : 'Vídeos desats') : conflict || 'Alguns errors en pujar';
+      if (results.some((r) => r.duplicate)) {
+        message += ". Algun vídeo ja era a ProTube: s'ha afegit al teu compte amb el títol i la descripció d'abans";
+      }
       try {
         window.dispatchEvent(new CustomEvent('protube:update', { detail: { type: 'channel_upload' } }));
-        window.dispatchEvent(
-          new CustomEvent('protube:toast', {
-            detail: { message: allOk ? (publish ? 'Vídeos publicats' : 'Vídeos desats') : 'Alguns errors en pujar' },
-          })
-        );
+        window.dispatchEvent(new CustomEvent('protube:toast', { detail: { message } }));
       } catch (_e) {
         /* intentionally left blank */
       }
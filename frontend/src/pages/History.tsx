@@ -10,6 +10,29 @@ type HistoryEntry = {
   viewedAt: number;
 };
 
+const HISTORY_PAGE_SIZE = 20;
+
+type HistoryPage = { items: Array<{ videoFileName: string; title?: string; viewedAt: number }>; nextCursor?: string | null };
+
+// Fetches one page of the user's history, newest first; cursor is the nextCursor of the previous page
+async function fetchHistoryPage(userId: string, cursor?: string | null): Promise<HistoryPage> {
+  const params = new URLSearchParams({ limit: String(HISTORY_PAGE_SIZE) });
+  if (cursor) params.set('cursor', cursor);
+  const res = await fetch(`/api/history/${encodeURIComponent(userId)}/page?${params.toString()}`);
+  if (!res.ok) throw new Error('Error history fetch');
+  return res.json();
+}
+
+function toEntries(page: HistoryPage): HistoryEntry[] {
+  return (page.items || []).map((d) => ({
+    name: d.videoFileName,
+    title: d.title || d.videoFileName,
+    posterUrl: `/media/${d.videoFileName.replace(/\.[^.]+$/, '')}.webp`,
+    videoUrl: `/media/${d.videoFileName}`,
+    viewedAt: d.viewedAt,
+  }));
+}
+
 export default function History() {
   const { value: allVideos } = useAllVideos();
   const [history, setHistory] = useState<HistoryEntry[]>(() => {
@@ -22,6 +45,8 @@ export default function History() {
   const [backendHistory, setBackendHistory] = useState<HistoryEntry[] | null>(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
+  const [historyCursor, setHistoryCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const userId = (() => {
     try {
       return localStorage.getItem('protube_user_id') || localStorage.getItem('protube_user');
@@ -40,20 +65,10 @@ export default function History() {
       setLoading(true);
       setError(null);
       try {
-        const res = await fetch(`/api/history/${encodeURIComponent(userId)}`);
-        if (!res.ok) throw new Error('Error history fetch');
-        const data = await res.json();
+        const page = await fetchHistoryPage(userId);
         if (abort) return;
-        const mapped: HistoryEntry[] = (data as Array<{ videoFileName: string; title?: string; viewedAt: number }>).map(
-          (d) => ({
-            name: d.videoFileName,
-            title: d.title || d.videoFileName,
-            posterUrl: `/media/${d.videoFileName.replace(/\.[^.]+$/, '')}.webp`,
-            videoUrl: `/media/${d.videoFileName}`,
-            viewedAt: d.viewedAt,
-          })
-        );
-        setBackendHistory(mapped);
+        setBackendHistory(toEntries(page));
+        setHistoryCursor(page.nextCursor || null);
       } catch (e) {
         if (!abort) setError((e as Error).message || 'Error');
       } finally {
@@ -66,6 +81,20 @@ export default function History() {
     };
   }, [userId]);
 
+  const loadMore = async () => {
+    if (!userId || !historyCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchHistoryPage(userId, historyCursor);
+      setBackendHistory((prev) => [...(prev || []), ...toEntries(page)]);
+      setHistoryCursor(page.nextCursor || null);
+    } catch (e) {
+      setError((e as Error).message || 'Error');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const clearHistory = () => {
     try {
       localStorage.removeItem('protube_history');
@@ -134,6 +163,13 @@ export default function History() {
           })}
         </ul>
       )}
+      {userId && historyCursor && (
+        <div style={{ marginTop: 12, textAlign: 'center' }}>
+          <button type="button" onClick={loadMore} disabled={loadingMore} style={{ padding: '6px 10px', borderRadius: 8 }}>
+            {loadingMore ? 'Carregant...' : 'Carregar més'}
+          </button>
+        </div>
+      )}
       {!userId && history.length > 0 && (
         <ul style={{ listStyle: 'none', padding: 0, margin: 0, display: 'grid', gap: 12 }}>
           {history.map((h) => {
@@ -47,7 +47,12 @@ const MyVideos: React.FC = () => {
   const handleDelete = async (id: string) => {
     if (!window.confirm('Estàs segur que vols eliminar aquest vídeo?')) return;
     try {
-      const res = await fetch(`/api/videos/${id}`, { method: 'DELETE' });
+      // with the token only this user's ownership is dropped when others uploaded the same video
+      const token = localStorage.getItem('protube_token');
+      const res = await fetch(`/api/videos/${id}`, {
+        method: 'DELETE',
+        headers: token ? { Authorization: `Bearer ${token}` } : undefined,
+      });
       if (res.ok) {
         setVideos((prev) => prev.filter((v) => v.videoId !== id));
       } else {
@@ -3,6 +3,40 @@ import { useParams, useLocation, Link } from 'react-router-dom';
 import { Heart, Clock as ClockIcon, PlusSquare } from 'lucide-react';
 import { VideoItem } from '../useAllVideos';
 
+type CommentView = { id: string | number; username?: string; text: string; createdAt: number };
+
+const COMMENT_PAGE_SIZE = 20;
+
+// Fetches one page of a video's comments, newest first; cursor is the nextCursor of the previous page
+async function fetchCommentPage(
+  vid: string,
+  cursor?: string | null,
+): Promise<{ items: CommentView[]; nextCursor: string | null } | null> {
+  const params = new URLSearchParams({ limit: String(COMMENT_PAGE_SIZE) });
+  if (cursor) params.set('cursor', cursor);
+  const res = await fetch(`/api/comentaris/video/${encodeURIComponent(vid)}/page?${params.toString()}`);
+  if (!res.ok) return null;
+  const data: {
+    items?: Array<{
+      id: string;
+      userId: string;
+      videoId: string;
+      titulo?: string;
+      descripcion?: string;
+      createdAt?: number | null;
+    }>;
+    nextCursor?: string | null;
+  } | null = await res.json();
+  const items = (data?.items || []).map((d) => ({
+    id: d.id,
+    // imported YouTube comments carry their author as yt:<handle>
+    username: d.userId.startsWith('yt:') ? '@' + d.userId.slice(3) : d.userId,
+    text: d.descripcion || d.titulo || '',
+    createdAt: d.createdAt || Date.now(),
+  }));
+  return { items, nextCursor: data?.nextCursor ?? null };
+}
+
 // The VideoPage expects that the navigation passes the VideoItem
 // through location.state. If not present, we reconstruct basic URLs
 // using the name param.
@@ -18,14 +52,16 @@ export default function VideoPage() {
   const videoUrl = video?.videoUrl ?? (paramName ? `${mediaBase}/${paramName}` : '');
   const posterUrl = video?.posterUrl ?? (paramName ? `${mediaBase}/${paramName.replace(/\.[^/.]+$/, '')}.webp` : '');
   const title = video?.title ?? video?.name ?? paramName ?? '';
-  const description = video?.description ?? '';
 
   // Comments
   const videoKey = paramName || 'unknown';
-  const [comments, setComments] = useState<
-    Array<{ id: string | number; username?: string; text: string; createdAt: number }>
-  >([]);
+  const [comments, setComments] = useState<CommentView[]>([]);
+  const [commentsCursor, setCommentsCursor] = useState<string | null>(null);
+  const [loadingMoreComments, setLoadingMoreComments] = useState(false);
   const [backendVideoId, setBackendVideoId] = useState<string | undefined>(video?.videoId);
+  // the catalog only carries a preview of the description; the full text is fetched per video
+  const [fullDescription, setFullDescription] = useState<string | null>(null);
+  const description = fullDescription ?? video?.description ?? '';
   const [commentText, setCommentText] = useState('');
   const [isAuthenticated, setIsAuthenticated] = useState<boolean>(() => {
     try {
@@ -54,6 +90,23 @@ export default function VideoPage() {
     }
   }, [video?.videoId]);
 
+  useEffect(() => {
+    let cancelled = false;
+    setFullDescription(null);
+    if (!backendVideoId) return;
+    (async () => {
+      try {
+        const res = await fetch(`/api/videos/${encodeURIComponent(backendVideoId)}/description`);
+        if (!cancelled && res.ok) setFullDescription(await res.text());
+      } catch (_e) {
+        /* keep the preview */
+      }
+    })();
+    return () => {
+      cancelled = true;
+    };
+  }, [backendVideoId]);
+
   useEffect(() => {
     let cancelled = false;
     const API = '/api';
@@ -78,31 +131,16 @@ export default function VideoPage() {
     };
 
     const loadComments = async (vid?: string) => {
+      setCommentsCursor(null);
       if (!vid) {
         setComments([]);
         return;
       }
       try {
-        const res = await fetch(`${API}/comentaris/video/${encodeURIComponent(vid)}`);
+        const page = await fetchCommentPage(vid);
         if (cancelled) return;
-        if (res.ok) {
-          const data: Array<{
-            id: string;
-            userId: string;
-            videoId: string;
-            titulo?: string;
-            descripcion?: string;
-          }> | null = await res.json();
-          const mapped = (data || []).map((d) => ({
-            id: d.id,
-            username: d.userId,
-            text: d.descripcion || d.titulo || '',
-            createdAt: Date.now(),
-          }));
-          setComments(mapped);
-        } else {
-          setComments([]);
-        }
+        setComments(page ? page.items : []);
+        setCommentsCursor(page ? page.nextCursor : null);
       } catch (_e) {
         if (!cancelled) setComments([]);
       }
@@ -124,6 +162,7 @@ export default function VideoPage() {
   // Likes / watch later / playlists state
   const [liked, setLiked] = useState<boolean>(false);
   const [likeLoading, setLikeLoading] = useState<boolean>(false);
+  const [likeCount, setLikeCount] = useState<number | null>(null);
   const [watchLaterPlaylist, setWatchLaterPlaylist] = useState<{ id: string; videoIds: string[] } | null>(null);
   const [playlists, setPlaylists] = useState<Array<{ id: string; name: string; videoIds: string[] }>>([]);
   const [showPlaylistPopover, setShowPlaylistPopover] = useState(false);
@@ -192,6 +231,24 @@ export default function VideoPage() {
     };
   }, [userId, targetVideoId]);
 
+  // Like count is public, so it is shown to anonymous visitors too
+  useEffect(() => {
+    let cancelled = false;
+    setLikeCount(null);
+    if (!targetVideoId) return;
+    (async () => {
+      try {
+        const res = await fetch(`/api/likes/video/${encodeURIComponent(targetVideoId)}/count`);
+        if (!cancelled && res.ok) setLikeCount(Number(await res.text()) || 0);
+      } catch (_e) {
+        /* intentionally left blank */
+      }
+    })();
+    return () => {
+      cancelled = true;
+    };
+  }, [targetVideoId]);
+
   const toggleLiked = async () => {
     // Require login to like a video
     if (!userId) {
@@ -214,6 +271,7 @@ export default function VideoPage() {
           return;
         }
         setLiked(true);
+        setLikeCount((c) => (c === null ? c : c + 1));
         showToast("Afegit a M'agrada");
       } else {
         const res = await fetch(url, { method: 'DELETE' });
@@ -222,6 +280,7 @@ export default function VideoPage() {
           return;
         }
         setLiked(false);
+        setLikeCount((c) => (c === null ? c : Math.max(0, c - 1)));
         showToast("Eliminat de M'agrada");
       }
     } catch (e) {
@@ -352,6 +411,16 @@ export default function VideoPage() {
     }
   };
 
+  const askToLogInAgain = () => {
+    try {
+      localStorage.removeItem('protube_token');
+    } catch (_e) {
+      /* intentionally left blank */
+    }
+    showToast('La sessió ha caducat. Torna a iniciar sessió per comentar');
+    window.dispatchEvent(new CustomEvent('protube:open-login'));
+  };
+
   // Close modal on Escape key when visible
   useEffect(() => {
     if (!showPlaylistPopover) return;
@@ -403,6 +472,22 @@ export default function VideoPage() {
     }
   }, [videoKey]);
 
+  const handleLoadMoreComments = async () => {
+    if (!backendVideoId || !commentsCursor || loadingMoreComments) return;
+    setLoadingMoreComments(true);
+    try {
+      const page = await fetchCommentPage(backendVideoId, commentsCursor);
+      if (page) {
+        setComments((prev) => [...prev, ...page.items.filter((c) => !prev.some((p) => p.id === c.id))]);
+        setCommentsCursor(page.nextCursor);
+      }
+    } catch (_e) {
+      /* intentionally left blank */
+    } finally {
+      setLoadingMoreComments(false);
+    }
+  };
+
   // No longer saving comments in localStorage; using backend API instead
 
   const handleAddComment = (e: React.FormEvent) => {
@@ -416,9 +501,21 @@ export default function VideoPage() {
         return 'Usuario';
       }
     })();
-    const next = [{ id: Date.now().toString(), username: currentUser, text, createdAt: Date.now() }, ...comments];
+    // the backend only accepts comments signed by a session token; without one, ask to log in again
+    const token = localStorage.getItem('protube_token');
+    if (!token) {
+      askToLogInAgain();
+      return;
+    }
+    const pendingId = Date.now().toString();
+    const next = [{ id: pendingId, username: currentUser, text, createdAt: Date.now() }, ...comments];
     setComments(next);
     setCommentText('');
+    // drop the optimistic comment again when the server did not keep it
+    const discardPending = () => {
+      setComments((prev) => prev.filter((c) => c.id !== pendingId));
+      setCommentText(text);
+    };
 
     // Persist comment to backend comments API (no localhost, relative API base)
     (async () => {
@@ -434,9 +531,14 @@ export default function VideoPage() {
           descripcion: text,
         };
 
+        const headers: Record<string, string> = {
+          'Content-Type': 'application/json',
+          Authorization: `Bearer ${token}`,
+        };
+
         const resp = await fetch(`${API}/comentaris/save`, {
           method: 'POST',
-          headers: { 'Content-Type': 'application/json' },
+          headers,
           body: JSON.stringify(payload),
         });
 
@@ -451,28 +553,21 @@ export default function VideoPage() {
           try {
             const vid = resolvedVideoId || backendVideoId;
             if (vid) {
-              const res2 = await fetch(`${API}/comentaris/video/${encodeURIComponent(vid)}`);
-              if (res2.ok) {
-                const data: Array<{
-                  id: string;
-                  userId: string;
-                  videoId: string;
-                  titulo?: string;
-                  descripcion?: string;
-                }> | null = await res2.json();
-                const mapped = (data || []).map((d) => ({
-                  id: d.id,
-                  username: d.userId,
-                  text: d.descripcion || d.titulo || '',
-                  createdAt: Date.now(),
-                }));
-                setComments(mapped);
+              const page = await fetchCommentPage(vid);
+              if (page) {
+                setComments(page.items);
+                setCommentsCursor(page.nextCursor);
               }
             }
           } catch (_e) {
             /* intentionally left blank */
           }
+        } else if (resp.status === 401) {
+          // expired token, or one signed before the server restarted
+          discardPending();
+          askToLogInAgain();
         } else {
+          discardPending();
           let msg = "No s'ha pogut desar el comentari al servidor";
           try {
             const headerMsg = resp.headers.get('X-Error');
@@ -489,6 +584,7 @@ export default function VideoPage() {
         }
       } catch (err) {
         console.warn('Backend comment save failed', err);
+        discardPending();
         showToast("No s'ha pogut desar el comentari al servidor");
       }
     })();
@@ -532,7 +628,7 @@ export default function VideoPage() {
             aria-busy={likeLoading}
           >
             <Heart size={18} />
-            <span className="action-text">M'agrada</span>
+            <span className="action-text">M'agrada{likeCount !== null ? ` · ${likeCount}` : ''}</span>
           </button>
 
           <button
@@ -652,6 +748,11 @@ export default function VideoPage() {
               </div>
             ))
           )}
+          {commentsCursor && (
+            <button type="button" onClick={handleLoadMoreComments} disabled={loadingMoreComments}>
+              {loadingMoreComments ? 'Cargando...' : 'Cargar más comentarios'}
+            </button>
+          )}
         </div>
       </section>
       {/* global toast is rendered in App.tsx */}
@@ -4,9 +4,10 @@ import { getEnv } from './utils/Env';
 
 type LoadingState = 'loading' | 'success' | 'error' | 'idle';
 
-// Use full video objects endpoint so we can display real titles, not UUID-based filenames
-const ALL_VIDEOS_URL = `${getEnv().API_BASE_URL}/videos/all`;
+// One request for the whole catalog: the backend precomputes channel, counts, duration and poster per video
+const CATALOG_URL = `${getEnv().API_BASE_URL}/videos/catalog`;
 const MEDIA_BASE_URL = getEnv().MEDIA_BASE_URL;
+const MEDIA_DOMAIN = getEnv().MEDIA_DOMAIN;
 export type VideoItem = {
   name: string;
   videoUrl: string;
@@ -19,6 +20,50 @@ export type VideoItem = {
   likeCount?: number;
   durationSeconds?: number;
 };
+
+type VideoSummary = {
+  videoId: string;
+  userId?: string;
+  title?: string;
+  description?: string;
+  fileName?: string;
+  posterUrl?: string;
+  channel?: string | null;
+  viewCount?: number | null;
+  likeCount?: number | null;
+  durationSeconds?: number | null;
+};
+
+const isAbsolute = (url: string) => url.startsWith('http://') || url.startsWith('https://');
+
+export function toVideoItem(summary: VideoSummary): VideoItem {
+  const rawStr = summary.fileName ?? summary.videoId;
+  // Remove any path and extension for display name
+  const filename = rawStr.split('/').pop() || rawStr;
+  const name = filename.replace(/\.[^/.]+$/, '');
+
+  const videoUrl = isAbsolute(rawStr) ? rawStr : `${MEDIA_BASE_URL}/${filename}`;
+  // posterUrl comes back server-relative (/media/<base>.webp)
+  const posterUrl = summary.posterUrl
+    ? isAbsolute(summary.posterUrl)
+      ? summary.posterUrl
+      : `${MEDIA_DOMAIN}${summary.posterUrl}`
+    : `${MEDIA_BASE_URL}/${name}.webp`;
+
+  return {
+    name,
+    videoUrl,
+    posterUrl,
+    title: summary.title ?? undefined,
+    description: summary.description ?? undefined,
+    channel: summary.channel ?? undefined,
+    viewCount: summary.viewCount ?? undefined,
+    likeCount: summary.likeCount ?? undefined,
+    durationSeconds: summary.durationSeconds ?? undefined,
+    videoId: summary.videoId,
+  };
+}
+
 export function useAllVideos() {
   const [value, setValue] = useState<VideoItem[]>([]);
   const [message, setMessage] = useState<string>('Loading...');
@@ -28,168 +73,9 @@ export function useAllVideos() {
     const getVideos = async () => {
       try {
         setLoading('loading');
-        const response = await axios.get<any[]>(ALL_VIDEOS_URL);
+        const response = await axios.get<VideoSummary[]>(CATALOG_URL);
         if (response.status === 200) {
-          const mapped = await Promise.all(
-            response.data.map(async (u) => {
-              // Support both string responses ("/media/1.mp4") and full Video objects ({ fileName, title, description, videoId })
-              let raw: string | undefined;
-              let titleFromObj: string | undefined;
-              let descriptionFromObj: string | undefined;
-              let videoIdFromObj: string | undefined;
-              if (typeof u === 'string') {
-                raw = u;
-              } else if (u && typeof u === 'object') {
-                // candidate fields that might hold filename/url
-                raw = u.fileName ?? u.file ?? u.videoUrl ?? u.path ?? undefined;
-                titleFromObj = u.title ?? undefined;
-                descriptionFromObj = u.description ?? undefined;
-                videoIdFromObj = u.videoId ?? u.id ?? undefined;
-              }
-
-              // If still no raw string, fallback to JSON-stringified representation (safe guard)
-              const rawStr = raw ?? JSON.stringify(u);
-
-              // Remove any path and extension for display name
-              const filename = rawStr.split('/').pop() || rawStr;
-              const base = filename.replace(/\.[^/.]+$/, ''); // remove extension
-              const name = base; // display name without extension
-
-              // Compute videoUrl (absolute URLs are kept; otherwise use backend media handler)
-              const videoUrl =
-                rawStr.startsWith('http://') || rawStr.startsWith('https://')
-                  ? rawStr
-                  : `${MEDIA_BASE_URL}/${filename}`;
-
-              // Poster: backend stores posters as <base>.webp (e.g. '1.webp')
-              const posterFilename = `${base}.webp`;
-              const posterUrl =
-                posterFilename.startsWith('http://') || posterFilename.startsWith('https://')
-                  ? posterFilename
-                  : `${MEDIA_BASE_URL}/${posterFilename}`;
-
-              // Try to fetch metadata JSON at <base>.json but prefer title/description from backend object
-              let title: string | undefined = titleFromObj;
-              let description: string | undefined = descriptionFromObj;
-              let channel: string | undefined;
-              let viewCount: number | undefined;
-              let likeCount: number | undefined;
-              let durationSeconds: number | undefined;
-
-              if (!title || !description || viewCount == null || likeCount == null || durationSeconds == null) {
-                // Try multiple candidate metadata paths to be resilient against naming differences.
-                const candidateMetaPaths = [`${MEDIA_BASE_URL}/${base}.json`, `${MEDIA_BASE_URL}/${filename}.json`];
-                if (videoIdFromObj) candidateMetaPaths.push(`${MEDIA_BASE_URL}/${videoIdFromObj}.json`);
-
-                let gotMeta = false;
-                for (const metaUrl of candidateMetaPaths) {
-                  try {
-                    console.debug('Fetching metadata for', base, '->', metaUrl);
-                    const metaResp = await axios.get(metaUrl);
-                    if (metaResp.status === 200 && metaResp.data) {
-                      const data = metaResp.data;
-                      const meta = data.meta || {};
-                      // Title can be at root; description usually inside meta
-                      title = title ?? (data.title || meta.title);
-                      description = description ?? (data.description || meta.description);
-                      channel =
-                        channel ??
-                        (data.channel || meta.channel || data.user || data.author || meta.author || data.uploader);
-                      const vcRaw =
-                        meta.view_count ??
-                        data.view_count ??
-                        meta.views ??
-                        data.views ??
-                        data.viewCount ??
-                        meta.viewCount;
-                      if (vcRaw != null) {
-                        const num = Number(vcRaw);
-                        if (!Number.isNaN(num) && num >= 0) viewCount = num;
-                      }
-                      const lcRaw =
-                        meta.like_count ??
-                        data.like_count ??
-                        meta.likes ??
-                        data.likes ??
-                        data.likeCount ??
-                        meta.likeCount;
-                      if (lcRaw != null) {
-                        const num = Number(lcRaw);
-                        if (!Number.isNaN(num) && num >= 0) likeCount = num;
-                      }
-                      const durRaw =
-                        data.duration ??
-                        meta.duration ??
-                        data.length_seconds ??
-                        meta.length_seconds ??
-                        data.length ??
-                        meta.length ??
-                        data.durationSeconds ??
-                        meta.durationSeconds;
-                      if (durRaw != null) {
-                        const num = Number(durRaw);
-                        if (!Number.isNaN(num) && num >= 0) durationSeconds = num;
-                      }
-                      gotMeta = true;
-                      break;
-                    }
-                  } catch (e: any) {
-                    console.debug('Metadata fetch failed for', metaUrl, (e && e.message) || e);
-                  }
-                }
-
-                if (!gotMeta && typeof (u as any) === 'object' && (u as any).meta) {
-                  // If the backend already included `meta` in the object, prefer it
-                  const data = u as any;
-                  const meta = data.meta || {};
-                  title = title ?? (data.title || meta.title);
-                  description = description ?? (data.description || meta.description);
-                  channel =
-                    channel ??
-                    (data.channel || meta.channel || data.user || data.author || meta.author || data.uploader);
-                  const vcRaw =
-                    meta.view_count ?? data.view_count ?? meta.views ?? data.views ?? data.viewCount ?? meta.viewCount;
-                  if (vcRaw != null) {
-                    const num = Number(vcRaw);
-                    if (!Number.isNaN(num) && num >= 0) viewCount = num;
-                  }
-                  const lcRaw =
-                    meta.like_count ?? data.like_count ?? meta.likes ?? data.likes ?? data.likeCount ?? meta.likeCount;
-                  if (lcRaw != null) {
-                    const num = Number(lcRaw);
-                    if (!Number.isNaN(num) && num >= 0) likeCount = num;
-                  }
-                  const durRaw =
-                    data.duration ??
-                    meta.duration ??
-                    data.length_seconds ??
-                    meta.length_seconds ??
-                    data.length ??
-                    meta.length ??
-                    data.durationSeconds ??
-                    meta.durationSeconds;
-                  if (durRaw != null) {
-                    const num = Number(durRaw);
-                    if (!Number.isNaN(num) && num >= 0) durationSeconds = num;
-                  }
-                }
-              }
-
-              return {
-                name,
-                videoUrl,
-                posterUrl,
-                title,
-                description,
-                channel,
-                viewCount,
-                likeCount,
-                durationSeconds,
-                videoId: videoIdFromObj,
-              };
-            })
-          );
-          setValue(mapped);
+          setValue(response.data.map(toVideoItem));
         }
         setLoading('success');
       } catch (error: unknown) {
@@ -4,6 +4,7 @@ export const getEnv = () => {
   return {
     API_BASE_URL: `${VITE_API_DOMAIN}/api`,
     MEDIA_BASE_URL: `${VITE_MEDIA_DOMAIN}/media`,
+    MEDIA_DOMAIN: `${VITE_MEDIA_DOMAIN}`,
     __vite__: otherViteConfig,
   };
 };